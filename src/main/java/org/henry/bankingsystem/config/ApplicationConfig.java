@@ -3,6 +3,7 @@ package org.henry.bankingsystem.config;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.thymeleaf.spring5.SpringTemplateEngine;
 import org.thymeleaf.spring5.templateresolver.SpringResourceTemplateResolver;
@@ -12,6 +13,7 @@ import org.thymeleaf.templateresolver.ITemplateResolver;
 import java.util.concurrent.Executor;
 
 @EnableAsync(proxyTargetClass = true)
+@EnableScheduling
 @Configuration
 public class ApplicationConfig {
 
@@ -43,4 +45,15 @@ public class ApplicationConfig {
         return executor;
     }
 
+    /* Runs a job started by hand (e.g. a ledger reconciliation) one at a time; a second one is rejected while it runs */
+    @Bean("jobExecutor")
+    public Executor jobExecutor(){
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("banking-job-");
+        return executor;
+    }
+
 }
@@ -0,0 +1,101 @@
+package org.henry.bankingsystem.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Read replicas, switched on by setting banking.datasource.replica.urls (comma separated JDBC URLs,
+ * same credentials as the primary unless banking.datasource.replica.username/password are set).
+ * The application DataSource then becomes a ReadReplicaRoutingDataSource: @Transactional(readOnly = true)
+ * work goes to the replicas and everything else, including schema updates, to the primary at
+ * spring.datasource.url. A customer who sent a POST, PUT, PATCH or DELETE reads from the primary
+ * until banking.datasource.replica.max-lag-millis after it finished.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "banking.datasource.replica.urls")
+public class ReadReplicaDataSourceConfig {
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    @Value("${banking.datasource.replica.max-lag-millis:2000}")
+    private long maxLagMillis;
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(DataSourceProperties properties,
+                                                                     @Value("${banking.datasource.replica.urls}") String urls,
+                                                                     @Value("${banking.datasource.replica.username:}") String username,
+                                                                     @Value("${banking.datasource.replica.password:}") String password,
+                                                                     @Value("${banking.datasource.replica.pool-size:10}") int poolSize) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : Arrays.stream(urls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList()) {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setJdbcUrl(url);
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            replica.setPassword(username.isEmpty() ? properties.determinePassword() : password);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        log.info("Routing read-only transactions to {} replicas", replicas.size());
+        return new ReadReplicaRoutingDataSource(primary, replicas, maxLagMillis);
+    }
+
+    /* The connection is only taken on the first statement, once the transaction's read-only flag is set */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+
+    /* Staleness guard: remembers who just changed something, so their next reads see it */
+    @Bean
+    public WebMvcConfigurer replicaStalenessGuard(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        HandlerInterceptor interceptor = new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                recordWrite(request);
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                recordWrite(request);
+            }
+
+            private void recordWrite(HttpServletRequest request) {
+                String caller = ReadReplicaRoutingDataSource.currentCaller();
+                if (caller != null && WRITE_METHODS.contains(request.getMethod())) {
+                    readReplicaRoutingDataSource.recordWrite(caller);
+                }
+            }
+        };
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+        };
+    }
+}
@@ -0,0 +1,100 @@
+package org.henry.bankingsystem.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.dto.DataSourceRoutingStatsDto;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends connections of read-only transactions to the replicas, round robin, and everything else to
+ * the primary. Must sit behind a LazyConnectionDataSourceProxy, so the connection is only chosen
+ * once the transaction's read-only flag is known.
+ * <p>
+ * Staleness guard: a caller (the authenticated user) that changed something within the last
+ * maxLagMillis reads from the primary, so it always sees its own writes even if the replicas lag
+ * by up to that much. Callers are recorded by {@link #recordWrite}; the guard is per node.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+    /* Callers tracked before expired entries are pruned */
+    private static final int MAX_TRACKED_CALLERS = 10_000;
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final long maxLagMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Map<String, Long> lastWriteByCaller = new ConcurrentHashMap<>();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder staleGuardFallbacks = new LongAdder();
+
+    public ReadReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long maxLagMillis) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("At least one replica is required");
+        }
+        this.maxLagMillis = maxLagMillis;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /** Sends the reads of caller to the primary for the next maxLagMillis. */
+    public void recordWrite(String caller) {
+        long now = System.currentTimeMillis();
+        if (lastWriteByCaller.size() >= MAX_TRACKED_CALLERS) {
+            lastWriteByCaller.values().removeIf(writtenAt -> now - writtenAt > maxLagMillis);
+        }
+        lastWriteByCaller.put(caller, now);
+    }
+
+    /** Name of the authenticated user of the current thread, or null. */
+    public static String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    public DataSourceRoutingStatsDto stats() {
+        long primary = primaryConnections.sum();
+        long replica = replicaConnections.sum();
+        return new DataSourceRoutingStatsDto(replicaKeys.size(), primary, replica, staleGuardFallbacks.sum(),
+                primary + replica == 0 ? 0 : (double) replica / (primary + replica));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            return PRIMARY;
+        }
+        String caller = currentCaller();
+        Long writtenAt = caller == null ? null : lastWriteByCaller.get(caller);
+        if (writtenAt != null && System.currentTimeMillis() - writtenAt <= maxLagMillis) {
+            staleGuardFallbacks.increment();
+            primaryConnections.increment();
+            return PRIMARY;
+        }
+        replicaConnections.increment();
+        return replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size()));
+    }
+}
@@ -1,5 +1,6 @@
 package org.henry.bankingsystem.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.henry.bankingsystem.enums.AdminRoles;
 import org.henry.bankingsystem.service.LogoutService;
@@ -36,9 +37,11 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception{
         http.csrf(AbstractHttpConfigurer::disable) // Disable CSRF
                 .authorizeHttpRequests(request -> request
-                    .requestMatchers("auth/**", "/error**").permitAll() // Permits all Users to access Authentication Endpoints
+                    .requestMatchers("/auth/**", "/error**").permitAll() // Permits all Users to access Authentication Endpoints
+                        // Async results (e.g. pipelined transfers) are dispatched again once ready; the original request was already authorised
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         // Protects all admin Endpoints unless having an Admin Role
-                    .requestMatchers("api/v1/admin/**").hasAnyAuthority(Arrays.toString(AdminRoles.values()))
+                    .requestMatchers("/api/v1/admin/**").hasAnyAuthority(Arrays.stream(AdminRoles.values()).map(Enum::name).toArray(String[]::new))
                     .anyRequest().authenticated()) // Every other Request has to be authenticated.
                 .sessionManagement(manager -> manager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 /*
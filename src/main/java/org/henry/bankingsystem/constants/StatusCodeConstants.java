@@ -37,6 +37,7 @@ public class StatusCodeConstants {
     public static final int TRANSACTION_INSUFFICIENT_FUNDS = 51;  // Insufficient funds
     public static final int TRANSACTION_LIMIT_EXCEEDED = 52;  // Transaction limit exceeded
     public static final int TRANSACTION_INVALID_ACCOUNT = 53;  // Invalid account number
+    public static final int TRANSACTION_DUPLICATE_REQUEST = 54;  // Idempotency-Key still in progress or reused with another payload
 
     /* Profile Update Codes */
     public static final int PROFILE_UPDATE_FAILED = 60;  // Generic profile update failure
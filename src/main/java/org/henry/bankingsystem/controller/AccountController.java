@@ -1,16 +1,31 @@
 package org.henry.bankingsystem.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.henry.bankingsystem.dto.*;
+import org.henry.bankingsystem.enums.StatementFormat;
 import org.henry.bankingsystem.repository.AccountRepository;
 import org.henry.bankingsystem.service.AccountService;
+import org.henry.bankingsystem.service.IdempotencyService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.henry.bankingsystem.constants.StatusCodeConstants.SUCCESS;
+import static org.henry.bankingsystem.service.IdempotencyService.IDEMPOTENCY_KEY_HEADER;
 
 @RestController
 @RequestMapping("api/v1/account")
@@ -20,6 +35,8 @@ public class AccountController {
     private static final Logger log = LoggerFactory.getLogger(AccountController.class);
     private final AccountService accountService;
     private final AccountRepository accountRepository;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
 
 
     /**
@@ -44,34 +61,105 @@ public class AccountController {
 
     /**
      * Endpoint to deposit money into the account.
+     * @param idempotencyKey optional key; a retry with the same key replays the first response.
      * @param deposit contains the deposit details.
      * @return the updated balance after the deposit.
      */
     @PostMapping("/make-deposit")
-    public ResponseEntity<DefaultApiResponse<ViewBalanceDto>> makeDeposit(@Valid @RequestBody DepositDto deposit){
-        DefaultApiResponse<ViewBalanceDto> response = accountService.depositMoney(deposit);
-        return ResponseEntity.status(HttpStatus.OK).body(response);
+    public CompletableFuture<ResponseEntity<DefaultApiResponse<ViewBalanceDto>>> makeDeposit(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody DepositDto deposit){
+        return idempotencyService.executeAsync(idempotencyKey, "make-deposit", deposit,
+                ViewBalanceDto.class, () -> accountService.depositMoney(deposit))
+                .thenApply(response -> ResponseEntity.status(HttpStatus.OK).body(response));
     }
 
     /**
      * Endpoint to withdraw money from the account.
+     * @param idempotencyKey optional key; a retry with the same key replays the first response.
      * @param withdraw contains the withdrawal details.
      * @return the updated balance after the withdrawal.
      */
     @PostMapping("/withdraw")
-    public ResponseEntity<DefaultApiResponse<BalanceDto>> makeWithdrawal(@Valid @RequestBody WithdrawDto withdraw){
-        DefaultApiResponse<BalanceDto> response = accountService.makeWithdrawal(withdraw);
+    public ResponseEntity<DefaultApiResponse<BalanceDto>> makeWithdrawal(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody WithdrawDto withdraw){
+        DefaultApiResponse<BalanceDto> response = idempotencyService.execute(idempotencyKey, "withdraw", withdraw,
+                BalanceDto.class, () -> accountService.makeWithdrawal(withdraw));
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
     /**
      * Endpoint to transfer money from one account to another.
+     * @param idempotencyKey optional key; a retry with the same key replays the first response.
      * @param transfer contains the transfer details.
      * @return the updated balance after the transfer.
      */
     @PostMapping("/make-transfer")
-    public ResponseEntity<DefaultApiResponse<BalanceDto>> makeTransfer(@Valid @RequestBody TransferDto transfer) {
-        DefaultApiResponse<BalanceDto> response = accountService.makeTransfer(transfer);
+    public CompletableFuture<ResponseEntity<DefaultApiResponse<BalanceDto>>> makeTransfer(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody TransferDto transfer) {
+        return idempotencyService.executeAsync(idempotencyKey, "make-transfer", transfer,
+                BalanceDto.class, () -> accountService.makeTransfer(transfer))
+                .thenApply(response -> ResponseEntity.status(HttpStatus.OK).body(response));
+    }
+
+    /**
+     * Endpoint to make many transfers from the account in one request (payroll / payouts).
+     * @param idempotencyKey optional key; a retry with the same key replays the first response.
+     * @param batchTransfer contains the pin and the list of transfers.
+     * @return a result for every transfer in the batch and the balance after the batch.
+     */
+    @PostMapping("/make-transfers/batch")
+    public ResponseEntity<DefaultApiResponse<BatchTransferResultDto>> makeBatchTransfer(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BatchTransferDto batchTransfer) {
+        DefaultApiResponse<BatchTransferResultDto> response = idempotencyService.execute(idempotencyKey, "make-transfers/batch", batchTransfer,
+                BatchTransferResultDto.class, () -> accountService.makeBatchTransfer(batchTransfer));
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to set up a standing order, a transfer repeated on a schedule.
+     * @param idempotencyKey optional key; a retry with the same key replays the first response.
+     * @param scheduledTransfer receiver, amount, description, cron expression (with seconds), optional number of runs and the pin.
+     * @return the standing order with its first run.
+     */
+    @PostMapping("/scheduled-transfers")
+    public ResponseEntity<DefaultApiResponse<ScheduledTransferDto>> createScheduledTransfer(@RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody ScheduledTransferRequestDto scheduledTransfer) {
+        DefaultApiResponse<ScheduledTransferDto> response = idempotencyService.execute(idempotencyKey, "scheduled-transfers", scheduledTransfer,
+                ScheduledTransferDto.class, () -> accountService.createScheduledTransfer(scheduledTransfer));
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to list the standing orders of the account.
+     * @return every standing order, active or not, with its next run.
+     */
+    @GetMapping("/scheduled-transfers")
+    public ResponseEntity<DefaultApiResponse<List<ScheduledTransferDto>>> getScheduledTransfers() {
+        DefaultApiResponse<List<ScheduledTransferDto>> response = accountService.getScheduledTransfers();
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to cancel a standing order.
+     * @param scheduleId the standing order.
+     * @return the cancelled standing order.
+     */
+    @DeleteMapping("/scheduled-transfers/{scheduleId}")
+    public ResponseEntity<DefaultApiResponse<ScheduledTransferDto>> cancelScheduledTransfer(@PathVariable Long scheduleId) {
+        DefaultApiResponse<ScheduledTransferDto> response = accountService.cancelScheduledTransfer(scheduleId);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to view the outcome of each run of a standing order.
+     * @param scheduleId the standing order.
+     * @param limit how many runs to return, newest first (at most 100).
+     * @return when each run was due and ran, and whether it was paid.
+     */
+    @GetMapping("/scheduled-transfers/{scheduleId}/runs")
+    public ResponseEntity<DefaultApiResponse<List<ScheduledTransferRunDto>>> getScheduledTransferRuns(@PathVariable Long scheduleId,
+                                                                                                        @RequestParam(defaultValue = "20") int limit) {
+        DefaultApiResponse<List<ScheduledTransferRunDto>> response = accountService.getScheduledTransferRuns(scheduleId, limit);
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
@@ -97,15 +185,53 @@ public class AccountController {
     }
 
     /**
-     * Endpoint to view the bank statement.
-     * @return the bank statement for the user's account.
+     * Endpoint to view the balance at the close of a past day.
+     * @param date the day (yyyy-MM-dd); today gives the balance so far.
+     * @return the balance of the user's account at the end of that day.
+     */
+    @GetMapping("/view-balance-as-of")
+    public ResponseEntity<DefaultApiResponse<BalanceAsOfDto>> getBalanceAsOf(
+            @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date){
+        DefaultApiResponse<BalanceAsOfDto> response = accountService.getBalanceAsOf(date);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to view the bank statement, one page at a time (newest first).
+     * @param query optional cursor from the previous page, date range (yyyy-MM-dd, inclusive), type, category and page size.
+     * @return a page of the bank statement for the user's account and the cursor of the next page.
      */
     @GetMapping("/view-bank-statement")
-    public ResponseEntity<DefaultApiResponse<?>> getBankStatement(){
-        DefaultApiResponse<?> response = new DefaultApiResponse<>();
+    public ResponseEntity<DefaultApiResponse<StatementPageDto>> getBankStatement(StatementQueryDto query){
+        DefaultApiResponse<StatementPageDto> response = accountService.getBankStatement(query);
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
 
+    /**
+     * Endpoint to download the bank statement as one file, oldest line first, streamed as it is read.
+     * @param query optional date range (yyyy-MM-dd, inclusive), type and category; cursor and size are ignored.
+     * @param format CSV (default) or NDJSON, one JSON object per line.
+     * @param gzip whether to compress the file on the fly.
+     * @return the statement file, or the reason it cannot be exported.
+     */
+    @GetMapping("/export-bank-statement")
+    public ResponseEntity<StreamingResponseBody> exportBankStatement(StatementQueryDto query,
+                                                                     @RequestParam(value = "format", defaultValue = "CSV") StatementFormat format,
+                                                                     @RequestParam(value = "gzip", defaultValue = "false") boolean gzip){
+        DefaultApiResponse<StatementExportDto> response = accountService.exportBankStatement(query, format, gzip);
+        if (response.getStatusCode() != SUCCESS) {
+            // Streamed bodies skip the message converters, so the error is written as JSON here
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(output -> objectMapper.writeValue(output, response));
+        }
+        StatementExportDto export = response.getData();
+        return ResponseEntity.status(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(export.fileName()).build().toString())
+                .contentType(MediaType.parseMediaType(export.contentType()))
+                .body(export.body());
+    }
+
     /**
      * Endpoint to update user profile information.
      * @param updateInfo contains the updated profile information.
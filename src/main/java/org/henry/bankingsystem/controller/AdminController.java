@@ -1,11 +1,38 @@
 package org.henry.bankingsystem.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.henry.bankingsystem.config.ReadReplicaRoutingDataSource;
+import org.henry.bankingsystem.dto.DataSourceRoutingStatsDto;
 import org.henry.bankingsystem.dto.DefaultApiResponse;
+import org.henry.bankingsystem.dto.FeeScheduleDto;
+import org.henry.bankingsystem.dto.FixedDepositDto;
+import org.henry.bankingsystem.dto.HotAccountDto;
+import org.henry.bankingsystem.dto.LockStripeStatsDto;
+import org.henry.bankingsystem.dto.ReconciliationMismatchDto;
+import org.henry.bankingsystem.dto.ReconciliationReportDto;
+import org.henry.bankingsystem.dto.StatementExportStatsDto;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.FixedDeposit;
+import org.henry.bankingsystem.enums.MaturityInstruction;
+import org.henry.bankingsystem.jobs.FixedDepositMaturityScheduler;
+import org.henry.bankingsystem.jobs.LedgerReconciliationJob;
+import org.henry.bankingsystem.repository.ReconciliationMismatchRepository;
+import org.henry.bankingsystem.service.FeeEngine;
+import org.henry.bankingsystem.service.FixedDepositService;
+import org.henry.bankingsystem.service.HotAccountService;
+import org.henry.bankingsystem.service.StatementExporter;
+import org.henry.bankingsystem.utils.AccountLockManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
+import static org.henry.bankingsystem.constants.StatusCodeConstants.*;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("api/v1/admin")
@@ -13,6 +40,15 @@ public class AdminController {
 
     // Service layer dependency to handle admin-related operations.
 //    private final AdminService adminService;
+    private final AccountLockManager accountLockManager;
+    private final HotAccountService hotAccountService;
+    private final FeeEngine feeEngine;
+    private final StatementExporter statementExporter;
+    private final LedgerReconciliationJob ledgerReconciliationJob;
+    private final ReconciliationMismatchRepository reconciliationMismatchRepository;
+    private final FixedDepositService fixedDepositService;
+    private final FixedDepositMaturityScheduler fixedDepositMaturityScheduler;
+    private final ObjectProvider<ReadReplicaRoutingDataSource> readReplicaRoutingDataSource;
 
     /**
      * Endpoint for an admin to suspend a user.
@@ -24,4 +60,161 @@ public class AdminController {
         DefaultApiResponse<?> response = new DefaultApiResponse<>();
         return ResponseEntity.status(HttpStatus.OK).body(response);
     }
+
+    /**
+     * Endpoint to inspect contention on the in-process account lock table.
+     * @return acquisition, contention and wait-time counters for every stripe that has been used.
+     */
+    @GetMapping("/metrics/account-locks")
+    public ResponseEntity<DefaultApiResponse<List<LockStripeStatsDto>>> getAccountLockStats() {
+        DefaultApiResponse<List<LockStripeStatsDto>> response = new DefaultApiResponse<>();
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Account lock stripe statistics");
+        response.setData(accountLockManager.stripeStats());
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to inspect statement export throughput.
+     * @return exports completed, failed and in progress, and the lines, bytes and time they took since startup.
+     */
+    @GetMapping("/metrics/statement-exports")
+    public ResponseEntity<DefaultApiResponse<StatementExportStatsDto>> getStatementExportStats() {
+        DefaultApiResponse<StatementExportStatsDto> response = new DefaultApiResponse<>();
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Statement export statistics");
+        response.setData(statementExporter.stats());
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to see how much of the database traffic the read replicas take.
+     * @return connections given to the primary and to the replicas, and how many reads the staleness guard kept on the primary.
+     */
+    @GetMapping("/metrics/datasource-routing")
+    public ResponseEntity<DefaultApiResponse<DataSourceRoutingStatsDto>> getDataSourceRoutingStats() {
+        ReadReplicaRoutingDataSource routing = readReplicaRoutingDataSource.getIfAvailable();
+        DefaultApiResponse<DataSourceRoutingStatsDto> response = new DefaultApiResponse<>();
+        response.setStatusCode(routing == null ? RESOURCE_NOT_FOUND_EXCEPTION : SUCCESS);
+        response.setStatusMessage(routing == null ? "Read replicas are not configured" : "Datasource routing statistics");
+        response.setData(routing == null ? null : routing.stats());
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to switch hot-account mode on (slots > 0), resize it, or switch it off (slots = 0).
+     * Credits to a hot account are spread over its balance slots instead of queuing on the account row.
+     * @param accountNumber the collection account to configure.
+     * @param slots number of balance slots.
+     * @return the account number, its slot count and its total balance.
+     */
+    @PutMapping("/accounts/{accountNumber}/balance-slots")
+    public ResponseEntity<DefaultApiResponse<HotAccountDto>> configureBalanceSlots(@PathVariable String accountNumber,
+                                                                                   @RequestParam int slots) {
+        Account account = hotAccountService.configure(accountNumber, slots);
+        DefaultApiResponse<HotAccountDto> response = new DefaultApiResponse<>();
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage(slots > 0 ? "Hot account mode enabled" : "Hot account mode disabled");
+        response.setData(new HotAccountDto(account.getAccountNumber(), slots, hotAccountService.totalBalance(account)));
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to open a term on a FIXED_DEPOSIT account, on its whole balance at its current interest rate.
+     * @param accountNumber the fixed deposit account.
+     * @param termDays length of the term in days.
+     * @param instruction PAYOUT or ROLLOVER on maturity.
+     * @param payoutAccountNumber account of the same customer paid on maturity; omit to leave the money on the deposit.
+     * @return the term, with when it matures.
+     */
+    @PutMapping("/accounts/{accountNumber}/fixed-deposit")
+    public ResponseEntity<DefaultApiResponse<FixedDepositDto>> openFixedDeposit(@PathVariable String accountNumber,
+                                                                                @RequestParam int termDays,
+                                                                                @RequestParam(defaultValue = "PAYOUT") MaturityInstruction instruction,
+                                                                                @RequestParam(required = false) String payoutAccountNumber) {
+        FixedDeposit deposit = fixedDepositService.open(accountNumber, termDays, instruction, payoutAccountNumber);
+        fixedDepositMaturityScheduler.schedule(deposit.getAccountId(), deposit.getMaturesAt());
+        DefaultApiResponse<FixedDepositDto> response = new DefaultApiResponse<>();
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Fixed deposit opened");
+        response.setData(fixedDepositService.toDto(deposit, accountNumber));
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to apply changes to the fee_tiers table on this node right away instead of at the next refresh.
+     * An invalid table is rejected and the fee schedule in use is kept.
+     * @return the number of fee tiers loaded and when the schedule was compiled.
+     */
+    @PostMapping("/fees/reload")
+    public ResponseEntity<DefaultApiResponse<FeeScheduleDto>> reloadFeeSchedule() {
+        int tiers = feeEngine.reload();
+        DefaultApiResponse<FeeScheduleDto> response = new DefaultApiResponse<>();
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Fee schedule reloaded");
+        response.setData(new FeeScheduleDto(tiers, feeEngine.compiledAt()));
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to start a ledger reconciliation now instead of at its nightly time; it runs in the background.
+     * @return whether the run was started, or that one is already in progress.
+     */
+    @PostMapping("/reconciliation/run")
+    public ResponseEntity<DefaultApiResponse<?>> startReconciliation() {
+        DefaultApiResponse<?> response = new DefaultApiResponse<>();
+        boolean started = false;
+        if (!ledgerReconciliationJob.isRunning()) {
+            try {
+                ledgerReconciliationJob.reconcileInBackground();
+                started = true;
+            } catch (TaskRejectedException e) {
+                // The job executor still holds a run that has not flagged itself as running yet
+            }
+        }
+        if (!started) {
+            response.setStatusCode(SERVICE_UNAVAILABLE);
+            response.setStatusMessage("Ledger reconciliation already running");
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Ledger reconciliation started");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
+    /**
+     * Endpoint to read the report of the last ledger reconciliation on this node.
+     * @return accounts and lines checked, mismatches found and accounts skipped.
+     */
+    @GetMapping("/reconciliation/last-run")
+    public ResponseEntity<DefaultApiResponse<ReconciliationReportDto>> getLastReconciliation() {
+        ReconciliationReportDto report = ledgerReconciliationJob.lastRun();
+        DefaultApiResponse<ReconciliationReportDto> response = new DefaultApiResponse<>();
+        response.setStatusCode(report == null ? RESOURCE_NOT_FOUND_EXCEPTION : SUCCESS);
+        response.setStatusMessage(report == null ? "No ledger reconciliation has finished since startup" : "Ledger reconciliation report");
+        response.setData(report);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
+
+    /**
+     * Endpoint to list the mismatches a reconciliation run recorded, by account.
+     * @param runId the run, as given in its report.
+     * @param limit how many to return (at most 1000).
+     * @return the mismatches, with the expected and actual balance of each.
+     */
+    @GetMapping("/reconciliation/{runId}/mismatches")
+    public ResponseEntity<DefaultApiResponse<List<ReconciliationMismatchDto>>> getReconciliationMismatches(
+            @PathVariable String runId, @RequestParam(defaultValue = "100") int limit) {
+        List<ReconciliationMismatchDto> mismatches = reconciliationMismatchRepository
+                .findByRunIdOrderByAccountIdAscMismatchIdAsc(runId, Limit.of(Math.max(1, Math.min(limit, 1000))))
+                .stream()
+                .map(mismatch -> new ReconciliationMismatchDto(mismatch.getAccountId(), mismatch.getTransactionId(),
+                        mismatch.getMismatchType(), mismatch.getExpected(), mismatch.getActual()))
+                .toList();
+        DefaultApiResponse<List<ReconciliationMismatchDto>> response = new DefaultApiResponse<>();
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Ledger reconciliation mismatches");
+        response.setData(mismatches);
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
 }
@@ -0,0 +1,13 @@
+package org.henry.bankingsystem.dto;
+
+import org.henry.bankingsystem.enums.CurrencyType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record BalanceAsOfDto(
+        String accountNumber,
+        LocalDate date,
+        BigDecimal balance,
+        CurrencyType currencyType
+) {}
@@ -0,0 +1,12 @@
+package org.henry.bankingsystem.dto;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+public record BatchTransferDto(
+        @NotNull("Transfers are required")
+        List<BatchTransferItemDto> transfers,
+        @NotNull("Pin is required")
+        Long hashedPin
+) {}
@@ -0,0 +1,9 @@
+package org.henry.bankingsystem.dto;
+
+import java.math.BigDecimal;
+
+public record BatchTransferItemDto(
+        String accountNumber,
+        BigDecimal amount,
+        String description
+) {}
@@ -0,0 +1,12 @@
+package org.henry.bankingsystem.dto;
+
+import java.math.BigDecimal;
+
+public record BatchTransferItemResultDto(
+        int index,
+        String accountNumber,
+        BigDecimal amount,
+        BigDecimal charges,
+        int statusCode,
+        String statusMessage
+) {}
@@ -0,0 +1,13 @@
+package org.henry.bankingsystem.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record BatchTransferResultDto(
+        int total,
+        int succeeded,
+        int failed,
+        BigDecimal balance,
+        String lastUpdatedAt,
+        List<BatchTransferItemResultDto> results
+) {}
@@ -0,0 +1,9 @@
+package org.henry.bankingsystem.dto;
+
+public record DataSourceRoutingStatsDto(
+        int replicas,
+        long primaryConnections,
+        long replicaConnections,
+        long staleGuardFallbacks,
+        double replicaShare
+) {}
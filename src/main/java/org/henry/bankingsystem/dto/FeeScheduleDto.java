@@ -0,0 +1,8 @@
+package org.henry.bankingsystem.dto;
+
+import java.time.Instant;
+
+public record FeeScheduleDto(
+        int tiersLoaded,
+        Instant compiledAt
+) {}
@@ -0,0 +1,19 @@
+package org.henry.bankingsystem.dto;
+
+import org.henry.bankingsystem.enums.FixedDepositStatus;
+import org.henry.bankingsystem.enums.MaturityInstruction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record FixedDepositDto(
+        String accountNumber,
+        BigDecimal principal,
+        int rateBasisPoints,
+        int termDays,
+        LocalDateTime startsAt,
+        LocalDateTime maturesAt,
+        MaturityInstruction instruction,
+        String payoutAccountNumber,
+        FixedDepositStatus status
+) {}
@@ -0,0 +1,9 @@
+package org.henry.bankingsystem.dto;
+
+import java.math.BigDecimal;
+
+public record HotAccountDto(
+        String accountNumber,
+        int balanceSlots,
+        BigDecimal balance
+) {}
@@ -0,0 +1,9 @@
+package org.henry.bankingsystem.dto;
+
+public record LockStripeStatsDto(
+        int stripe,
+        long acquisitions,
+        long contended,
+        long totalWaitMicros,
+        long maxWaitMicros
+) {}
@@ -0,0 +1,13 @@
+package org.henry.bankingsystem.dto;
+
+import org.henry.bankingsystem.enums.MismatchType;
+
+import java.math.BigDecimal;
+
+public record ReconciliationMismatchDto(
+        Long accountId,
+        Long transactionId,
+        MismatchType mismatchType,
+        BigDecimal expected,
+        BigDecimal actual
+) {}
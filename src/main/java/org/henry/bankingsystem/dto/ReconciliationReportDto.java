@@ -0,0 +1,13 @@
+package org.henry.bankingsystem.dto;
+
+import java.time.LocalDateTime;
+
+public record ReconciliationReportDto(
+        String runId,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        long accountsChecked,
+        long linesChecked,
+        long mismatches,
+        long accountsSkipped
+) {}
@@ -0,0 +1,17 @@
+package org.henry.bankingsystem.dto;
+
+import org.henry.bankingsystem.enums.ScheduledTransferStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record ScheduledTransferDto(
+        Long scheduleId,
+        String accountNumber,
+        BigDecimal amount,
+        String description,
+        String cron,
+        LocalDateTime nextRunAt,
+        Integer remainingRuns,
+        ScheduledTransferStatus status
+) {}
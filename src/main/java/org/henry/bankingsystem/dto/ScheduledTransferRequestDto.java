@@ -0,0 +1,20 @@
+package org.henry.bankingsystem.dto;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.math.BigDecimal;
+
+public record ScheduledTransferRequestDto(
+        @NotNull("Account number is required")
+        String accountNumber,
+        @NotNull("Amount is required")
+        BigDecimal amount,
+        String description,
+        /* Spring cron expression with seconds, e.g. "0 0 9 1 * *" */
+        @NotNull("Cron expression is required")
+        String cron,
+        /* Number of runs; omit to repeat until cancelled */
+        Integer runs,
+        @NotNull("Pin is required")
+        Long hashedPin
+) {}
@@ -0,0 +1,12 @@
+package org.henry.bankingsystem.dto;
+
+import org.henry.bankingsystem.enums.ScheduledTransferOutcome;
+
+import java.time.LocalDateTime;
+
+public record ScheduledTransferRunDto(
+        LocalDateTime dueAt,
+        LocalDateTime executedAt,
+        ScheduledTransferOutcome outcome,
+        String message
+) {}
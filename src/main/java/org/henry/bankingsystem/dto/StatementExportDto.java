@@ -0,0 +1,10 @@
+package org.henry.bankingsystem.dto;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/* A statement ready to be streamed; nothing has been read from the database yet */
+public record StatementExportDto(
+        String fileName,
+        String contentType,
+        StreamingResponseBody body
+) {}
@@ -0,0 +1,11 @@
+package org.henry.bankingsystem.dto;
+
+public record StatementExportStatsDto(
+        long completed,
+        long failed,
+        int inProgress,
+        long lines,
+        long bytes,
+        long totalMillis,
+        long linesPerSecond
+) {}
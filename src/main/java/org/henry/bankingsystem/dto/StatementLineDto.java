@@ -0,0 +1,19 @@
+package org.henry.bankingsystem.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.henry.bankingsystem.enums.TransactionCategory;
+import org.henry.bankingsystem.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record StatementLineDto(
+        @JsonIgnore Long transactionId,
+        String transactionRef,
+        TransactionType transactionType,
+        TransactionCategory transactionCategory,
+        BigDecimal amount,
+        BigDecimal balanceAfterTransaction,
+        String targetAccountNumber,
+        LocalDateTime transactionDate
+) {}
@@ -0,0 +1,9 @@
+package org.henry.bankingsystem.dto;
+
+import java.util.List;
+
+/* nextCursor is null on the last page */
+public record StatementPageDto(
+        List<StatementLineDto> lines,
+        String nextCursor
+) {}
@@ -0,0 +1,17 @@
+package org.henry.bankingsystem.dto;
+
+import org.henry.bankingsystem.enums.TransactionCategory;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+/* Every field is optional; from and to are inclusive days */
+public record StatementQueryDto(
+        String cursor,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        TransactionType type,
+        TransactionCategory category,
+        Integer size
+) {}
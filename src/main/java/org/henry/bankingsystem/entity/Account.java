@@ -11,9 +11,9 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Getter @Setter @ToString
+@Getter @Setter @ToString(exclude = {"customer", "cards"})
 @Builder @AllArgsConstructor @NoArgsConstructor
-@Table(name = "accounts")
+@Table(name = "accounts", indexes = @Index(name = "idx_accounts_last_transaction", columnList = "last_transaction_date"))
 public class Account {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -54,11 +54,23 @@ public class Account {
 
     private BigDecimal interestRate;
 
+    @Column(name = "last_transaction_date")
     private LocalDateTime lastTransactionDate;
 
-    @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
-    private List<Transaction> transactions;
+    /* Number of balance slots credits are spread over; null or 0 for a normal account (see HotAccountService) */
+    @Column(name = "balance_slots")
+    private Integer balanceSlots;
+
+    /* Guards against lost updates from writers that do not take the row lock */
+    @Version
+    private Long version;
+
+    /* Statement lines are not mapped here; page through them with TransactionRepository instead */
 
     @OneToMany(mappedBy = "account", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Card> cards;
+
+    public boolean isHot() {
+        return balanceSlots != null && balanceSlots > 0;
+    }
 }
@@ -0,0 +1,30 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/* One share of a hot account's balance; credits land here so they do not queue on the account row */
+@Entity
+@Getter @Setter @ToString(exclude = "account")
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "account_balance_slots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_account_balance_slots", columnNames = {"account_id", "slot_no"}))
+public class AccountBalanceSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "slot_id")
+    private Long slotId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "account_id", nullable = false)
+    private Account account;
+
+    @Column(name = "slot_no", nullable = false)
+    private int slotNo;
+
+    @Column(name = "balance", nullable = false)
+    private BigDecimal balance;
+}
@@ -0,0 +1,21 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/* Balance of an account at the close of a day; written by BalanceSnapshotJob, never updated */
+@Entity @Immutable
+@Getter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "balance_snapshots")
+public class BalanceSnapshot {
+
+    @EmbeddedId
+    private BalanceSnapshotId id;
+
+    @Column(name = "closing_balance", nullable = false, updatable = false)
+    private BigDecimal closingBalance;
+}
@@ -0,0 +1,20 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Getter @EqualsAndHashCode @ToString
+@AllArgsConstructor @NoArgsConstructor
+public class BalanceSnapshotId implements Serializable {
+
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+
+    @Column(name = "snapshot_date", nullable = false)
+    private LocalDate snapshotDate;
+}
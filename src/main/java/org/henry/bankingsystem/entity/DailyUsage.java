@@ -0,0 +1,23 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/* Running total of what an account has sent out on one day; maintained by DailyUsageService */
+@Entity
+@Getter @Setter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "daily_usage")
+public class DailyUsage {
+
+    @EmbeddedId
+    private DailyUsageId id;
+
+    @Column(name = "debited_amount", nullable = false)
+    private BigDecimal debitedAmount;
+
+    @Column(name = "debit_count", nullable = false)
+    private int debitCount;
+}
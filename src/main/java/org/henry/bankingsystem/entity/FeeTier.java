@@ -0,0 +1,48 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.henry.bankingsystem.enums.AccountType;
+import org.henry.bankingsystem.enums.CurrencyType;
+import org.henry.bankingsystem.enums.TransactionType;
+
+import java.math.BigDecimal;
+
+/*
+ * One band of a fee schedule: amounts from lower_bound (inclusive) up to the next band's lower bound
+ * are charged flat_fee plus rate_basis_points / 10,000 of the amount. A null account_type applies to
+ * every account type that has no bands of its own.
+ */
+@Entity
+@Getter @Setter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "fee_tiers", indexes = @Index(name = "idx_fee_tiers_schedule",
+        columnList = "currency_type, transaction_type, account_type, lower_bound"))
+public class FeeTier {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "fee_tier_id")
+    private Long feeTierId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "currency_type", nullable = false, length = 8)
+    private CurrencyType currencyType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "account_type", length = 32)
+    private AccountType accountType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, length = 32)
+    private TransactionType transactionType;
+
+    @Column(name = "lower_bound", nullable = false)
+    private BigDecimal lowerBound;
+
+    @Column(name = "rate_basis_points", nullable = false)
+    private int rateBasisPoints;
+
+    @Column(name = "flat_fee", nullable = false)
+    private BigDecimal flatFee;
+}
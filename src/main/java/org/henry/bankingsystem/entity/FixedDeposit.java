@@ -0,0 +1,48 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.henry.bankingsystem.enums.FixedDepositStatus;
+import org.henry.bankingsystem.enums.MaturityInstruction;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/* Current term of a FIXED_DEPOSIT account; matured by FixedDepositService when maturesAt comes */
+@Entity
+@Getter @Setter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "fixed_deposits", indexes = @Index(name = "idx_fixed_deposits_due", columnList = "status, matures_at"))
+public class FixedDeposit {
+
+    @Id
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "principal", nullable = false)
+    private BigDecimal principal;
+
+    @Column(name = "rate_basis_points", nullable = false)
+    private int rateBasisPoints;
+
+    @Column(name = "term_days", nullable = false)
+    private int termDays;
+
+    @Column(name = "starts_at", nullable = false)
+    private LocalDateTime startsAt;
+
+    @Column(name = "matures_at", nullable = false)
+    private LocalDateTime maturesAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "instruction", nullable = false)
+    private MaturityInstruction instruction;
+
+    /* Account principal and interest are paid to on maturity; null leaves them on the deposit */
+    @Column(name = "payout_account_id")
+    private Long payoutAccountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private FixedDepositStatus status;
+}
@@ -0,0 +1,47 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.henry.bankingsystem.enums.IdempotencyStatus;
+
+import java.time.Instant;
+
+@Entity
+@Getter @Setter @ToString(exclude = "responseBody")
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    /* SHA-256 of customer, endpoint and the client supplied Idempotency-Key */
+    @Id
+    @Column(name = "key_hash", length = 64)
+    private String keyHash;
+
+    @Column(name = "endpoint", nullable = false)
+    private String endpoint;
+
+    /* SHA-256 of the request payload, so a key cannot be replayed with a different body */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private IdempotencyStatus status;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /* Identifies the request currently holding an IN_PROGRESS key; only its posting may complete it */
+    @Column(name = "lease_token", length = 36)
+    private String leaseToken;
+
+    /* Until then the IN_PROGRESS key is left to its holder; afterwards a retry may take it over */
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+}
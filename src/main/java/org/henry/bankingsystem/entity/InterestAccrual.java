@@ -0,0 +1,28 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/* One day's interest earned by an account on its closing balance; written by InterestAccrualJob, never updated */
+@Entity @Immutable
+@Getter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "interest_accruals")
+public class InterestAccrual {
+
+    @EmbeddedId
+    private InterestAccrualId id;
+
+    @Column(name = "closing_balance", nullable = false, updatable = false)
+    private BigDecimal closingBalance;
+
+    @Column(name = "rate_basis_points", nullable = false, updatable = false)
+    private int rateBasisPoints;
+
+    /* Interest in millionths of a minor unit (see Money.dailyInterestMicros) */
+    @Column(name = "accrued_micros", nullable = false, updatable = false)
+    private long accruedMicros;
+}
@@ -0,0 +1,32 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/* How far a chunked batch job has got with its current business date, so a restart resumes there */
+@Entity
+@Getter @Setter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "job_checkpoints")
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", nullable = false, length = 64)
+    private String jobName;
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    /* Highest id of the last chunk committed for businessDate */
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
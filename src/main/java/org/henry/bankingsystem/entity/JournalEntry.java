@@ -0,0 +1,30 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/* Header of a balanced posting; rows are only ever inserted (see LedgerService) */
+@Entity @Immutable
+@Getter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "journal_entries")
+public class JournalEntry {
+
+    @Id
+    @Column(name = "entry_ref", nullable = false, updatable = false, length = 40)
+    private String entryRef;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "transaction_type", nullable = false, updatable = false)
+    private TransactionType transactionType;
+
+    @Column(name = "description", updatable = false)
+    private String description;
+
+    @Column(name = "posted_at", nullable = false, updatable = false)
+    private LocalDateTime postedAt;
+}
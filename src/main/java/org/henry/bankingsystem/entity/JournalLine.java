@@ -0,0 +1,44 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.henry.bankingsystem.enums.LedgerCode;
+import org.henry.bankingsystem.enums.TransactionCategory;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/* One leg of a JournalEntry; customer legs carry the account, bank legs only the ledger code */
+@Entity @Immutable
+@Getter @ToString(exclude = {"journalEntry", "account"})
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "journal_lines", indexes = @Index(name = "idx_journal_lines_entry", columnList = "entry_ref"))
+public class JournalLine {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "line_id")
+    private Long lineId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "entry_ref", nullable = false, updatable = false)
+    private JournalEntry journalEntry;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ledger_code", nullable = false, updatable = false)
+    private LedgerCode ledgerCode;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", updatable = false)
+    private Account account;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "direction", nullable = false, updatable = false)
+    private TransactionCategory direction;
+
+    @Column(name = "amount", nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(name = "balance_after", updatable = false)
+    private BigDecimal balanceAfter;
+}
@@ -0,0 +1,19 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/* Named counter handed out in blocks; next_value is the first value not yet reserved by any node */
+@Entity
+@Getter @Setter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "number_sequences")
+public class NumberSequence {
+
+    @Id
+    @Column(name = "sequence_name", length = 64)
+    private String sequenceName;
+
+    @Column(name = "next_value", nullable = false)
+    private Long nextValue;
+}
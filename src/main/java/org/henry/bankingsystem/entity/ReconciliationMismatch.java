@@ -0,0 +1,45 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.henry.bankingsystem.enums.MismatchType;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/* One discrepancy found by LedgerReconciliationJob; transactionId is null for a final-balance mismatch */
+@Entity @Immutable
+@Getter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "reconciliation_mismatches",
+        indexes = @Index(name = "idx_reconciliation_mismatches_run", columnList = "run_id, account_id"))
+public class ReconciliationMismatch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "mismatch_id")
+    private Long mismatchId;
+
+    @Column(name = "run_id", nullable = false, updatable = false, length = 36)
+    private String runId;
+
+    @Column(name = "account_id", nullable = false, updatable = false)
+    private Long accountId;
+
+    @Column(name = "transaction_id", updatable = false)
+    private Long transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "mismatch_type", nullable = false, updatable = false)
+    private MismatchType mismatchType;
+
+    @Column(name = "expected", nullable = false, updatable = false)
+    private BigDecimal expected;
+
+    @Column(name = "actual", nullable = false, updatable = false)
+    private BigDecimal actual;
+
+    @Column(name = "detected_at", nullable = false, updatable = false)
+    private LocalDateTime detectedAt;
+}
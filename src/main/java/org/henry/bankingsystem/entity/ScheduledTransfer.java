@@ -0,0 +1,64 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.henry.bankingsystem.enums.ScheduledTransferStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/* A standing order: a transfer repeated at every occurrence of a cron expression, run by ScheduledTransferExecutor */
+@Entity
+@Getter @Setter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "scheduled_transfers", indexes = {
+        @Index(name = "idx_scheduled_transfers_due", columnList = "status, next_run_at"),
+        @Index(name = "idx_scheduled_transfers_sender", columnList = "sender_account_id, status")
+})
+public class ScheduledTransfer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "schedule_id")
+    private Long scheduleId;
+
+    @Column(name = "sender_account_id", nullable = false, updatable = false)
+    private Long senderAccountId;
+
+    @Column(name = "receiver_account_id", nullable = false, updatable = false)
+    private Long receiverAccountId;
+
+    @Column(name = "receiver_account_number", nullable = false, updatable = false)
+    private String receiverAccountNumber;
+
+    @Column(name = "amount", nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(name = "description", nullable = false, updatable = false)
+    private String description;
+
+    /* Spring cron expression with seconds, e.g. "0 0 9 1 * *" for 09:00 on the first of every month */
+    @Column(name = "cron_expression", nullable = false, updatable = false, length = 64)
+    private String cronExpression;
+
+    @Column(name = "next_run_at", nullable = false)
+    private LocalDateTime nextRunAt;
+
+    /* Runs left before the order completes; null repeats until cancelled */
+    @Column(name = "remaining_runs")
+    private Integer remainingRuns;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private ScheduledTransferStatus status;
+
+    /* Node running the order's current occurrence, until claimedUntil */
+    @Column(name = "claimed_by", length = 64)
+    private String claimedBy;
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,36 @@
+package org.henry.bankingsystem.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.henry.bankingsystem.enums.ScheduledTransferOutcome;
+
+import java.time.LocalDateTime;
+
+/* Outcome of one occurrence of a ScheduledTransfer */
+@Entity
+@Getter @Setter @ToString
+@Builder @AllArgsConstructor @NoArgsConstructor
+@Table(name = "scheduled_transfer_runs", indexes = @Index(name = "idx_scheduled_transfer_runs_schedule", columnList = "schedule_id, run_id"))
+public class ScheduledTransferRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "run_id")
+    private Long runId;
+
+    @Column(name = "schedule_id", nullable = false, updatable = false)
+    private Long scheduleId;
+
+    @Column(name = "due_at", nullable = false, updatable = false)
+    private LocalDateTime dueAt;
+
+    @Column(name = "executed_at", nullable = false, updatable = false)
+    private LocalDateTime executedAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "outcome", nullable = false, updatable = false)
+    private ScheduledTransferOutcome outcome;
+
+    @Column(name = "message", updatable = false)
+    private String message;
+}
@@ -6,10 +6,16 @@ import org.henry.bankingsystem.enums.TransactionCategory;
 import org.henry.bankingsystem.enums.TransactionType;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity @Data @Builder
 @NoArgsConstructor @AllArgsConstructor
-@Table(name = "transactions")
+@Table(name = "transactions", indexes = {
+        /* Seek index for statements; also covers the type and category filters so only returned lines touch the table */
+        @Index(name = "idx_transactions_account_statement",
+                columnList = "account_id, transaction_time, transaction_id, transaction_type, transaction_category"),
+        @Index(name = "idx_transactions_user_time", columnList = "user_id, transaction_time")
+})
 public class Transaction {
 
     @Id
@@ -38,8 +44,9 @@ public class Transaction {
     @Column(nullable = false)
     private BigDecimal amount;
 
-    @Column(nullable = false)
-    private String transactionDate;
+    /* Nullable only until TransactionTimestampMigration has backfilled rows written with the legacy string date */
+    @Column(name = "transaction_time")
+    private LocalDateTime transactionDate;
 
     @Column(nullable = false)
     private BigDecimal balanceBeforeTransaction;
@@ -49,4 +56,8 @@ public class Transaction {
 
     @Column(nullable = false)
     private String targetAccountNumber;
+
+    /* JournalEntry this statement line was posted from (null for rows written before the journal existed) */
+    @Column(name = "entry_ref", length = 40)
+    private String entryRef;
 }
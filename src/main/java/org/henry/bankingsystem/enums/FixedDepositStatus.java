@@ -0,0 +1,6 @@
+package org.henry.bankingsystem.enums;
+
+public enum FixedDepositStatus {
+    ACTIVE,
+    MATURED
+}
@@ -0,0 +1,6 @@
+package org.henry.bankingsystem.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
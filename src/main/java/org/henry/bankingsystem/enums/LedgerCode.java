@@ -0,0 +1,8 @@
+package org.henry.bankingsystem.enums;
+
+public enum LedgerCode {
+    CUSTOMER_ACCOUNT,
+    CASH,
+    FEE_INCOME,
+    INTEREST_EXPENSE
+}
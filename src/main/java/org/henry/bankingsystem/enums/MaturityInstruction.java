@@ -0,0 +1,8 @@
+package org.henry.bankingsystem.enums;
+
+public enum MaturityInstruction {
+    /* Pay principal and interest to the payout account (or leave them on the deposit if it has none) */
+    PAYOUT,
+    /* Add the interest to the principal and start another term of the same length */
+    ROLLOVER
+}
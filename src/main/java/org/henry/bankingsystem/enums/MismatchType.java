@@ -0,0 +1,10 @@
+package org.henry.bankingsystem.enums;
+
+public enum MismatchType {
+    /* A line's balance before differs from the previous line's balance after */
+    CHAIN_BREAK,
+    /* A line's balance after is not its balance before plus or minus its amount */
+    LINE_ARITHMETIC,
+    /* The account balance differs from the balance after its last line */
+    FINAL_BALANCE
+}
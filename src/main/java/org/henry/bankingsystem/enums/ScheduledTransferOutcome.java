@@ -0,0 +1,8 @@
+package org.henry.bankingsystem.enums;
+
+public enum ScheduledTransferOutcome {
+    SUCCEEDED,
+    INSUFFICIENT_FUNDS,
+    /* Refused for a reason that will not go away by retrying, e.g. the receiver account was closed */
+    REJECTED
+}
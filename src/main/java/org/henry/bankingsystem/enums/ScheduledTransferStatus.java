@@ -0,0 +1,8 @@
+package org.henry.bankingsystem.enums;
+
+public enum ScheduledTransferStatus {
+    ACTIVE,
+    CANCELLED,
+    /* Ran as many times as asked for */
+    COMPLETED
+}
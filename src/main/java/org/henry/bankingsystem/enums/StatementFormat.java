@@ -0,0 +1,15 @@
+package org.henry.bankingsystem.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/* Encodings a statement can be exported in */
+@Getter
+@RequiredArgsConstructor
+public enum StatementFormat {
+    CSV("text/csv", "csv"),
+    NDJSON("application/x-ndjson", "ndjson");
+
+    private final String contentType;
+    private final String extension;
+}
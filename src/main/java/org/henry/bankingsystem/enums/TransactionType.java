@@ -3,5 +3,6 @@ package org.henry.bankingsystem.enums;
 public enum TransactionType {
     DEPOSIT,
     WITHDRAWAL,
-    TRANSFER
+    TRANSFER,
+    CHARGE
 }
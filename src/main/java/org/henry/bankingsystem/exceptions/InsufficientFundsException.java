@@ -0,0 +1,5 @@
+package org.henry.bankingsystem.exceptions;
+
+public class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException( String message) { super(message) ;}
+}
@@ -0,0 +1,5 @@
+package org.henry.bankingsystem.exceptions;
+
+public class TransactionLimitExceededException extends RuntimeException {
+    public TransactionLimitExceededException( String message) { super(message) ;}
+}
@@ -0,0 +1,29 @@
+package org.henry.bankingsystem.jobs;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * accounts.version was added by a schema update, which leaves it null on every account opened
+ * before. Hibernate cannot increment a null version, so the first balance change of such an account
+ * would fail, and DailyUsageService and BalanceReadModel cannot tell its states apart. Sets those
+ * versions to 0 on startup, once the schema is up to date and before the application takes traffic.
+ */
+@Component @Slf4j
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory")
+public class AccountVersionMigration {
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void backfillVersions() {
+        int updated = jdbcTemplate.update("update accounts set version = 0 where version is null");
+        if (updated > 0) {
+            log.info("Set the version of {} accounts opened before versioning to 0", updated);
+        }
+    }
+}
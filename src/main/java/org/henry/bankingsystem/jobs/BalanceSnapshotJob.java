@@ -0,0 +1,155 @@
+package org.henry.bankingsystem.jobs;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.JobCheckpoint;
+import org.henry.bankingsystem.repository.JobCheckpointRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * End-of-day close: writes the closing balance of every account into balance_snapshots.
+ * <p>
+ * A day is closed in account-id ranges of banking.balance-snapshot.chunk-size, one insert ... select
+ * and one short transaction per chunk. The chunk and the job checkpoint commit together, with the
+ * checkpoint row locked, so an interrupted close resumes at the next chunk and two nodes never close
+ * the same chunk. A closing balance is the previous day's closing balance plus that day's statement
+ * lines; an account without one (the first close, or the first after a gap) is seeded from its
+ * current balance less everything posted since. Days missed while the job was not running are closed
+ * in order on the next run, up to banking.balance-snapshot.max-catch-up-days back.
+ * <p>
+ * Runs at banking.balance-snapshot.cron, by default a quarter past midnight, so postings stamped
+ * just before midnight have committed before their day is closed.
+ */
+@Component @Slf4j
+@RequiredArgsConstructor
+public class BalanceSnapshotJob {
+    static final String JOB_NAME = "balance-snapshot";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    @Value("${banking.balance-snapshot.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${banking.balance-snapshot.max-catch-up-days:31}")
+    private int maxCatchUpDays;
+
+    private static final String NET_MOVEMENT = """
+            select coalesce(sum(case when t.transaction_category = 'CREDIT' then t.amount else -t.amount end), 0)
+            from transactions t
+            where t.account_id = a.account_id and t.transaction_time >= ? and t.transaction_time < ?""";
+
+    private static final String INSERT_SNAPSHOTS = """
+            insert into balance_snapshots (account_id, snapshot_date, closing_balance)
+            select a.account_id, ?,
+                case when p.account_id is not null
+                     then p.closing_balance + (%1$s)
+                     else a.account_balance
+                          + coalesce((select sum(s.balance) from account_balance_slots s where s.account_id = a.account_id), 0)
+                          - (%1$s)
+                end
+            from accounts a
+            left join balance_snapshots p on p.account_id = a.account_id and p.snapshot_date = ?
+            where a.account_id between ? and ? and a.date_opened < ?
+              and not exists (select 1 from balance_snapshots c where c.account_id = a.account_id and c.snapshot_date = ?)"""
+            .formatted(NET_MOVEMENT);
+
+    /* Far enough ahead to include every line posted since the day closed */
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    @Scheduled(cron = "${banking.balance-snapshot.cron:0 15 0 * * *}")
+    public void closePendingDays() {
+        LocalDate lastClosable = LocalDate.now().minusDays(1);
+        LocalDate earliest = lastClosable.minusDays(maxCatchUpDays - 1L);
+        LocalDate next = jobCheckpointRepository.findById(JOB_NAME)
+                .map(checkpoint -> checkpoint.isCompleted() ? checkpoint.getBusinessDate().plusDays(1) : checkpoint.getBusinessDate())
+                .orElse(lastClosable);
+        if (next.isBefore(earliest)) {
+            log.warn("Balance snapshots missing from {} to {}; closing from {}", next, earliest.minusDays(1), earliest);
+            next = earliest;
+        }
+        for (LocalDate day = next; !day.isAfter(lastClosable); day = day.plusDays(1)) {
+            closeDay(day);
+        }
+    }
+
+    /**
+     * Writes the closing balance of every account opened by the end of day. Does nothing if day was
+     * already closed, or is earlier than the day being closed now.
+     *
+     * @return the number of snapshots written by this call
+     */
+    public long closeDay(LocalDate day) {
+        createCheckpoint(day);
+        long started = System.currentTimeMillis();
+        long written = 0;
+        while (true) {
+            Long chunk = transactionTemplate.execute(status -> closeNextChunk(day));
+            if (chunk == null) {
+                break;
+            }
+            written += chunk;
+        }
+        if (written > 0) {
+            log.info("Closed {}: {} balance snapshots written in {}ms", day, written, System.currentTimeMillis() - started);
+        }
+        return written;
+    }
+
+    /* Writes the next chunk of day and moves the checkpoint past it; null once day is closed */
+    private Long closeNextChunk(LocalDate day) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByIdForUpdate(JOB_NAME).orElseThrow();
+        if (checkpoint.getBusinessDate().isAfter(day) || (checkpoint.getBusinessDate().equals(day) && checkpoint.isCompleted())) {
+            return null;
+        }
+        if (checkpoint.getBusinessDate().isBefore(day)) {
+            checkpoint.setBusinessDate(day);
+            checkpoint.setLastId(0);
+            checkpoint.setCompleted(false);
+        }
+
+        long fromId = checkpoint.getLastId() + 1;
+        Long maxId = jdbcTemplate.queryForObject("select max(account_id) from accounts", Long.class);
+        long written = 0;
+        if (maxId == null || fromId > maxId) {
+            checkpoint.setCompleted(true);
+        } else {
+            long toId = Math.min(maxId, fromId + chunkSize - 1);
+            LocalDateTime dayStart = day.atStartOfDay();
+            LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+            written = jdbcTemplate.update(INSERT_SNAPSHOTS, Date.valueOf(day),
+                    Timestamp.valueOf(dayStart), Timestamp.valueOf(dayEnd),
+                    Timestamp.valueOf(dayEnd), Timestamp.valueOf(END_OF_TIME),
+                    Date.valueOf(day.minusDays(1)), fromId, toId,
+                    Timestamp.from(dayEnd.atZone(ZoneId.systemDefault()).toInstant()), Date.valueOf(day));
+            checkpoint.setLastId(toId);
+        }
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        return written;
+    }
+
+    private void createCheckpoint(LocalDate day) {
+        if (jobCheckpointRepository.existsById(JOB_NAME)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobCheckpointRepository.save(JobCheckpoint.builder()
+                    .jobName(JOB_NAME).businessDate(day).lastId(0).completed(false).updatedAt(LocalDateTime.now())
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Balance snapshot checkpoint created by another node");
+        }
+    }
+}
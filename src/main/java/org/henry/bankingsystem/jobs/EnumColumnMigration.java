@@ -0,0 +1,52 @@
+package org.henry.bankingsystem.jobs;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * On MySQL, Hibernate creates a column mapped with EnumType.STRING as a native enum of the values
+ * that existed at the time, and schema updates never widen it again. Turns the enum columns whose
+ * values have grown since into plain varchars on startup, once the schema is up to date and before
+ * the application takes traffic, so values added later (such as the CHARGE statement type and the
+ * INTEREST_EXPENSE ledger code) can be written. Does nothing on other databases or for a column that
+ * is already a varchar.
+ */
+@Component @Slf4j
+@RequiredArgsConstructor
+@DependsOn("entityManagerFactory")
+public class EnumColumnMigration {
+    private final JdbcTemplate jdbcTemplate;
+
+    private record EnumColumn(String table, String column) {}
+
+    private static final List<EnumColumn> GROWN_COLUMNS = List.of(
+            new EnumColumn("transactions", "transaction_type"),
+            new EnumColumn("journal_lines", "ledger_code"));
+
+    @PostConstruct
+    public void widenEnumColumns() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (product == null || !(product.contains("MySQL") || product.contains("MariaDB"))) {
+            return;
+        }
+        for (EnumColumn enumColumn : GROWN_COLUMNS) {
+            String dataType = jdbcTemplate.query("""
+                    select data_type from information_schema.columns
+                    where table_schema = database() and table_name = ? and column_name = ?""",
+                    rs -> rs.next() ? rs.getString(1) : null, enumColumn.table(), enumColumn.column());
+            if (!"enum".equalsIgnoreCase(dataType)) {
+                continue;
+            }
+            log.info("Changing {}.{} from enum to varchar", enumColumn.table(), enumColumn.column());
+            jdbcTemplate.execute("alter table %s modify column %s varchar(32) not null"
+                    .formatted(enumColumn.table(), enumColumn.column()));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.henry.bankingsystem.jobs;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.repository.FixedDepositRepository;
+import org.henry.bankingsystem.service.FixedDepositService;
+import org.henry.bankingsystem.utils.HierarchicalTimingWheel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Fires fixed-deposit maturities at their due time from an in-memory HierarchicalTimingWheel instead
+ * of polling the accounts table.
+ * <p>
+ * Only terms maturing within banking.fixed-deposit.horizon-hours are held in the wheel. They are
+ * loaded with one indexed range read when the application is ready (overdue ones, e.g. from while
+ * the application was down, fire straight away) and again every banking.fixed-deposit.reload-minutes,
+ * so the wheel never holds more than a horizon's worth of the book. Terms opened or rolled over on
+ * this node are added as they happen. A ticker thread advances the wheel every
+ * banking.fixed-deposit.tick-millis, so a term matures within one tick after it is due; the maturity
+ * itself runs on a small pool of banking.fixed-deposit.payout-threads and is retried after
+ * banking.fixed-deposit.retry-seconds if it fails.
+ * <p>
+ * Every node runs its own wheel. FixedDepositService.mature locks the term row and checks it is
+ * still active and due, so a term fired on several nodes is matured once.
+ */
+@Component @Slf4j
+public class FixedDepositMaturityScheduler {
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final FixedDepositRepository fixedDepositRepository;
+    private final FixedDepositService fixedDepositService;
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final long tickMillis;
+    /* Accounts whose term is in the wheel or maturing, so reloads do not add them twice */
+    private final Set<Long> scheduled = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService payouts;
+
+    @Value("${banking.fixed-deposit.scheduler.enabled:true}")
+    private boolean enabled;
+
+    @Value("${banking.fixed-deposit.horizon-hours:24}")
+    private long horizonHours;
+
+    @Value("${banking.fixed-deposit.reload-minutes:60}")
+    private long reloadMinutes;
+
+    @Value("${banking.fixed-deposit.retry-seconds:60}")
+    private long retrySeconds;
+
+    public FixedDepositMaturityScheduler(FixedDepositRepository fixedDepositRepository, FixedDepositService fixedDepositService,
+                                         @Value("${banking.fixed-deposit.tick-millis:1000}") long tickMillis,
+                                         @Value("${banking.fixed-deposit.wheel-size:64}") int wheelSize,
+                                         @Value("${banking.fixed-deposit.payout-threads:2}") int payoutThreads) {
+        this.fixedDepositRepository = fixedDepositRepository;
+        this.fixedDepositService = fixedDepositService;
+        this.tickMillis = tickMillis;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, wheelSize, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "fixed-deposit-ticker"));
+        this.payouts = Executors.newFixedThreadPool(payoutThreads, runnable -> daemon(runnable, "fixed-deposit-payout"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        ticker.scheduleWithFixedDelay(this::loadHorizon, 0, reloadMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+        payouts.shutdownNow();
+    }
+
+    /** Schedules the term of the account to mature at maturesAt, or leaves it to a later reload if that is beyond the horizon. */
+    public void schedule(Long accountId, LocalDateTime maturesAt) {
+        if (!enabled || maturesAt.isAfter(LocalDateTime.now().plusHours(horizonHours)) || !scheduled.add(accountId)) {
+            return;
+        }
+        // Rounded up to the next tick, so the tick it expires in never starts before it is due
+        long dueMillis = maturesAt.atZone(ZONE).toInstant().toEpochMilli() + tickMillis - 1;
+        if (!wheel.add(accountId, dueMillis)) {
+            fire(accountId);
+        }
+    }
+
+    /** Number of terms waiting in the wheel. */
+    public int pending() {
+        return wheel.size();
+    }
+
+    void loadHorizon() {
+        try {
+            int loaded = 0;
+            for (FixedDepositRepository.Maturity maturity : fixedDepositRepository.findActiveMaturingBefore(LocalDateTime.now().plusHours(horizonHours))) {
+                if (!scheduled.contains(maturity.accountId())) {
+                    schedule(maturity.accountId(), maturity.maturesAt());
+                    loaded++;
+                }
+            }
+            log.info("Loaded {} fixed deposit maturities due within {} hours; {} waiting", loaded, horizonHours, wheel.size());
+        } catch (RuntimeException e) {
+            log.error("Loading fixed deposit maturities failed: {}", e.getMessage());
+        }
+    }
+
+    private void tick() {
+        try {
+            wheel.advance(System.currentTimeMillis(), this::fire);
+        } catch (RuntimeException e) {
+            log.error("Fixed deposit timing wheel tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void fire(Long accountId) {
+        try {
+            payouts.execute(() -> mature(accountId));
+        } catch (RejectedExecutionException e) {
+            scheduled.remove(accountId);
+        }
+    }
+
+    private void mature(Long accountId) {
+        Optional<LocalDateTime> next;
+        try {
+            next = fixedDepositService.mature(accountId);
+        } catch (RuntimeException e) {
+            log.warn("Maturing fixed deposit on account {} failed, retrying in {}s: {}", accountId, retrySeconds, e.getMessage());
+            next = Optional.of(LocalDateTime.now().plusSeconds(retrySeconds));
+        }
+        scheduled.remove(accountId);
+        next.ifPresent(maturesAt -> schedule(accountId, maturesAt));
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
@@ -0,0 +1,239 @@
+package org.henry.bankingsystem.jobs;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.JobCheckpoint;
+import org.henry.bankingsystem.enums.CurrencyType;
+import org.henry.bankingsystem.repository.JobCheckpointRepository;
+import org.henry.bankingsystem.utils.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Daily interest accrual for SAVINGS and FIXED_DEPOSIT accounts: one interest_accruals row per
+ * account and day, on the day's closing balance from balance_snapshots at the account's interest
+ * rate, in exact millionths of a minor unit (see Money.dailyInterestMicros). A day is accrued only
+ * once BalanceSnapshotJob has closed it.
+ * <p>
+ * Account ids are processed in chunks of banking.interest.chunk-size on banking.interest.parallelism
+ * threads behind a bounded queue. Each chunk is one read and one JDBC batch insert in a short
+ * transaction. At most banking.interest.max-connections chunks hold a connection at once, so online
+ * traffic keeps the rest of the pool, and every chunk is followed by a pause of
+ * banking.interest.pause-millis. Chunks can commit out of order, so the checkpoint only moves past a
+ * chunk once every chunk below it has committed. A restart resumes there; chunks above it that did
+ * commit are skipped row by row, as accounts already accrued for the day are never read again.
+ */
+@Component @Slf4j
+@RequiredArgsConstructor
+public class InterestAccrualJob {
+    public static final String JOB_NAME = "interest-accrual";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    @Value("${banking.interest.chunk-size:2000}")
+    private int chunkSize;
+
+    @Value("${banking.interest.parallelism:4}")
+    private int parallelism;
+
+    @Value("${banking.interest.max-connections:2}")
+    private int maxConnections;
+
+    @Value("${banking.interest.pause-millis:5}")
+    private long pauseMillis;
+
+    private static final String SELECT_ACCRUABLE = """
+            select a.account_id, a.currency_type, a.interest_rate, s.closing_balance
+            from accounts a
+            join balance_snapshots s on s.account_id = a.account_id and s.snapshot_date = ?
+            where a.account_id between ? and ? and a.account_type in ('SAVINGS', 'FIXED_DEPOSIT') and a.interest_rate > 0
+              and not exists (select 1 from interest_accruals i where i.account_id = a.account_id and i.accrual_date = ?)""";
+    private static final String INSERT_ACCRUAL = """
+            insert into interest_accruals (account_id, accrual_date, closing_balance, rate_basis_points, accrued_micros)
+            values (?, ?, ?, ?, ?)""";
+
+    @Scheduled(cron = "${banking.interest.cron:0 30 0 * * *}")
+    public void accruePendingDays() {
+        Optional<LocalDate> lastClosed = jobCheckpointRepository.findById(BalanceSnapshotJob.JOB_NAME)
+                .map(checkpoint -> checkpoint.isCompleted() ? checkpoint.getBusinessDate() : checkpoint.getBusinessDate().minusDays(1));
+        if (lastClosed.isEmpty()) {
+            log.info("No day has been closed yet, no interest to accrue");
+            return;
+        }
+        LocalDate next = jobCheckpointRepository.findById(JOB_NAME)
+                .map(checkpoint -> checkpoint.isCompleted() ? checkpoint.getBusinessDate().plusDays(1) : checkpoint.getBusinessDate())
+                .orElse(lastClosed.get());
+        for (LocalDate day = next; !day.isAfter(lastClosed.get()); day = day.plusDays(1)) {
+            if (!accrueDay(day)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Accrues one day's interest for every eligible account, resuming from the checkpoint if the day
+     * was started before. Does nothing for a day already accrued or earlier than the one in progress.
+     *
+     * @return whether the day is now fully accrued
+     */
+    public boolean accrueDay(LocalDate day) {
+        JobCheckpoint checkpoint = checkpointFor(day);
+        if (checkpoint == null) {
+            return false;
+        }
+        if (checkpoint.isCompleted()) {
+            return true;
+        }
+        Long maxId = jdbcTemplate.queryForObject("select max(account_id) from accounts", Long.class);
+        long started = System.currentTimeMillis();
+        Watermark watermark = new Watermark(day, checkpoint.getLastId());
+        AtomicLong accrued = new AtomicLong();
+        List<Future<?>> chunks = new ArrayList<>();
+        Semaphore connections = new Semaphore(maxConnections);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        boolean failed = false;
+        try {
+            for (long from = checkpoint.getLastId() + 1; maxId != null && from <= maxId; from += chunkSize) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(maxId, from + chunkSize - 1);
+                chunks.add(executor.submit(() -> {
+                    accrued.addAndGet(accrueChunk(day, chunkFrom, chunkTo, connections));
+                    watermark.committed(chunkFrom, chunkTo);
+                    return null;
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                try {
+                    chunk.get();
+                } catch (ExecutionException e) {
+                    failed = true;
+                    log.error("Interest accrual chunk for {} failed: {}", day, e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed = true;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsed = Math.max(1, System.currentTimeMillis() - started);
+        if (failed) {
+            log.warn("Interest accrual for {} stopped after {} accounts; resumes after account {}", day, accrued.get(), watermark.lastId);
+            return false;
+        }
+        transactionTemplate.executeWithoutResult(status -> jobCheckpointRepository.findByIdForUpdate(JOB_NAME).ifPresent(current -> {
+            current.setCompleted(true);
+            current.setUpdatedAt(LocalDateTime.now());
+        }));
+        log.info("Accrued interest for {}: {} accounts in {}ms ({} accounts/s)", day, accrued.get(), elapsed,
+                accrued.get() * 1000 / elapsed);
+        return true;
+    }
+
+    /* Accrues one id range in one transaction; returns the number of accounts accrued */
+    private int accrueChunk(LocalDate day, long fromId, long toId, Semaphore connections) throws InterruptedException {
+        connections.acquire();
+        int accrued;
+        try {
+            accrued = transactionTemplate.execute(status -> {
+                List<Object[]> rows = new ArrayList<>();
+                jdbcTemplate.query(SELECT_ACCRUABLE, rs -> {
+                    long accountId = rs.getLong(1);
+                    try {
+                        int rate = Money.basisPointsOf(rs.getBigDecimal(3));
+                        Money balance = Money.of(rs.getBigDecimal(4), CurrencyType.valueOf(rs.getString(2)));
+                        long micros = balance.isNegative() ? 0 : balance.dailyInterestMicros(rate);
+                        rows.add(new Object[]{accountId, Date.valueOf(day), balance.toBigDecimal(), rate, micros});
+                    } catch (IllegalArgumentException | ArithmeticException e) {
+                        log.warn("No interest accrued for account {} on {}: {}", accountId, day, e.getMessage());
+                    }
+                }, Date.valueOf(day), fromId, toId, Date.valueOf(day));
+                if (!rows.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_ACCRUAL, rows);
+                }
+                return rows.size();
+            });
+        } finally {
+            connections.release();
+        }
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+        return accrued;
+    }
+
+    /* The checkpoint, moved on to day if it was at an earlier one; null if it is already past day */
+    private JobCheckpoint checkpointFor(LocalDate day) {
+        if (!jobCheckpointRepository.existsById(JOB_NAME)) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jobCheckpointRepository.save(JobCheckpoint.builder()
+                        .jobName(JOB_NAME).businessDate(day).lastId(0).completed(false).updatedAt(LocalDateTime.now())
+                        .build()));
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Interest accrual checkpoint created by another node");
+            }
+        }
+        return transactionTemplate.execute(status -> {
+            JobCheckpoint checkpoint = jobCheckpointRepository.findByIdForUpdate(JOB_NAME).orElseThrow();
+            if (checkpoint.getBusinessDate().isAfter(day)) {
+                return null;
+            }
+            if (checkpoint.getBusinessDate().isBefore(day)) {
+                checkpoint.setBusinessDate(day);
+                checkpoint.setLastId(0);
+                checkpoint.setCompleted(false);
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+            }
+            return checkpoint;
+        });
+    }
+
+    /* Highest id below which every chunk of the day has committed; persisted as the checkpoint */
+    private final class Watermark {
+        private final LocalDate day;
+        private final TreeMap<Long, Long> committedAbove = new TreeMap<>();
+        private long lastId;
+
+        Watermark(LocalDate day, long lastId) {
+            this.day = day;
+            this.lastId = lastId;
+        }
+
+        synchronized void committed(long fromId, long toId) {
+            committedAbove.put(fromId, toId);
+            long reached = lastId;
+            while (committedAbove.containsKey(reached + 1)) {
+                reached = committedAbove.remove(reached + 1);
+            }
+            if (reached == lastId) {
+                return;
+            }
+            lastId = reached;
+            long persisted = reached;
+            transactionTemplate.executeWithoutResult(status -> jobCheckpointRepository.findByIdForUpdate(JOB_NAME)
+                    .filter(checkpoint -> checkpoint.getBusinessDate().equals(day))
+                    .ifPresent(checkpoint -> {
+                        checkpoint.setLastId(Math.max(checkpoint.getLastId(), persisted));
+                        checkpoint.setUpdatedAt(LocalDateTime.now());
+                    }));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.henry.bankingsystem.jobs;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.JobCheckpoint;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.repository.JobCheckpointRepository;
+import org.henry.bankingsystem.service.InterestPayoutService;
+import org.henry.bankingsystem.service.LedgerService;
+import org.henry.bankingsystem.service.LedgerService.Posting;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Monthly interest capitalisation for SAVINGS accounts: credits each account the interest it
+ * accrued in interest_accruals over the month (see InterestPayoutService), as interest expense.
+ * A month is paid once InterestAccrualJob has accrued its last day.
+ * <p>
+ * Accounts are paid in chunks of banking.interest.capitalisation-chunk-size, each posted in one
+ * transaction with the checkpoint row locked and moved past it, so a month is paid exactly once
+ * however often the job is interrupted or however many nodes run it. Months missed while the job was
+ * not running are paid in order on the next run.
+ */
+@Component @Slf4j
+@RequiredArgsConstructor
+public class InterestCapitalisationJob {
+    static final String JOB_NAME = "interest-capitalisation";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final AccountRepository accountRepository;
+    private final LedgerService ledgerService;
+    private final InterestPayoutService interestPayoutService;
+
+    @Value("${banking.interest.capitalisation-chunk-size:500}")
+    private int chunkSize;
+
+    private static final String SELECT_ACCRUED = """
+            select i.account_id, sum(i.accrued_micros)
+            from interest_accruals i
+            join accounts a on a.account_id = i.account_id
+            where i.account_id > ? and i.accrual_date between ? and ? and a.account_type = 'SAVINGS'
+            group by i.account_id
+            order by i.account_id
+            limit ?""";
+
+    @Scheduled(cron = "${banking.interest.capitalisation-cron:0 0 1 1 * *}")
+    public void capitalisePendingMonths() {
+        Optional<LocalDate> accruedThrough = interestPayoutService.accruedThrough();
+        if (accruedThrough.isEmpty()) {
+            log.info("No interest has been accrued yet, none to capitalise");
+            return;
+        }
+        YearMonth lastAccrued = YearMonth.from(accruedThrough.get().plusDays(1)).minusMonths(1);
+        YearMonth next = jobCheckpointRepository.findById(JOB_NAME)
+                .map(checkpoint -> YearMonth.from(checkpoint.getBusinessDate()).plusMonths(checkpoint.isCompleted() ? 1 : 0))
+                .orElse(lastAccrued);
+        for (YearMonth month = next; !month.isAfter(lastAccrued); month = month.plusMonths(1)) {
+            capitaliseMonth(month);
+        }
+    }
+
+    /**
+     * Pays every SAVINGS account the interest it accrued in month. Does nothing if month was already
+     * paid, or is earlier than the month being paid now.
+     *
+     * @return the number of accounts paid by this call
+     */
+    public long capitaliseMonth(YearMonth month) {
+        createCheckpoint(month.atEndOfMonth());
+        long started = System.currentTimeMillis();
+        long paid = 0;
+        while (true) {
+            Integer chunk = transactionTemplate.execute(status -> capitaliseNextChunk(month));
+            if (chunk == null) {
+                break;
+            }
+            paid += chunk;
+        }
+        if (paid > 0) {
+            log.info("Capitalised interest for {}: {} accounts paid in {}ms", month, paid, System.currentTimeMillis() - started);
+        }
+        return paid;
+    }
+
+    /* Pays the next chunk of month and moves the checkpoint past it; null once month is paid */
+    private Integer capitaliseNextChunk(YearMonth month) {
+        LocalDate lastDay = month.atEndOfMonth();
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByIdForUpdate(JOB_NAME).orElseThrow();
+        if (checkpoint.getBusinessDate().isAfter(lastDay) || (checkpoint.getBusinessDate().equals(lastDay) && checkpoint.isCompleted())) {
+            return null;
+        }
+        if (checkpoint.getBusinessDate().isBefore(lastDay)) {
+            checkpoint.setBusinessDate(lastDay);
+            checkpoint.setLastId(0);
+            checkpoint.setCompleted(false);
+        }
+
+        TreeMap<Long, Long> accrued = new TreeMap<>();
+        jdbcTemplate.query(SELECT_ACCRUED, rs -> {
+            accrued.put(rs.getLong(1), rs.getLong(2));
+        }, checkpoint.getLastId(), Date.valueOf(month.atDay(1)), Date.valueOf(lastDay), chunkSize);
+        int paid = 0;
+        if (accrued.isEmpty()) {
+            checkpoint.setCompleted(true);
+        } else {
+            List<Posting> postings = new ArrayList<>();
+            for (Account account : accountRepository.findAllByIdInForUpdate(accrued.keySet())) {
+                InterestPayoutService.interestPosting(account, InterestPayoutService.interestOf(accrued.get(account.getAccountId()), account),
+                        "Savings interest " + month).ifPresent(postings::add);
+            }
+            if (!postings.isEmpty()) {
+                ledgerService.postAll(postings);
+            }
+            paid = postings.size();
+            checkpoint.setLastId(accrued.lastKey());
+        }
+        checkpoint.setUpdatedAt(LocalDateTime.now());
+        return paid;
+    }
+
+    private void createCheckpoint(LocalDate lastDay) {
+        if (jobCheckpointRepository.existsById(JOB_NAME)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jobCheckpointRepository.save(JobCheckpoint.builder()
+                    .jobName(JOB_NAME).businessDate(lastDay).lastId(0).completed(false).updatedAt(LocalDateTime.now())
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Interest capitalisation checkpoint created by another node");
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package org.henry.bankingsystem.jobs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.dto.ReconciliationReportDto;
+import org.henry.bankingsystem.enums.MismatchType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Checks every account's statement lines against each other and against its balance, and records
+ * what does not agree in reconciliation_mismatches.
+ * <p>
+ * Account ids are split in halves on a fork-join pool of banking.reconciliation.parallelism workers
+ * (default: one per core) down to ranges of banking.reconciliation.range-size accounts. A range is
+ * one read of its accounts and one forward-only read of their lines in (account, time) order, so a
+ * worker holds the range's balances, one account's running state and at most
+ * banking.reconciliation.max-mismatches-per-account mismatches per account, however many lines
+ * there are; the mismatches are written in one batch once the read is done. The parallelism must
+ * stay below the connection pool size.
+ * <p>
+ * Lines are checked up to a cutoff a minute before the run started, so every line considered has
+ * committed before balances are read. Accounts that moved after the cutoff and hot accounts (whose
+ * credits go to balance slots concurrently) only get their line arithmetic checked; their chains and
+ * final balances are skipped and counted as such.
+ */
+@Component @Slf4j
+public class LedgerReconciliationJob {
+    private static final String SELECT_ACCOUNTS = """
+            select a.account_id, a.balance_slots, a.last_transaction_date,
+                a.account_balance + coalesce((select sum(s.balance) from account_balance_slots s where s.account_id = a.account_id), 0)
+            from accounts a
+            where a.account_id between ? and ?""";
+    private static final String SELECT_LINES = """
+            select account_id, transaction_id, transaction_category, amount, balance_before_transaction, balance_after_transaction
+            from transactions
+            where account_id between ? and ? and transaction_time < ?
+            order by account_id, transaction_time, transaction_id""";
+    private static final String INSERT_MISMATCH = """
+            insert into reconciliation_mismatches (run_id, account_id, transaction_id, mismatch_type, expected, actual, detected_at)
+            values (?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<ReconciliationReportDto> lastRun = new AtomicReference<>();
+
+    @Value("${banking.reconciliation.range-size:2000}")
+    private int rangeSize;
+
+    @Value("${banking.reconciliation.parallelism:0}")
+    private int parallelism;
+
+    @Value("${banking.reconciliation.max-mismatches-per-account:10}")
+    private int maxMismatchesPerAccount;
+
+    public LedgerReconciliationJob(JdbcTemplate jdbcTemplate, DataSource dataSource,
+                                   @Value("${banking.reconciliation.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /* Totals of one range or of the ranges under a fork */
+    private record Tally(long accounts, long lines, long mismatches, long skipped) {
+        static final Tally NONE = new Tally(0, 0, 0, 0);
+
+        Tally plus(Tally other) {
+            return new Tally(accounts + other.accounts, lines + other.lines, mismatches + other.mismatches, skipped + other.skipped);
+        }
+    }
+
+    private record AccountState(boolean hot, LocalDateTime lastTransactionDate, BigDecimal balance) {}
+
+    @Scheduled(cron = "${banking.reconciliation.cron:0 45 1 * * *}")
+    public void scheduledRun() {
+        reconcile();
+    }
+
+    /** Starts a run on the job executor and returns straight away; for runs started by an admin. */
+    @Async("jobExecutor")
+    public void reconcileInBackground() {
+        reconcile();
+    }
+
+    /** The report of the last run to finish, or null if none has since startup. */
+    public ReconciliationReportDto lastRun() {
+        return lastRun.get();
+    }
+
+    /** Whether a run is in progress on this node. */
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    /**
+     * Reconciles every account, blocking until done.
+     *
+     * @return the report of this run, or empty if a run was already in progress
+     */
+    public Optional<ReconciliationReportDto> reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Ledger reconciliation already running, not starting another");
+            return Optional.empty();
+        }
+        try {
+            String runId = UUID.randomUUID().toString();
+            LocalDateTime startedAt = LocalDateTime.now();
+            LocalDateTime cutoff = startedAt.minusMinutes(1);
+            Map<String, Object> bounds = jdbcTemplate.queryForMap("select min(account_id) as min_id, max(account_id) as max_id from accounts");
+            Tally tally = Tally.NONE;
+            if (bounds.get("min_id") != null) {
+                long minId = ((Number) bounds.get("min_id")).longValue();
+                long maxId = ((Number) bounds.get("max_id")).longValue();
+                ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+                try {
+                    tally = pool.invoke(new RangeTask(runId, cutoff, minId, maxId));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+            ReconciliationReportDto report = new ReconciliationReportDto(runId, startedAt, LocalDateTime.now(),
+                    tally.accounts(), tally.lines(), tally.mismatches(), tally.skipped());
+            lastRun.set(report);
+            if (tally.mismatches() > 0) {
+                log.warn("Ledger reconciliation {} found {} mismatches: {}", runId, tally.mismatches(), report);
+            } else {
+                log.info("Ledger reconciliation {} found no mismatches: {}", runId, report);
+            }
+            return Optional.of(report);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private final class RangeTask extends RecursiveTask<Tally> {
+        private final String runId;
+        private final LocalDateTime cutoff;
+        private final long fromId;
+        private final long toId;
+
+        RangeTask(String runId, LocalDateTime cutoff, long fromId, long toId) {
+            this.runId = runId;
+            this.cutoff = cutoff;
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (toId - fromId < rangeSize) {
+                return reconcileRange(runId, cutoff, fromId, toId);
+            }
+            long middle = fromId + (toId - fromId) / 2;
+            RangeTask lower = new RangeTask(runId, cutoff, fromId, middle);
+            lower.fork();
+            Tally upper = new RangeTask(runId, cutoff, middle + 1, toId).compute();
+            return lower.join().plus(upper);
+        }
+    }
+
+    private Tally reconcileRange(String runId, LocalDateTime cutoff, long fromId, long toId) {
+        Map<Long, AccountState> accounts = new HashMap<>();
+        jdbcTemplate.query(SELECT_ACCOUNTS, rs -> {
+            Timestamp lastTransaction = rs.getTimestamp(3);
+            accounts.put(rs.getLong(1), new AccountState(rs.getInt(2) > 0,
+                    lastTransaction == null ? null : lastTransaction.toLocalDateTime(), rs.getBigDecimal(4)));
+        }, fromId, toId);
+        if (accounts.isEmpty()) {
+            return Tally.NONE;
+        }
+
+        RangeCheck check = new RangeCheck(runId, cutoff, accounts);
+        streamingJdbcTemplate.query(SELECT_LINES, rs -> {
+            check.line(rs.getLong(1), rs.getLong(2), rs.getString(3), rs.getBigDecimal(4), rs.getBigDecimal(5), rs.getBigDecimal(6));
+        }, fromId, toId, Timestamp.valueOf(cutoff));
+        check.finishAccount();
+        check.flush();
+        return new Tally(accounts.size(), check.lines, check.mismatches, check.skipped);
+    }
+
+    /* Running state of the account whose lines are being read, and the range's mismatches */
+    private final class RangeCheck {
+        private final String runId;
+        private final LocalDateTime cutoff;
+        private final Map<Long, AccountState> accounts;
+        private final List<Object[]> pending = new ArrayList<>();
+        private long lines;
+        private long mismatches;
+        private long skipped;
+
+        private long accountId = -1;
+        private boolean checkChain;
+        private BigDecimal lastAfter;
+        private int recorded;
+
+        RangeCheck(String runId, LocalDateTime cutoff, Map<Long, AccountState> accounts) {
+            this.runId = runId;
+            this.cutoff = cutoff;
+            this.accounts = accounts;
+        }
+
+        void line(long lineAccountId, long transactionId, String category, BigDecimal amount, BigDecimal before, BigDecimal after) {
+            if (lineAccountId != accountId) {
+                finishAccount();
+                accountId = lineAccountId;
+                AccountState account = accounts.get(lineAccountId);
+                checkChain = account != null && !account.hot() && !movedSinceCutoff(account);
+                if (!checkChain) {
+                    skipped++;
+                }
+                lastAfter = null;
+                recorded = 0;
+            }
+            lines++;
+            BigDecimal expectedAfter = "CREDIT".equals(category) ? before.add(amount) : before.subtract(amount);
+            if (expectedAfter.compareTo(after) != 0) {
+                record(transactionId, MismatchType.LINE_ARITHMETIC, expectedAfter, after);
+            }
+            if (checkChain && lastAfter != null && lastAfter.compareTo(before) != 0) {
+                record(transactionId, MismatchType.CHAIN_BREAK, lastAfter, before);
+            }
+            lastAfter = after;
+        }
+
+        /* Compares the account's balance with the last line read for it */
+        void finishAccount() {
+            if (accountId < 0 || !checkChain) {
+                return;
+            }
+            BigDecimal balance = accounts.get(accountId).balance();
+            if (balance.compareTo(lastAfter) != 0) {
+                record(null, MismatchType.FINAL_BALANCE, lastAfter, balance);
+            }
+        }
+
+        void flush() {
+            if (!pending.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_MISMATCH, pending);
+                pending.clear();
+            }
+        }
+
+        private boolean movedSinceCutoff(AccountState account) {
+            return account.lastTransactionDate() != null && !account.lastTransactionDate().isBefore(cutoff);
+        }
+
+        private void record(Long transactionId, MismatchType type, BigDecimal expected, BigDecimal actual) {
+            mismatches++;
+            if (recorded++ >= maxMismatchesPerAccount) {
+                return;
+            }
+            pending.add(new Object[]{runId, accountId, transactionId, type.name(), expected, actual, Timestamp.valueOf(LocalDateTime.now())});
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package org.henry.bankingsystem.jobs;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.enums.ScheduledTransferOutcome;
+import org.henry.bankingsystem.enums.ScheduledTransferStatus;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.henry.bankingsystem.exceptions.InsufficientFundsException;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.service.FeeEngine;
+import org.henry.bankingsystem.service.TransferEngine;
+import org.henry.bankingsystem.utils.AccountLockManager;
+import org.henry.bankingsystem.utils.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Runs due standing orders (scheduled_transfers) through TransferEngine.
+ * <p>
+ * Every banking.scheduled-transfers.poll-millis each node claims up to banking.scheduled-transfers.batch-size
+ * due orders with SELECT ... FOR UPDATE SKIP LOCKED and stamps them with its id and a lease of
+ * banking.scheduled-transfers.lease-seconds, so nodes polling at the same time take disjoint batches
+ * instead of queuing on the same rows. Orders of a sender already claimed elsewhere are left for later,
+ * and a node runs the orders it claimed for one sender one after another, in due order, while different
+ * senders run in parallel on banking.scheduled-transfers.workers threads. A node keeps claiming batches
+ * until fewer than a full batch are due, so a spike like the first of the month is drained by every node
+ * at once.
+ * <p>
+ * Each occurrence is committed together with its outcome (scheduled_transfer_runs) and the order's next
+ * run, and only while this node still holds the claim and the order is still active, so an occurrence is
+ * never paid twice and a cancelled order is not paid at all. Insufficient funds and rejected orders are
+ * recorded and skip to the next occurrence; any other failure leaves the claim to lapse, and the
+ * occurrence is retried once the lease has expired. Occurrences missed while no node was running are
+ * run once, not once per occurrence missed.
+ */
+@Component @Slf4j
+public class ScheduledTransferExecutor {
+    private static final String CLAIM = """
+            select s.schedule_id, s.sender_account_id, s.receiver_account_id, s.amount, s.description, s.cron_expression,
+                s.next_run_at, s.remaining_runs
+            from scheduled_transfers s
+            where s.status = 'ACTIVE' and s.next_run_at <= ? and (s.claimed_until is null or s.claimed_until < ?)
+              and not exists (select 1 from scheduled_transfers o
+                              where o.sender_account_id = s.sender_account_id and o.claimed_until >= ? and o.status = 'ACTIVE')
+            order by s.next_run_at, s.schedule_id
+            limit ?
+            for update skip locked""";
+    private static final String STAMP_CLAIM = """
+            update scheduled_transfers set claimed_by = ?, claimed_until = ? where schedule_id = ?""";
+    private static final String ADVANCE = """
+            update scheduled_transfers set next_run_at = ?, remaining_runs = ?, status = ?, claimed_by = null, claimed_until = null
+            where schedule_id = ? and claimed_by = ? and next_run_at = ? and status = 'ACTIVE'""";
+    private static final String INSERT_RUN = """
+            insert into scheduled_transfer_runs (schedule_id, due_at, executed_at, outcome, message)
+            values (?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountRepository accountRepository;
+    private final TransferEngine transferEngine;
+    private final FeeEngine feeEngine;
+    private final AccountLockManager accountLockManager;
+    private final ExecutorService workers;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Value("${banking.scheduled-transfers.batch-size:500}")
+    private int batchSize;
+
+    @Value("${banking.scheduled-transfers.lease-seconds:300}")
+    private long leaseSeconds;
+
+    /* A claimed occurrence of an order */
+    record Instruction(long scheduleId, long senderAccountId, long receiverAccountId, BigDecimal amount,
+                       String description, String cron, LocalDateTime dueAt, Integer remainingRuns) {}
+
+    public ScheduledTransferExecutor(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                     AccountRepository accountRepository, TransferEngine transferEngine, FeeEngine feeEngine,
+                                     AccountLockManager accountLockManager,
+                                     @Value("${banking.scheduled-transfers.workers:4}") int workers) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.accountRepository = accountRepository;
+        this.transferEngine = transferEngine;
+        this.feeEngine = feeEngine;
+        this.accountLockManager = accountLockManager;
+        this.workers = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "scheduled-transfer-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdownNow();
+    }
+
+    /**
+     * Claims and runs due orders batch by batch until fewer than a full batch are due.
+     *
+     * @return the number of occurrences run by this node, whatever their outcome
+     */
+    @Scheduled(fixedDelayString = "${banking.scheduled-transfers.poll-millis:5000}")
+    public int runDue() {
+        int run = 0;
+        while (true) {
+            List<Instruction> batch = claim();
+            if (batch.isEmpty()) {
+                return run;
+            }
+            long started = System.currentTimeMillis();
+            run += execute(batch);
+            log.info("Ran {} scheduled transfers in {}ms", batch.size(), System.currentTimeMillis() - started);
+            if (batch.size() < batchSize) {
+                return run;
+            }
+        }
+    }
+
+    private List<Instruction> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<Instruction> batch = jdbcTemplate.query(CLAIM, (rs, row) -> new Instruction(rs.getLong(1), rs.getLong(2),
+                    rs.getLong(3), rs.getBigDecimal(4), rs.getString(5), rs.getString(6), rs.getTimestamp(7).toLocalDateTime(),
+                    (Integer) rs.getObject(8, Integer.class)),
+                    Timestamp.valueOf(now), Timestamp.valueOf(now), Timestamp.valueOf(now), batchSize);
+            Timestamp leaseEnd = Timestamp.valueOf(now.plusSeconds(leaseSeconds));
+            jdbcTemplate.batchUpdate(STAMP_CLAIM, batch.stream()
+                    .map(instruction -> new Object[]{nodeId, leaseEnd, instruction.scheduleId()})
+                    .toList());
+            return batch;
+        });
+    }
+
+    /* Runs each sender's orders in sequence on one worker, senders in parallel; returns how many were run */
+    private int execute(List<Instruction> batch) {
+        Map<Long, List<Instruction>> bySender = new LinkedHashMap<>();
+        batch.forEach(instruction -> bySender.computeIfAbsent(instruction.senderAccountId(), id -> new ArrayList<>()).add(instruction));
+        List<Future<Integer>> senders = new ArrayList<>(bySender.size());
+        bySender.values().forEach(instructions -> senders.add(workers.submit(() -> {
+            int run = 0;
+            for (Instruction instruction : instructions) {
+                if (runOne(instruction)) {
+                    run++;
+                }
+            }
+            return run;
+        })));
+        int run = 0;
+        for (Future<Integer> sender : senders) {
+            try {
+                run += sender.get();
+            } catch (ExecutionException e) {
+                log.error("Scheduled transfer worker failed: {}", e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return run;
+    }
+
+    /* Runs one occurrence and records its outcome; false if it is left for a retry */
+    private boolean runOne(Instruction instruction) {
+        try {
+            Account sender = accountRepository.findById(instruction.senderAccountId()).orElse(null);
+            Account receiver = accountRepository.findById(instruction.receiverAccountId()).orElse(null);
+            if (sender == null || receiver == null || !Boolean.TRUE.equals(receiver.getIsActive())
+                    || sender.getCurrencyType() != receiver.getCurrencyType()) {
+                return recordFailure(instruction, ScheduledTransferOutcome.REJECTED, "Receiver Account Not Found or not payable");
+            }
+            BigDecimal charges = feeEngine.charges(Money.of(instruction.amount(), sender.getCurrencyType()),
+                    sender.getAccountType(), TransactionType.TRANSFER).toBigDecimal();
+            Supplier<Account> transfer = () -> transferEngine.transfer(sender.getAccountId(), receiver.getAccountId(),
+                    instruction.amount(), charges, instruction.description(),
+                    () -> advance(instruction, ScheduledTransferOutcome.SUCCEEDED, null));
+            // Serialized with the customer's own transfers on this node, as in AccountServiceImpl.makeTransfer
+            if (receiver.isHot()) {
+                accountLockManager.withLock(sender.getAccountNumber(), transfer);
+            } else {
+                accountLockManager.withLocks(sender.getAccountNumber(), receiver.getAccountNumber(), transfer);
+            }
+            return true;
+        } catch (InsufficientFundsException e) {
+            return recordFailure(instruction, ScheduledTransferOutcome.INSUFFICIENT_FUNDS, e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Scheduled transfer {} due {} failed, retrying once its claim lapses: {}",
+                    instruction.scheduleId(), instruction.dueAt(), e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean recordFailure(Instruction instruction, ScheduledTransferOutcome outcome, String message) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> advance(instruction, outcome, message));
+            log.info("Scheduled transfer {} due {} not paid: {}", instruction.scheduleId(), instruction.dueAt(), message);
+            return true;
+        } catch (IllegalStateException e) {
+            log.warn(e.getMessage());
+            return false;
+        }
+    }
+
+    /* Records the outcome and moves the order to its next occurrence; throws, rolling back the caller's transaction, if the claim was lost */
+    private void advance(Instruction instruction, ScheduledTransferOutcome outcome, String message) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime after = instruction.dueAt().isAfter(now) ? instruction.dueAt() : now;
+        LocalDateTime next = CronExpression.parse(instruction.cron()).next(after);
+        Integer remainingRuns = instruction.remainingRuns() == null ? null : instruction.remainingRuns() - 1;
+        boolean completed = next == null || (remainingRuns != null && remainingRuns <= 0);
+        int updated = jdbcTemplate.update(ADVANCE, Timestamp.valueOf(next == null ? instruction.dueAt() : next), remainingRuns,
+                (completed ? ScheduledTransferStatus.COMPLETED : ScheduledTransferStatus.ACTIVE).name(),
+                instruction.scheduleId(), nodeId, Timestamp.valueOf(instruction.dueAt()));
+        if (updated == 0) {
+            throw new IllegalStateException(String.format("Scheduled transfer %d due %s was cancelled or claimed by another node",
+                    instruction.scheduleId(), instruction.dueAt()));
+        }
+        jdbcTemplate.update(INSERT_RUN, instruction.scheduleId(), Timestamp.valueOf(instruction.dueAt()), Timestamp.valueOf(now),
+                outcome.name(), message);
+    }
+}
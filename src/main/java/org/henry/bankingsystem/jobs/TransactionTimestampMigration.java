@@ -0,0 +1,157 @@
+package org.henry.bankingsystem.jobs;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves statement lines from the legacy string column transactions.transaction_date
+ * ("yyyy-MM-dd HH:mm") to the typed, indexed transactions.transaction_time column.
+ * <p>
+ * On startup, before the application takes traffic, the legacy column is made nullable so that new
+ * rows (which only write transaction_time) can be inserted. Once the application is ready, existing
+ * rows are converted in the background in primary-key ranges, one short transaction per chunk, so
+ * only the rows of the current chunk are ever locked. The job is idempotent and simply resumes on
+ * the next start if it is interrupted. The legacy column can be dropped once no row has a null
+ * transaction_time.
+ */
+@Component @Slf4j
+@RequiredArgsConstructor
+public class TransactionTimestampMigration {
+    private static final String TABLE = "transactions";
+    private static final String LEGACY_COLUMN = "transaction_date";
+    private static final DateTimeFormatter LEGACY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${banking.migration.transaction-time.enabled:true}")
+    private boolean enabled;
+
+    @Value("${banking.migration.transaction-time.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${banking.migration.transaction-time.pause-millis:20}")
+    private long pauseMillis;
+
+    private volatile boolean legacyColumnPresent;
+
+    /* Runs while the context is refreshing, i.e. before the web server accepts requests */
+    @PostConstruct
+    public void relaxLegacyColumn() {
+        if (!enabled) {
+            return;
+        }
+        Boolean nullable = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : List.of(TABLE, TABLE.toUpperCase())) {
+                for (String column : List.of(LEGACY_COLUMN, LEGACY_COLUMN.toUpperCase())) {
+                    try (ResultSet columns = metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, column)) {
+                        if (columns.next()) {
+                            return columns.getInt("NULLABLE") == DatabaseMetaData.columnNullable;
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+        legacyColumnPresent = nullable != null;
+        if (!legacyColumnPresent || nullable) {
+            return;
+        }
+
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        boolean mysql = product != null && (product.contains("MySQL") || product.contains("MariaDB"));
+        log.info("Making legacy column {}.{} nullable", TABLE, LEGACY_COLUMN);
+        jdbcTemplate.execute(mysql
+                ? "alter table transactions modify column transaction_date varchar(255) null"
+                : "alter table transactions alter column transaction_date set null");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        if (!enabled || !legacyColumnPresent) {
+            return;
+        }
+        Thread worker = new Thread(this::backfill, "transaction-time-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /* Converts every row still missing transaction_time, one primary-key range per transaction */
+    void backfill() {
+        Map<String, Object> bounds = jdbcTemplate.queryForMap("""
+                select min(transaction_id) as min_id, max(transaction_id) as max_id
+                from transactions where transaction_time is null""");
+        if (bounds.get("min_id") == null) {
+            log.info("Transaction timestamp backfill: nothing to convert");
+            return;
+        }
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+        log.info("Transaction timestamp backfill started for ids {} to {}", minId, maxId);
+
+        long started = System.currentTimeMillis();
+        long converted = 0;
+        long unreadable = 0;
+        for (long chunkStart = minId; chunkStart <= maxId; chunkStart += chunkSize) {
+            long from = chunkStart;
+            long to = Math.min(maxId, from + chunkSize - 1);
+            long[] result = transactionTemplate.execute(status -> convertChunk(from, to));
+            converted += result[0];
+            unreadable += result[1];
+            if (pauseMillis > 0) {
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Transaction timestamp backfill interrupted at id {}", to);
+                    return;
+                }
+            }
+        }
+        log.info("Transaction timestamp backfill finished: {} rows converted, {} unreadable, in {}ms",
+                converted, unreadable, System.currentTimeMillis() - started);
+    }
+
+    private long[] convertChunk(long fromId, long toId) {
+        List<Object[]> updates = new ArrayList<>();
+        long[] unreadable = {0};
+        jdbcTemplate.query("""
+                select transaction_id, transaction_date from transactions
+                where transaction_id between ? and ? and transaction_time is null and transaction_date is not null""",
+                rs -> {
+                    String legacy = rs.getString(2);
+                    try {
+                        LocalDateTime time = legacy.length() > 16
+                                ? LocalDateTime.parse(legacy.replace(" ", "T"))
+                                : LocalDateTime.parse(legacy, LEGACY_FORMAT);
+                        updates.add(new Object[]{Timestamp.valueOf(time), rs.getLong(1)});
+                    } catch (DateTimeParseException e) {
+                        log.warn("Transaction {} has an unreadable date '{}', left unconverted", rs.getLong(1), legacy);
+                        unreadable[0]++;
+                    }
+                }, fromId, toId);
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update transactions set transaction_time = ? where transaction_id = ? and transaction_time is null", updates);
+        }
+        return new long[]{updates.size(), unreadable[0]};
+    }
+}
@@ -0,0 +1,19 @@
+package org.henry.bankingsystem.repository;
+
+import org.henry.bankingsystem.entity.AccountBalanceSlot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface AccountBalanceSlotRepository extends JpaRepository<AccountBalanceSlot, Long> {
+    @Query("select coalesce(sum(s.balance), 0) from AccountBalanceSlot s where s.account.accountId = :accountId")
+    BigDecimal sumBalanceByAccountId(Long accountId);
+
+    @Modifying
+    @Query("delete from AccountBalanceSlot s where s.account.accountId = :accountId")
+    void deleteAllByAccountId(Long accountId);
+}
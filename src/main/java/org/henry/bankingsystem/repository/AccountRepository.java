@@ -1,15 +1,48 @@
 package org.henry.bankingsystem.repository;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.henry.bankingsystem.entity.Account;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
     Optional<Account> findByAccountNumber(String accountNumber);
-    boolean existsByAccountNumber(String accountNumber);
     Optional<Account> findAccountByCustomer_CustomerId(String customerId);
     Optional<Account> findAccountByCustomer_Email(String email);
+
+    /* Row lock (SELECT ... FOR UPDATE) held until the surrounding transaction ends */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select a from Account a where a.accountId = :accountId")
+    Optional<Account> findByIdForUpdate(Long accountId);
+
+    /* Locks every row in one statement; rows are visited (and locked) in primary key order */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select a from Account a where a.accountId in :accountIds order by a.accountId")
+    List<Account> findAllByIdInForUpdate(Collection<Long> accountIds);
+
+    List<Account> findAllByAccountNumberIn(Collection<String> accountNumbers);
+
+    @Query("select a.accountId from Account a where a.accountNumber = :accountNumber")
+    Optional<Long> findIdByAccountNumber(String accountNumber);
+
+    @Query("select a.accountId from Account a where a.customer.email = :email")
+    Optional<Long> findIdByCustomerEmail(String email);
+
+    /* Reads the hot-account flag without loading (or locking) the account */
+    @Query("select a.balanceSlots from Account a where a.accountId = :accountId")
+    Integer findBalanceSlotsById(Long accountId);
+
+    @Query("select a.accountId from Account a where a.accountId in :accountIds and a.balanceSlots > 0")
+    List<Long> findHotAccountIdsIn(Collection<Long> accountIds);
 }
@@ -0,0 +1,19 @@
+package org.henry.bankingsystem.repository;
+
+import org.henry.bankingsystem.entity.BalanceSnapshot;
+import org.henry.bankingsystem.entity.BalanceSnapshotId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, BalanceSnapshotId> {
+
+    /* Latest close on or before date; a primary-key seek */
+    Optional<BalanceSnapshot> findFirstByIdAccountIdAndIdSnapshotDateLessThanEqualOrderByIdSnapshotDateDesc(Long accountId, LocalDate date);
+
+    /* Earliest close after date, for dates older than an account's first snapshot */
+    Optional<BalanceSnapshot> findFirstByIdAccountIdAndIdSnapshotDateGreaterThanOrderByIdSnapshotDateAsc(Long accountId, LocalDate date);
+}
@@ -0,0 +1,10 @@
+package org.henry.bankingsystem.repository;
+
+import org.henry.bankingsystem.entity.DailyUsage;
+import org.henry.bankingsystem.entity.DailyUsageId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DailyUsageRepository extends JpaRepository<DailyUsage, DailyUsageId> {
+}
@@ -0,0 +1,9 @@
+package org.henry.bankingsystem.repository;
+
+import org.henry.bankingsystem.entity.FeeTier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface FeeTierRepository extends JpaRepository<FeeTier, Long> {
+}
@@ -0,0 +1,33 @@
+package org.henry.bankingsystem.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.henry.bankingsystem.entity.FixedDeposit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FixedDepositRepository extends JpaRepository<FixedDeposit, Long> {
+
+    /* Row lock held until the surrounding transaction ends, so a term is matured once across nodes */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select f from FixedDeposit f where f.accountId = :accountId")
+    Optional<FixedDeposit> findByIdForUpdate(Long accountId);
+
+    /* Active terms maturing before until, overdue ones included; served by idx_fixed_deposits_due */
+    @Query("""
+            select new org.henry.bankingsystem.repository.FixedDepositRepository$Maturity(f.accountId, f.maturesAt)
+            from FixedDeposit f
+            where f.status = org.henry.bankingsystem.enums.FixedDepositStatus.ACTIVE and f.maturesAt < :until""")
+    List<Maturity> findActiveMaturingBefore(LocalDateTime until);
+
+    record Maturity(Long accountId, LocalDateTime maturesAt) {}
+}
@@ -0,0 +1,50 @@
+package org.henry.bankingsystem.repository;
+
+import org.henry.bankingsystem.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyRepository extends JpaRepository<IdempotencyRecord, String> {
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.expiresAt < :now")
+    int deleteExpired(Instant now);
+
+    /* Marks the key as posted; 0 if the lease was taken over by a retry in the meantime */
+    @Transactional
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r set r.status = org.henry.bankingsystem.enums.IdempotencyStatus.COMPLETED
+            where r.keyHash = :keyHash and r.leaseToken = :leaseToken""")
+    int complete(String keyHash, String leaseToken);
+
+    /* Stores the response of the request holding the lease; 0 if it no longer holds it */
+    @Transactional
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r set r.status = org.henry.bankingsystem.enums.IdempotencyStatus.COMPLETED, r.responseBody = :responseBody
+            where r.keyHash = :keyHash and r.leaseToken = :leaseToken""")
+    int storeResponse(String keyHash, String leaseToken, String responseBody);
+
+    /* Hands an IN_PROGRESS key whose lease ran out to a new holder; 0 if another request got there first */
+    @Transactional
+    @Modifying
+    @Query("""
+            update IdempotencyRecord r set r.leaseToken = :newToken, r.leaseExpiresAt = :leaseExpiresAt
+            where r.keyHash = :keyHash and r.leaseToken = :oldToken and r.status = org.henry.bankingsystem.enums.IdempotencyStatus.IN_PROGRESS""")
+    int takeOver(String keyHash, String oldToken, String newToken, Instant leaseExpiresAt);
+
+    /* Releases a key that was never posted, so that the client can retry it */
+    @Transactional
+    @Modifying
+    @Query("""
+            delete from IdempotencyRecord r
+            where r.keyHash = :keyHash and r.leaseToken = :leaseToken and r.status = org.henry.bankingsystem.enums.IdempotencyStatus.IN_PROGRESS""")
+    int release(String keyHash, String leaseToken);
+}
@@ -0,0 +1,19 @@
+package org.henry.bankingsystem.repository;
+
+import org.henry.bankingsystem.entity.InterestAccrual;
+import org.henry.bankingsystem.entity.InterestAccrualId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface InterestAccrualRepository extends JpaRepository<InterestAccrual, InterestAccrualId> {
+
+    /* Interest an account accrued over [from, to], in millionths of a minor unit */
+    @Query("""
+            select coalesce(sum(i.accruedMicros), 0) from InterestAccrual i
+            where i.id.accountId = :accountId and i.id.accrualDate between :from and :to""")
+    long sumAccruedMicros(Long accountId, LocalDate from, LocalDate to);
+}
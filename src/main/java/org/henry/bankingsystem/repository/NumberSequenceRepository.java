@@ -0,0 +1,20 @@
+package org.henry.bankingsystem.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.henry.bankingsystem.entity.NumberSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface NumberSequenceRepository extends JpaRepository<NumberSequence, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "3000"))
+    @Query("select s from NumberSequence s where s.sequenceName = :sequenceName")
+    Optional<NumberSequence> findByNameForUpdate(String sequenceName);
+}
@@ -0,0 +1,13 @@
+package org.henry.bankingsystem.repository;
+
+import org.henry.bankingsystem.entity.ReconciliationMismatch;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReconciliationMismatchRepository extends JpaRepository<ReconciliationMismatch, Long> {
+    List<ReconciliationMismatch> findByRunIdOrderByAccountIdAscMismatchIdAsc(String runId, Limit limit);
+}
@@ -0,0 +1,16 @@
+package org.henry.bankingsystem.repository;
+
+import org.henry.bankingsystem.entity.ScheduledTransfer;
+import org.henry.bankingsystem.enums.ScheduledTransferStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ScheduledTransferRepository extends JpaRepository<ScheduledTransfer, Long> {
+    List<ScheduledTransfer> findBySenderAccountIdOrderByScheduleIdAsc(Long senderAccountId);
+    Optional<ScheduledTransfer> findByScheduleIdAndSenderAccountId(Long scheduleId, Long senderAccountId);
+    long countBySenderAccountIdAndStatus(Long senderAccountId, ScheduledTransferStatus status);
+}
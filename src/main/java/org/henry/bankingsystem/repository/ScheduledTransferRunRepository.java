@@ -0,0 +1,13 @@
+package org.henry.bankingsystem.repository;
+
+import org.henry.bankingsystem.entity.ScheduledTransferRun;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ScheduledTransferRunRepository extends JpaRepository<ScheduledTransferRun, Long> {
+    List<ScheduledTransferRun> findByScheduleIdOrderByRunIdDesc(Long scheduleId, Limit limit);
+}
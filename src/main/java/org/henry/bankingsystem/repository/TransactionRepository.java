@@ -1,16 +1,75 @@
 package org.henry.bankingsystem.repository;
 
+import jakarta.persistence.QueryHint;
+import org.henry.bankingsystem.dto.StatementLineDto;
 import org.henry.bankingsystem.entity.Transaction;
+import org.henry.bankingsystem.enums.TransactionCategory;
+import org.henry.bankingsystem.enums.TransactionType;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
     @NotNull Optional<Transaction> findById(@NotNull Long id);
-    boolean existsByTransactionRef(String transactionReference);
-    List<Transaction> findAllByCustomer_CustomerIdAndTransactionDateContains(String customer_customerId, String transactionDate);
+
+    /* One page of an account's statement lines, newest first; a Slice so no count(*) is run over the whole history */
+    @Query("""
+            select t from Transaction t
+            where t.account.accountId = :accountId
+            order by t.transactionDate desc, t.transactionId desc""")
+    Slice<Transaction> findPageByAccountId(Long accountId, Pageable pageable);
+
+    /*
+     * Keyset page of an account's statement, newest first: lines from :from onwards that sort strictly after
+     * (beforeTime, beforeId). A null type or category matches every line. Seeks on idx_transactions_account_statement,
+     * so the cost of a page does not grow with the length of the history.
+     */
+    @Query("""
+            select new org.henry.bankingsystem.dto.StatementLineDto(t.transactionId, t.transactionRef, t.transactionType,
+                t.transactionCategory, t.amount, t.balanceAfterTransaction, t.targetAccountNumber, t.transactionDate)
+            from Transaction t
+            where t.account.accountId = :accountId and t.transactionDate >= :from
+              and (t.transactionDate < :beforeTime or (t.transactionDate = :beforeTime and t.transactionId < :beforeId))
+              and (:type is null or t.transactionType = :type)
+              and (:category is null or t.transactionCategory = :category)
+            order by t.transactionDate desc, t.transactionId desc""")
+    List<StatementLineDto> findStatementPage(Long accountId, LocalDateTime from, LocalDateTime beforeTime, long beforeId,
+                                             TransactionType type, TransactionCategory category, Limit limit);
+
+    /*
+     * Next chunk of an account's statement lines before :to, oldest first, strictly after (afterTime, afterId);
+     * a null type or category matches every line.
+     * Read forward-only in fetches of the chunk size rather than buffered whole by the driver.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("""
+            select new org.henry.bankingsystem.dto.StatementLineDto(t.transactionId, t.transactionRef, t.transactionType,
+                t.transactionCategory, t.amount, t.balanceAfterTransaction, t.targetAccountNumber, t.transactionDate)
+            from Transaction t
+            where t.account.accountId = :accountId and t.transactionDate < :to
+              and (t.transactionDate > :afterTime or (t.transactionDate = :afterTime and t.transactionId > :afterId))
+              and (:type is null or t.transactionType = :type)
+              and (:category is null or t.transactionCategory = :category)
+            order by t.transactionDate, t.transactionId""")
+    List<StatementLineDto> findExportChunk(Long accountId, LocalDateTime afterTime, long afterId, LocalDateTime to,
+                                           TransactionType type, TransactionCategory category, Limit limit);
+
+    /* Credits minus debits posted to an account in [from, to); only that range of idx_transactions_account_statement is read */
+    @Query("""
+            select coalesce(sum(case when t.transactionCategory = org.henry.bankingsystem.enums.TransactionCategory.CREDIT
+                                     then t.amount else -t.amount end), 0)
+            from Transaction t
+            where t.account.accountId = :accountId and t.transactionDate >= :from and t.transactionDate < :to""")
+    BigDecimal sumNetMovement(Long accountId, LocalDateTime from, LocalDateTime to);
 }
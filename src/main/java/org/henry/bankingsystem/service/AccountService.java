@@ -1,15 +1,28 @@
 package org.henry.bankingsystem.service;
 
 import org.henry.bankingsystem.dto.*;
+import org.henry.bankingsystem.enums.StatementFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface AccountService {
     DefaultApiResponse<CustomerDto> getDetails();
     DefaultApiResponse<ViewBalanceDto> checkBalance();
-    DefaultApiResponse<ViewBalanceDto> depositMoney(DepositDto requestBody);
+    DefaultApiResponse<BalanceAsOfDto> getBalanceAsOf(LocalDate date);
+    CompletableFuture<DefaultApiResponse<ViewBalanceDto>> depositMoney(DepositDto requestBody);
     DefaultApiResponse<BalanceDto> makeWithdrawal(WithdrawDto requestBody);
-    DefaultApiResponse<BalanceDto> makeTransfer(TransferDto requestBody);
+    CompletableFuture<DefaultApiResponse<BalanceDto>> makeTransfer(TransferDto requestBody);
+    DefaultApiResponse<BatchTransferResultDto> makeBatchTransfer(BatchTransferDto requestBody);
+    DefaultApiResponse<ScheduledTransferDto> createScheduledTransfer(ScheduledTransferRequestDto requestBody);
+    DefaultApiResponse<List<ScheduledTransferDto>> getScheduledTransfers();
+    DefaultApiResponse<ScheduledTransferDto> cancelScheduledTransfer(Long scheduleId);
+    DefaultApiResponse<List<ScheduledTransferRunDto>> getScheduledTransferRuns(Long scheduleId, int limit);
 
     DefaultApiResponse<TransactionSummaryDto> displayTransferSummary(TransferDto requestBody);
+    DefaultApiResponse<StatementPageDto> getBankStatement(StatementQueryDto query);
+    DefaultApiResponse<StatementExportDto> exportBankStatement(StatementQueryDto query, StatementFormat format, boolean gzip);
 
     String getAccountHolderName(String accountNumber);
 }
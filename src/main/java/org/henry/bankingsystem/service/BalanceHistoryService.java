@@ -0,0 +1,64 @@
+package org.henry.bankingsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.BalanceSnapshot;
+import org.henry.bankingsystem.repository.BalanceSnapshotRepository;
+import org.henry.bankingsystem.repository.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+
+/**
+ * Balances as of the close of a past day. The answer starts from the nearest end-of-day snapshot
+ * (see BalanceSnapshotJob) and replays only the statement lines between that snapshot and the day
+ * asked for, so it costs two index seeks however long the account's history is. Days before an
+ * account's first snapshot are worked back from that snapshot, and an account that has none yet is
+ * worked back from its current balance.
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class BalanceHistoryService {
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final TransactionRepository transactionRepository;
+    private final HotAccountService hotAccountService;
+
+    /* Far enough ahead to include every line posted since the day asked for */
+    private static final LocalDateTime END_OF_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    /** Balance of the account at the end of day; zero for days before it was opened. */
+    @Transactional(readOnly = true)
+    public BigDecimal balanceAsOf(Account account, LocalDate day) {
+        LocalDateTime dayEnd = day.plusDays(1).atStartOfDay();
+        if (account.getDateOpened() != null && !account.getDateOpened().isBefore(dayEnd.atZone(ZoneId.systemDefault()).toInstant())) {
+            return BigDecimal.ZERO;
+        }
+        Long accountId = account.getAccountId();
+
+        Optional<BalanceSnapshot> before = balanceSnapshotRepository
+                .findFirstByIdAccountIdAndIdSnapshotDateLessThanEqualOrderByIdSnapshotDateDesc(accountId, day);
+        if (before.isPresent()) {
+            LocalDate snapshotDate = before.get().getId().getSnapshotDate();
+            BigDecimal closing = before.get().getClosingBalance();
+            return snapshotDate.equals(day)
+                    ? closing
+                    : closing.add(transactionRepository.sumNetMovement(accountId, snapshotDate.plusDays(1).atStartOfDay(), dayEnd));
+        }
+
+        Optional<BalanceSnapshot> after = balanceSnapshotRepository
+                .findFirstByIdAccountIdAndIdSnapshotDateGreaterThanOrderByIdSnapshotDateAsc(accountId, day);
+        if (after.isPresent()) {
+            LocalDateTime snapshotEnd = after.get().getId().getSnapshotDate().plusDays(1).atStartOfDay();
+            return after.get().getClosingBalance().subtract(transactionRepository.sumNetMovement(accountId, dayEnd, snapshotEnd));
+        }
+
+        log.debug("No balance snapshot for account {}, working back from its current balance", accountId);
+        return hotAccountService.totalBalance(account).subtract(transactionRepository.sumNetMovement(accountId, dayEnd, END_OF_TIME));
+    }
+}
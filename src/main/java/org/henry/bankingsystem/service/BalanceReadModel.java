@@ -0,0 +1,172 @@
+package org.henry.bankingsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.Account;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory read model of customer balances, so a balance read needs no SQL.
+ * <p>
+ * Each account has an immutable BalanceView that is only ever replaced whole, and only by a view
+ * of the same or a later account version, so a reader sees one committed balance or the next and a
+ * late update cannot undo a newer one. Views are loaded for every account when the application is
+ * ready and for an account read from the database on a miss, replaced after commit from the
+ * accounts of every ledger posting made on this node, and refreshed every
+ * banking.balance-read-model.refresh-millis from the accounts whose last transaction is after the
+ * start of the last successful load or refresh, which brings in postings made on other nodes. A
+ * failed or late refresh is caught up by the next one. The refresh reaches back a further
+ * banking.balance-read-model.lookback-seconds for postings committed a while after they were
+ * posted and for clock differences between nodes.
+ * <p>
+ * Hot accounts are not served from here: their credits go to balance slots without changing the
+ * account row or its version, so their view only records that the database must be asked.
+ * <p>
+ * A caller sees its own postings at once on the node that made them. Postings made on another node
+ * show up with the next refresh; the read replica staleness guard does not apply to answers from
+ * here, since they never reach a data source.
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class BalanceReadModel {
+    private static final String LOAD_ALL = """
+            select a.account_id, a.account_number, a.account_balance, a.version, a.balance_slots, c.email
+            from accounts a join customers c on c.customer_id = a.customer_id""";
+    private static final String LOAD_CHANGED = """
+            select account_id, account_number, account_balance, version, balance_slots
+            from accounts where last_transaction_date >= ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, BalanceView> views = new ConcurrentHashMap<>();
+    private final Map<String, Long> accountIdByEmail = new ConcurrentHashMap<>();
+
+    @Value("${banking.balance-read-model.enabled:true}")
+    private boolean enabled;
+
+    @Value("${banking.balance-read-model.lookback-seconds:30}")
+    private long lookbackSeconds;
+
+    /* Start of the last successful load or refresh; null until the model has been loaded */
+    private volatile LocalDateTime refreshedFrom;
+
+    /**
+     * Balance of an account as of a committed account version.
+     * The balance is null for a hot account, whose balance has to be read from the database.
+     */
+    public record BalanceView(Long accountId, String accountNumber, BigDecimal balance, long version) {
+
+        static BalanceView of(Account account) {
+            return new BalanceView(account.getAccountId(), account.getAccountNumber(),
+                    account.isHot() ? null : account.getAccountBalance(), account.getVersion());
+        }
+    }
+
+    /** View of the only account of the customer, if it is held and not hot. */
+    public Optional<BalanceView> findByEmail(String email) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Long accountId = accountIdByEmail.get(email);
+        BalanceView view = accountId == null ? null : views.get(accountId);
+        return view == null || view.balance() == null ? Optional.empty() : Optional.of(view);
+    }
+
+    /** Adds an account read from the database on a miss; ignored if a later version is already held. */
+    public void load(Account account, String email) {
+        if (!enabled || account.getVersion() == null) {
+            return;
+        }
+        accountIdByEmail.put(email, account.getAccountId());
+        apply(BalanceView.of(account));
+    }
+
+    /** Loads every account; customers with more than one account are left to the database. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.currentTimeMillis();
+        Set<String> shared = new HashSet<>();
+        jdbcTemplate.query(LOAD_ALL, rs -> {
+            BalanceView view = viewOf(rs);
+            if (view != null) {
+                apply(view);
+                if (accountIdByEmail.putIfAbsent(rs.getString("email"), view.accountId()) != null) {
+                    shared.add(rs.getString("email"));
+                }
+            }
+        });
+        shared.forEach(accountIdByEmail::remove);
+        refreshedFrom = startedAt;
+        log.info("Balance read model loaded {} accounts in {}ms", views.size(), System.currentTimeMillis() - started);
+    }
+
+    /** Replaces the views of the accounts of a posting once it has committed. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPosted(LedgerService.Posted posted) {
+        if (!enabled) {
+            return;
+        }
+        // The versions are only final once the accounts have been flushed, so they are read after commit
+        for (Account account : posted.accounts()) {
+            if (account.getVersion() != null) {
+                apply(BalanceView.of(account));
+            }
+        }
+    }
+
+    /** Catches up with the accounts that moved since the last successful refresh, including on other nodes. */
+    @Scheduled(fixedDelayString = "${banking.balance-read-model.refresh-millis:1000}")
+    public void refresh() {
+        LocalDateTime since = refreshedFrom;
+        if (!enabled || since == null) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            jdbcTemplate.query(LOAD_CHANGED, rs -> {
+                BalanceView view = viewOf(rs);
+                if (view != null) {
+                    apply(view);
+                }
+            }, Timestamp.valueOf(since.minusSeconds(lookbackSeconds)));
+            refreshedFrom = startedAt;
+        } catch (RuntimeException e) {
+            log.error("Refreshing the balance read model failed: {}", e.getMessage());
+        }
+    }
+
+    private void apply(BalanceView view) {
+        views.merge(view.accountId(), view, (held, update) -> update.version() >= held.version() ? update : held);
+    }
+
+    private static BalanceView viewOf(ResultSet rs) throws SQLException {
+        long version = rs.getLong("version");
+        if (rs.wasNull()) {
+            return null;
+        }
+        int balanceSlots = rs.getInt("balance_slots");
+        return new BalanceView(rs.getLong("account_id"), rs.getString("account_number"),
+                balanceSlots > 0 ? null : rs.getBigDecimal("account_balance"), version);
+    }
+}
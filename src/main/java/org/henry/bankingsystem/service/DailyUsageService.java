@@ -0,0 +1,94 @@
+package org.henry.bankingsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.DailyUsage;
+import org.henry.bankingsystem.entity.DailyUsageId;
+import org.henry.bankingsystem.repository.DailyUsageRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-account, per-day counters of money sent out (withdrawals and transfers, charges excluded),
+ * used for the Account.transactionLimit check.
+ * The daily_usage row is moved in the same transaction as the debit, while the account row lock is
+ * held. The last committed value is also kept in memory, tagged with the account version it was
+ * written at, so that a later check on an untouched account needs no query at all; any other write
+ * to the account bumps its version and sends the next check back to the row.
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class DailyUsageService {
+    private final DailyUsageRepository dailyUsageRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, HotUsage> hotUsage = new ConcurrentHashMap<>();
+
+    private static final String ADD_TO_USAGE = """
+            update daily_usage set debited_amount = debited_amount + ?, debit_count = debit_count + ?
+            where account_id = ? and usage_date = ?""";
+    private static final String INSERT_USAGE = """
+            insert into daily_usage (account_id, usage_date, debited_amount, debit_count)
+            values (?, ?, ?, ?)""";
+
+    private record HotUsage(LocalDate usageDate, Long accountVersion, BigDecimal debitedAmount) {}
+
+    /* What one posting run sent out from an account */
+    public record Debits(BigDecimal amount, int count) {
+        public static final Debits NONE = new Debits(BigDecimal.ZERO, 0);
+
+        public Debits plus(BigDecimal debit) {
+            return new Debits(amount.add(debit), count + 1);
+        }
+    }
+
+    /**
+     * Amount already sent out from the account today. The caller must hold the account row lock.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal debitedToday(Account account) {
+        LocalDate today = LocalDate.now();
+        HotUsage hot = hotUsage.get(account.getAccountId());
+        if (hot != null && hot.usageDate().equals(today) && Objects.equals(hot.accountVersion(), account.getVersion())) {
+            return hot.debitedAmount();
+        }
+        return dailyUsageRepository.findById(new DailyUsageId(account.getAccountId(), today))
+                .map(DailyUsage::getDebitedAmount)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * Adds debits to today's counter of each account inside the caller's transaction.
+     * The caller must hold the row lock of every account, which is what makes update-then-insert safe.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDebits(Map<Account, Debits> debits) {
+        LocalDate today = LocalDate.now();
+        debits.forEach((account, debit) -> {
+            BigDecimal debited = debitedToday(account).add(debit.amount());
+            int updated = jdbcTemplate.update(ADD_TO_USAGE, debit.amount(), debit.count(), account.getAccountId(), today);
+            if (updated == 0) {
+                jdbcTemplate.update(INSERT_USAGE, account.getAccountId(), today, debit.amount(), debit.count());
+            }
+
+            // The version is only final once the account has been flushed, so read it after commit
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    hotUsage.put(account.getAccountId(), new HotUsage(today, account.getVersion(), debited));
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,93 @@
+package org.henry.bankingsystem.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.exceptions.ResourceNotFoundException;
+import org.henry.bankingsystem.service.TransferEngine.GroupDeposit;
+import org.henry.bankingsystem.utils.GroupCommitWorker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Group commit for deposits. Deposits arriving within a short linger window are collected per
+ * worker (sharded by account) and applied through {@link TransferEngine#depositGroup} in one
+ * transaction, so a burst of cash-in traffic costs one lock statement, one batch of ledger inserts
+ * and one commit instead of one of each per deposit. Callers are completed only after the shared
+ * commit succeeds, so durability is unchanged. Disable with banking.deposit.group-commit.enabled=false.
+ */
+@Service @Slf4j
+@ConditionalOnProperty(name = "banking.deposit.group-commit.enabled", havingValue = "true", matchIfMissing = true)
+public class DepositGroupCommit {
+    private final TransferEngine transferEngine;
+    private final GroupCommitWorker<PendingDeposit> workers;
+    private final ExecutorService completions = Executors.newVirtualThreadPerTaskExecutor();
+
+    private record PendingDeposit(GroupDeposit deposit, CompletableFuture<BigDecimal> balance) {}
+
+    public DepositGroupCommit(TransferEngine transferEngine,
+                              @Value("${banking.deposit.group-commit.workers:4}") int workerCount,
+                              @Value("${banking.deposit.group-commit.queue-capacity:4096}") int queueCapacity,
+                              @Value("${banking.deposit.group-commit.max-group-size:256}") int maxGroupSize,
+                              @Value("${banking.deposit.group-commit.linger-micros:2000}") long lingerMicros) {
+        this.transferEngine = transferEngine;
+        this.workers = new GroupCommitWorker<>("deposit-group-commit", workerCount, queueCapacity, maxGroupSize,
+                lingerMicros, this::commitGroup, this::abandon);
+    }
+
+    /**
+     * Queues a deposit on the worker owning the account.
+     *
+     * @return future completed with the account balance after the deposit once it is committed
+     * @throws java.util.concurrent.RejectedExecutionException if the worker's queue is full
+     */
+    public CompletableFuture<BigDecimal> submit(Long accountId, BigDecimal amount) {
+        PendingDeposit pending = new PendingDeposit(new GroupDeposit(accountId, amount, IdempotencyService.currentLease()), new CompletableFuture<>());
+        workers.submit(accountId, pending);
+        return pending.balance();
+    }
+
+    private void commitGroup(List<PendingDeposit> group) {
+        List<PendingDeposit> pending = List.copyOf(group);
+        try {
+            List<BigDecimal> balances = transferEngine.depositGroup(pending.stream().map(PendingDeposit::deposit).toList());
+            for (int i = 0; i < pending.size(); i++) {
+                CompletableFuture<BigDecimal> result = pending.get(i).balance();
+                BigDecimal balance = balances.get(i);
+                complete(balance == null
+                        ? () -> result.completeExceptionally(new ResourceNotFoundException("Customer Account Not Found"))
+                        : () -> result.complete(balance));
+            }
+        } catch (RuntimeException e) {
+            log.error("Deposit group of {} failed: {}", pending.size(), e.getMessage());
+            pending.forEach(deposit -> complete(() -> deposit.balance().completeExceptionally(e)));
+        }
+    }
+
+    /* Fails a deposit that was still queued at shutdown; nothing was posted for it */
+    private void abandon(PendingDeposit pending) {
+        complete(() -> pending.balance().completeExceptionally(new RejectedExecutionException("Deposits are shutting down, try again later")));
+    }
+
+    /* Completes on the completions executor, or on this thread once that has been shut down */
+    private void complete(Runnable completion) {
+        try {
+            completions.execute(completion);
+        } catch (RejectedExecutionException e) {
+            completion.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.close();
+        completions.close();
+    }
+}
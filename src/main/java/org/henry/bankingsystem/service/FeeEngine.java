@@ -0,0 +1,187 @@
+package org.henry.bankingsystem.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.FeeTier;
+import org.henry.bankingsystem.enums.AccountType;
+import org.henry.bankingsystem.enums.CurrencyType;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.henry.bankingsystem.repository.FeeTierRepository;
+import org.henry.bankingsystem.utils.Money;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Charges for moving money out of an account, from tiered fee schedules per currency, account type
+ * and transaction type. The rows of fee_tiers are compiled into an immutable schedule: one set of
+ * bands per combination, held as sorted arrays of minor-unit lower bounds, so a quote is an array
+ * lookup plus a binary search and allocates nothing but the resulting Money.
+ * <p>
+ * The compiled schedule is swapped atomically, so a reload never exposes a half-built schedule and
+ * every quote is taken from one schedule. Rows are reloaded every banking.fees.refresh-millis and on
+ * demand from the admin API; an invalid table is rejected and the previous schedule is kept.
+ * Account types without rows of their own use the rows with no account type, and where there are
+ * none of those either, the built-in default bands.
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class FeeEngine {
+    private static final CurrencyType[] CURRENCIES = CurrencyType.values();
+    private static final AccountType[] ACCOUNT_TYPES = AccountType.values();
+    private static final TransactionType[] TRANSACTION_TYPES = TransactionType.values();
+
+    /* Bands applied when fee_tiers has no account-type-wide rows for a currency and transaction type */
+    static final List<FeeTier> DEFAULT_TIERS = defaultTiers();
+
+    private final FeeTierRepository feeTierRepository;
+    private final AtomicReference<Schedule> schedule = new AtomicReference<>(Schedule.compile(List.of()));
+
+    /* Amounts from lowerBounds[i] (inclusive) up to lowerBounds[i + 1] pay flatFees[i] plus rates[i] basis points */
+    private record Bands(long[] lowerBounds, int[] rates, long[] flatFees) {}
+
+    /* Compiled, immutable schedule; bands are indexed by currency, account type (or any) and transaction type */
+    record Schedule(Bands[] bands, int tiers, Instant compiledAt) {
+
+        static Schedule compile(List<FeeTier> rows) {
+            Map<String, List<FeeTier>> grouped = new HashMap<>();
+            for (FeeTier row : rows) {
+                grouped.computeIfAbsent(key(row.getCurrencyType(), row.getAccountType(), row.getTransactionType()),
+                        k -> new ArrayList<>()).add(row);
+            }
+            Map<String, List<FeeTier>> defaults = new HashMap<>();
+            for (FeeTier row : DEFAULT_TIERS) {
+                defaults.computeIfAbsent(key(row.getCurrencyType(), null, row.getTransactionType()), k -> new ArrayList<>()).add(row);
+            }
+
+            Bands[] bands = new Bands[CURRENCIES.length * (ACCOUNT_TYPES.length + 1) * TRANSACTION_TYPES.length];
+            for (CurrencyType currency : CURRENCIES) {
+                for (TransactionType transactionType : TRANSACTION_TYPES) {
+                    List<FeeTier> anyAccountType = grouped.getOrDefault(key(currency, null, transactionType),
+                            defaults.get(key(currency, null, transactionType)));
+                    bands[index(currency, null, transactionType)] = compileBands(currency, anyAccountType);
+                    for (AccountType accountType : ACCOUNT_TYPES) {
+                        List<FeeTier> own = grouped.get(key(currency, accountType, transactionType));
+                        bands[index(currency, accountType, transactionType)] = own != null
+                                ? compileBands(currency, own)
+                                : bands[index(currency, null, transactionType)];
+                    }
+                }
+            }
+            return new Schedule(bands, rows.size(), Instant.now());
+        }
+
+        private static Bands compileBands(CurrencyType currency, List<FeeTier> rows) {
+            if (rows == null || rows.isEmpty()) {
+                return null;
+            }
+            List<FeeTier> sorted = rows.stream().sorted(Comparator.comparing(FeeTier::getLowerBound)).toList();
+            long[] lowerBounds = new long[sorted.size()];
+            int[] rates = new int[sorted.size()];
+            long[] flatFees = new long[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                FeeTier row = sorted.get(i);
+                lowerBounds[i] = Money.of(row.getLowerBound(), currency).minorUnits();
+                rates[i] = row.getRateBasisPoints();
+                flatFees[i] = Money.of(row.getFlatFee(), currency).minorUnits();
+                if (lowerBounds[i] < 0 || flatFees[i] < 0 || rates[i] < 0 || rates[i] > 10_000) {
+                    throw new IllegalArgumentException("Fee tier out of range: " + row);
+                }
+                if (i > 0 && lowerBounds[i] == lowerBounds[i - 1]) {
+                    throw new IllegalArgumentException("Two fee tiers start at the same amount: " + row);
+                }
+            }
+            return new Bands(lowerBounds, rates, flatFees);
+        }
+
+        long charges(long amount, CurrencyType currency, AccountType accountType, TransactionType transactionType) {
+            Bands schedule = bands[index(currency, accountType, transactionType)];
+            if (schedule == null) {
+                return 0;
+            }
+            int band = Arrays.binarySearch(schedule.lowerBounds(), amount);
+            if (band < 0) {
+                band = -band - 2;
+            }
+            return band < 0 ? 0 : Math.addExact(schedule.flatFees()[band], Money.rateOf(amount, schedule.rates()[band]));
+        }
+
+        private static int index(CurrencyType currency, AccountType accountType, TransactionType transactionType) {
+            int account = accountType == null ? ACCOUNT_TYPES.length : accountType.ordinal();
+            return (currency.ordinal() * (ACCOUNT_TYPES.length + 1) + account) * TRANSACTION_TYPES.length + transactionType.ordinal();
+        }
+
+        private static String key(CurrencyType currency, AccountType accountType, TransactionType transactionType) {
+            return currency + "/" + accountType + "/" + transactionType;
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        reload();
+    }
+
+    /* Picks up changes made on other nodes or directly in the table */
+    @Scheduled(initialDelayString = "${banking.fees.refresh-millis:60000}", fixedDelayString = "${banking.fees.refresh-millis:60000}")
+    public void refresh() {
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            log.error("Fee schedule not reloaded, keeping the current one: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Compiles the current rows of fee_tiers and swaps them in.
+     *
+     * @return the number of rows compiled
+     * @throws IllegalArgumentException if a row is invalid; the current schedule stays in place
+     */
+    public int reload() {
+        Schedule compiled = Schedule.compile(feeTierRepository.findAll());
+        schedule.set(compiled);
+        log.debug("Fee schedule compiled from {} tiers", compiled.tiers());
+        return compiled.tiers();
+    }
+
+    /**
+     * Charges on moving amount out of an account of the given type; zero when no band covers the amount.
+     */
+    public Money charges(Money amount, AccountType accountType, TransactionType transactionType) {
+        return Money.ofMinor(schedule.get().charges(amount.minorUnits(), amount.currency(), accountType, transactionType),
+                amount.currency());
+    }
+
+    /** When the schedule in use was compiled. */
+    public Instant compiledAt() {
+        return schedule.get().compiledAt();
+    }
+
+    private static List<FeeTier> defaultTiers() {
+        List<FeeTier> tiers = new ArrayList<>();
+        for (TransactionType transactionType : List.of(TransactionType.TRANSFER, TransactionType.WITHDRAWAL)) {
+            tiers.add(tier(CurrencyType.USD, transactionType, 0, 300));
+            tiers.add(tier(CurrencyType.USD, transactionType, 1_000_000, 1_000));
+            tiers.add(tier(CurrencyType.NGN, transactionType, 0, 800));
+            tiers.add(tier(CurrencyType.NGN, transactionType, 500_000, 2_000));
+            tiers.add(tier(CurrencyType.EUR, transactionType, 0, 1_125));
+            tiers.add(tier(CurrencyType.EUR, transactionType, 400_000, 2_500));
+        }
+        return List.copyOf(tiers);
+    }
+
+    private static FeeTier tier(CurrencyType currency, TransactionType transactionType, long lowerBound, int rateBasisPoints) {
+        return FeeTier.builder()
+                .currencyType(currency)
+                .transactionType(transactionType)
+                .lowerBound(BigDecimal.valueOf(lowerBound))
+                .rateBasisPoints(rateBasisPoints)
+                .flatFee(BigDecimal.ZERO)
+                .build();
+    }
+}
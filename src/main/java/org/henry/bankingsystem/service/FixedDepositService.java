@@ -0,0 +1,178 @@
+package org.henry.bankingsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.dto.FixedDepositDto;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.FixedDeposit;
+import org.henry.bankingsystem.enums.*;
+import org.henry.bankingsystem.exceptions.ResourceNotFoundException;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.repository.FixedDepositRepository;
+import org.henry.bankingsystem.service.LedgerService.Line;
+import org.henry.bankingsystem.service.LedgerService.Posting;
+import org.henry.bankingsystem.utils.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Terms of FIXED_DEPOSIT accounts. A term is opened on the account's whole balance at its current
+ * interest rate, and on maturity earns the interest InterestAccrualJob accrued on the account over
+ * the days of the term (see InterestPayoutService), posted as interest expense. It is then paid out
+ * to the payout account, or rolled over for another term of the same length on principal plus
+ * interest. FixedDepositMaturityScheduler calls {@link #mature} when a term is due; a due term waits
+ * until its last day has been accrued.
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class FixedDepositService {
+    private final FixedDepositRepository fixedDepositRepository;
+    private final AccountRepository accountRepository;
+    private final HotAccountService hotAccountService;
+    private final LedgerService ledgerService;
+    private final InterestPayoutService interestPayoutService;
+
+    @Value("${banking.fixed-deposit.max-term-days:3650}")
+    private int maxTermDays;
+
+    @Value("${banking.fixed-deposit.accrual-wait-minutes:15}")
+    private long accrualWaitMinutes;
+
+    /**
+     * Opens a new term on a FIXED_DEPOSIT account, replacing a matured one.
+     *
+     * @param payoutAccountNumber account of the same customer and currency paid on maturity; null leaves the money on the deposit
+     * @throws IllegalStateException if the account already has an active term or holds nothing
+     */
+    @Transactional
+    public FixedDeposit open(String accountNumber, int termDays, MaturityInstruction instruction, String payoutAccountNumber) {
+        if (termDays < 1 || termDays > maxTermDays) {
+            throw new IllegalArgumentException(String.format("A fixed deposit term must be between 1 and %d days", maxTermDays));
+        }
+        Long accountId = accountRepository.findIdByAccountNumber(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account Not Found"));
+        // The term row is locked before the account, in the same order as on maturity
+        Optional<FixedDeposit> existing = fixedDepositRepository.findByIdForUpdate(accountId);
+        if (existing.isPresent() && existing.get().getStatus() == FixedDepositStatus.ACTIVE) {
+            throw new IllegalStateException(String.format("Account %s already has an active fixed deposit", accountNumber));
+        }
+        Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account Not Found"));
+        if (account.getAccountType() != AccountType.FIXED_DEPOSIT) {
+            throw new IllegalArgumentException(String.format("Account %s is not a fixed deposit account", accountNumber));
+        }
+        Long payoutAccountId = null;
+        if (payoutAccountNumber != null) {
+            Account payout = accountRepository.findByAccountNumber(payoutAccountNumber)
+                    .orElseThrow(() -> new ResourceNotFoundException("Payout Account Not Found"));
+            if (payout.getAccountId().equals(accountId)
+                    || !payout.getCustomer().getCustomerId().equals(account.getCustomer().getCustomerId())
+                    || payout.getCurrencyType() != account.getCurrencyType()) {
+                throw new IllegalArgumentException("The payout account must be another account of the same customer and currency");
+            }
+            payoutAccountId = payout.getAccountId();
+        }
+        BigDecimal principal = hotAccountService.totalBalance(account);
+        if (principal.signum() <= 0) {
+            throw new IllegalStateException(String.format("Account %s has nothing to put on deposit", accountNumber));
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        FixedDeposit deposit = existing.orElseGet(() -> FixedDeposit.builder().accountId(accountId).build());
+        deposit.setPrincipal(principal);
+        deposit.setRateBasisPoints(Money.basisPointsOf(account.getInterestRate()));
+        deposit.setTermDays(termDays);
+        deposit.setStartsAt(now);
+        deposit.setMaturesAt(now.plusDays(termDays));
+        deposit.setInstruction(instruction);
+        deposit.setPayoutAccountId(payoutAccountId);
+        deposit.setStatus(FixedDepositStatus.ACTIVE);
+        fixedDepositRepository.save(deposit);
+        log.info("Fixed deposit of {} opened on account {} for {} days, maturing {}", principal, accountNumber, termDays, deposit.getMaturesAt());
+        return deposit;
+    }
+
+    /**
+     * Matures the term of the account if it is due: credits its interest, then pays it out or rolls
+     * it over, in one transaction with the term row locked, so a term is matured once however many
+     * nodes fire for it.
+     *
+     * @return when the term now matures if it is still active (rolled over, or not due yet), otherwise empty
+     */
+    @Transactional
+    public Optional<LocalDateTime> mature(Long accountId) {
+        FixedDeposit deposit = fixedDepositRepository.findByIdForUpdate(accountId).orElse(null);
+        if (deposit == null || deposit.getStatus() != FixedDepositStatus.ACTIVE) {
+            return Optional.empty();
+        }
+        if (deposit.getMaturesAt().isAfter(LocalDateTime.now())) {
+            return Optional.of(deposit.getMaturesAt());
+        }
+        LocalDate lastTermDay = deposit.getMaturesAt().toLocalDate().minusDays(1);
+        if (interestPayoutService.accruedThrough().filter(day -> !day.isBefore(lastTermDay)).isEmpty()) {
+            log.info("Fixed deposit on account {} is due but {} has not been accrued yet", accountId, lastTermDay);
+            return Optional.of(LocalDateTime.now().plusMinutes(accrualWaitMinutes));
+        }
+
+        Long payoutAccountId = deposit.getInstruction() == MaturityInstruction.PAYOUT ? deposit.getPayoutAccountId() : null;
+        TreeSet<Long> accountIds = new TreeSet<>(List.of(accountId));
+        if (payoutAccountId != null) {
+            accountIds.add(payoutAccountId);
+        }
+        Map<Long, Account> locked = accountRepository.findAllByIdInForUpdate(accountIds).stream()
+                .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+        Account account = locked.get(accountId);
+        if (account.isHot()) {
+            hotAccountService.sweep(account);
+        }
+
+        BigDecimal interest = interestPayoutService.accruedInterest(account, deposit.getStartsAt().toLocalDate(), lastTermDay);
+        List<Posting> postings = new ArrayList<>();
+        InterestPayoutService.interestPosting(account, interest, "Fixed deposit interest").ifPresent(postings::add);
+        BigDecimal maturityValue = account.getAccountBalance().add(interest);
+        Account payout = payoutAccountId == null ? null : locked.get(payoutAccountId);
+        if (payout != null && maturityValue.signum() > 0) {
+            postings.add(new Posting(TransactionType.TRANSFER, "Fixed deposit maturity payout", List.of(
+                    Line.debit(account, maturityValue, TransactionType.TRANSFER, payout.getAccountNumber()),
+                    Line.credit(payout, maturityValue, TransactionType.TRANSFER, account.getAccountNumber()))));
+        }
+        if (!postings.isEmpty()) {
+            ledgerService.postAll(postings);
+        }
+
+        if (deposit.getInstruction() == MaturityInstruction.ROLLOVER) {
+            deposit.setPrincipal(maturityValue);
+            deposit.setRateBasisPoints(Money.basisPointsOf(account.getInterestRate()));
+            deposit.setStartsAt(deposit.getMaturesAt());
+            deposit.setMaturesAt(deposit.getMaturesAt().plusDays(deposit.getTermDays()));
+            log.info("Fixed deposit on account {} rolled over with {} interest, now maturing {}",
+                    account.getAccountNumber(), interest, deposit.getMaturesAt());
+            return Optional.of(deposit.getMaturesAt());
+        }
+        deposit.setStatus(FixedDepositStatus.MATURED);
+        log.info("Fixed deposit on account {} matured with {} interest, {} paid out", account.getAccountNumber(), interest,
+                payout == null ? BigDecimal.ZERO : maturityValue);
+        return Optional.empty();
+    }
+
+    @Transactional(readOnly = true)
+    public FixedDepositDto toDto(FixedDeposit deposit, String accountNumber) {
+        String payoutAccountNumber = deposit.getPayoutAccountId() == null ? null
+                : accountRepository.findById(deposit.getPayoutAccountId()).map(Account::getAccountNumber).orElse(null);
+        return new FixedDepositDto(accountNumber, deposit.getPrincipal(), deposit.getRateBasisPoints(), deposit.getTermDays(),
+                deposit.getStartsAt(), deposit.getMaturesAt(), deposit.getInstruction(), payoutAccountNumber, deposit.getStatus());
+    }
+}
@@ -0,0 +1,115 @@
+package org.henry.bankingsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.AccountBalanceSlot;
+import org.henry.bankingsystem.exceptions.ResourceNotFoundException;
+import org.henry.bankingsystem.repository.AccountBalanceSlotRepository;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Opt-in "hot account" mode for collection accounts that receive a large share of all credits.
+ * The balance of a hot account is split between the account row and N balance slots: credits are
+ * added to a random slot without touching (or locking) the account row, debits lock the account row
+ * as usual and sweep the slots into it when the row alone cannot cover them, and the balance
+ * reported to the customer is the row plus every slot.
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class HotAccountService {
+    private final AccountRepository accountRepository;
+    private final AccountBalanceSlotRepository accountBalanceSlotRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${banking.hot-accounts.max-slots:64}")
+    private int maxSlots;
+
+    private static final String ADD_TO_SLOT = """
+            update account_balance_slots set balance = balance + ? where account_id = ? and slot_no = ?""";
+    private static final String LOCK_SLOTS = """
+            select balance from account_balance_slots where account_id = ? for update""";
+    private static final String EMPTY_SLOTS = """
+            update account_balance_slots set balance = 0 where account_id = ?""";
+
+    /** Balance as the customer sees it: the account row plus, for a hot account, every slot. */
+    public BigDecimal totalBalance(Account account) {
+        if (!account.isHot()) {
+            return account.getAccountBalance();
+        }
+        return account.getAccountBalance().add(accountBalanceSlotRepository.sumBalanceByAccountId(account.getAccountId()));
+    }
+
+    /**
+     * Adds a credit to a random slot of a hot account; only that slot row is locked.
+     *
+     * @throws OptimisticLockingFailureException if hot mode was switched off or resized meanwhile, so the caller retries
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void creditSlot(Account account, BigDecimal amount) {
+        int slot = ThreadLocalRandom.current().nextInt(account.getBalanceSlots());
+        if (jdbcTemplate.update(ADD_TO_SLOT, amount, account.getAccountId(), slot) == 0) {
+            throw new OptimisticLockingFailureException(
+                    String.format("Balance slots of account %s changed while crediting", account.getAccountNumber()));
+        }
+    }
+
+    /**
+     * Moves every slot of a hot account into its account row. The caller must hold the account row lock.
+     *
+     * @return the amount moved
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal sweep(Account account) {
+        BigDecimal swept = jdbcTemplate.queryForList(LOCK_SLOTS, BigDecimal.class, account.getAccountId())
+                .stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (swept.signum() != 0) {
+            jdbcTemplate.update(EMPTY_SLOTS, account.getAccountId());
+            account.setAccountBalance(account.getAccountBalance().add(swept));
+            log.info("Swept {} from balance slots of account {}", swept, account.getAccountNumber());
+        }
+        return swept;
+    }
+
+    /**
+     * Switches hot mode on with the given number of slots, resizes it, or switches it off with 0.
+     * Whatever sits in the old slots is moved into the account row first.
+     */
+    @Transactional
+    public Account configure(String accountNumber, int slots) {
+        if (slots < 0 || slots > maxSlots) {
+            throw new IllegalArgumentException(String.format("Balance slots must be between 0 and %d", maxSlots));
+        }
+        Long accountId = accountRepository.findIdByAccountNumber(accountNumber)
+                .orElseThrow(() -> new ResourceNotFoundException("Account Not Found"));
+        Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account Not Found"));
+
+        if (account.isHot()) {
+            sweep(account);
+            accountBalanceSlotRepository.deleteAllByAccountId(accountId);
+        }
+        List<AccountBalanceSlot> newSlots = new ArrayList<>(slots);
+        for (int slot = 0; slot < slots; slot++) {
+            newSlots.add(AccountBalanceSlot.builder().account(account).slotNo(slot).balance(BigDecimal.ZERO).build());
+        }
+        accountBalanceSlotRepository.saveAll(newSlots);
+        account.setBalanceSlots(slots);
+        // Lets other nodes' balance read models see the switch (see BalanceReadModel)
+        account.setLastTransactionDate(LocalDateTime.now());
+        log.info("Account {} now has {} balance slots", accountNumber, slots);
+        return account;
+    }
+}
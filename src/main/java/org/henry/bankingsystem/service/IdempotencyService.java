@@ -0,0 +1,269 @@
+package org.henry.bankingsystem.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.dto.DefaultApiResponse;
+import org.henry.bankingsystem.entity.IdempotencyRecord;
+import org.henry.bankingsystem.enums.IdempotencyStatus;
+import org.henry.bankingsystem.repository.IdempotencyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static org.henry.bankingsystem.constants.StatusCodeConstants.GENERIC_ERROR;
+import static org.henry.bankingsystem.constants.StatusCodeConstants.TRANSACTION_DUPLICATE_REQUEST;
+
+/**
+ * Deduplicates retried money-moving requests carrying an {@code Idempotency-Key} header.
+ * The key is reserved in the idempotency_keys table before the request runs, so two copies of
+ * the same request can never both post; the finished response is stored with it and replayed
+ * for any retry until the key expires. Recent responses are also held in memory so a replay
+ * on the node that served the original does not touch the database.
+ * <p>
+ * A reserved key carries a short lease. The request holding it marks the key COMPLETED in the same
+ * transaction as its ledger posting (see {@link LedgerService#postAll}), so a key still IN_PROGRESS
+ * has not been posted. Once its lease has run out, say because the node serving it died, a retry
+ * takes the key over and runs the request; the posting of the former holder, if it ever gets there,
+ * is then rolled back.
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class IdempotencyService {
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, CachedResponse> recentResponses = new ConcurrentHashMap<>();
+
+    @Value("${banking.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${banking.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${banking.idempotency.lease-seconds:60}")
+    private long leaseSeconds;
+
+    private record CachedResponse(String requestHash, DefaultApiResponse<?> response, Instant expiresAt) {}
+
+    /* The hold of one request on its Idempotency-Key */
+    public record Lease(String keyHash, String token) {}
+
+    private static final ThreadLocal<Lease> CURRENT_LEASE = new ThreadLocal<>();
+
+    /**
+     * Lease of the idempotent request running on this thread, null outside of one. Work handed to
+     * another thread must capture it first.
+     */
+    public static Lease currentLease() {
+        return CURRENT_LEASE.get();
+    }
+
+    /**
+     * Marks the key posted, inside the transaction of the posting.
+     *
+     * @throws IllegalStateException if a retry has taken the key over, so the posting must roll back
+     */
+    public void complete(Lease lease) {
+        if (idempotencyRepository.complete(lease.keyHash(), lease.token()) == 0) {
+            throw new IllegalStateException("Idempotency-Key was taken over by a retry, not posting");
+        }
+    }
+
+    /**
+     * Runs the action once per customer, endpoint and key, replaying the stored response afterwards.
+     * Without a key the action simply runs.
+     *
+     * @param idempotencyKey value of the Idempotency-Key header, may be null
+     * @param endpoint       name of the endpoint the key is scoped to
+     * @param requestBody    payload of the request, a retry must send the same one
+     * @param dataType       type of the response data, used to read a stored response back
+     */
+    public <T> DefaultApiResponse<T> execute(String idempotencyKey, String endpoint, Object requestBody,
+                                             Class<T> dataType, Supplier<DefaultApiResponse<T>> action) {
+        return executeAsync(idempotencyKey, endpoint, requestBody, dataType,
+                () -> CompletableFuture.completedFuture(action.get())).join();
+    }
+
+    /**
+     * Same as {@link #execute} for an action whose response completes later; the key is reserved on the
+     * calling thread and the response is stored once the action's future completes.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<DefaultApiResponse<T>> executeAsync(String idempotencyKey, String endpoint, Object requestBody,
+                                                                     Class<T> dataType, Supplier<CompletableFuture<DefaultApiResponse<T>>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+
+        String keyHash = sha256(currentPrincipal() + "|" + endpoint + "|" + idempotencyKey);
+        String requestHash = sha256(toJson(requestBody));
+        Instant now = Instant.now();
+
+        CachedResponse cached = recentResponses.get(keyHash);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return CompletableFuture.completedFuture(cached.requestHash().equals(requestHash)
+                    ? (DefaultApiResponse<T>) cached.response()
+                    : duplicateResponse("Idempotency-Key has already been used with a different request"));
+        }
+
+        Lease lease = new Lease(keyHash, UUID.randomUUID().toString());
+        Instant leaseExpiresAt = now.plus(Duration.ofSeconds(leaseSeconds));
+        Instant expiresAt;
+        Optional<IdempotencyRecord> stored = idempotencyRepository.findById(keyHash);
+        if (stored.isPresent() && stored.get().getExpiresAt().isAfter(now)) {
+            IdempotencyRecord record = stored.get();
+            if (!isAbandoned(record, requestHash, now)) {
+                return CompletableFuture.completedFuture(replay(record, requestHash, dataType));
+            }
+            if (idempotencyRepository.takeOver(keyHash, record.getLeaseToken(), lease.token(), leaseExpiresAt) == 0) {
+                return CompletableFuture.completedFuture(idempotencyRepository.findById(keyHash)
+                        .map(current -> replay(current, requestHash, dataType))
+                        .orElseGet(() -> duplicateResponse("Request with this Idempotency-Key is still being processed")));
+            }
+            log.info("Idempotency-Key on {} was abandoned unposted, running the retry", endpoint);
+            expiresAt = record.getExpiresAt();
+        } else {
+            stored.ifPresent(idempotencyRepository::delete);
+            expiresAt = now.plus(Duration.ofHours(ttlHours));
+            try {
+                idempotencyRepository.saveAndFlush(IdempotencyRecord.builder()
+                        .keyHash(keyHash)
+                        .endpoint(endpoint)
+                        .requestHash(requestHash)
+                        .status(IdempotencyStatus.IN_PROGRESS)
+                        .createdAt(now)
+                        .expiresAt(expiresAt)
+                        .leaseToken(lease.token())
+                        .leaseExpiresAt(leaseExpiresAt)
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                log.info("Idempotency-Key on {} was reserved concurrently by another request", endpoint);
+                return CompletableFuture.completedFuture(idempotencyRepository.findById(keyHash)
+                        .map(winner -> replay(winner, requestHash, dataType))
+                        .orElseGet(() -> duplicateResponse("Request with this Idempotency-Key is still being processed")));
+            }
+        }
+
+        CompletableFuture<DefaultApiResponse<T>> response;
+        CURRENT_LEASE.set(lease);
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyRepository.release(keyHash, lease.token());
+            throw e;
+        } finally {
+            CURRENT_LEASE.remove();
+        }
+
+        return response.whenComplete((result, error) -> {
+            // Unexpected failures are not remembered so that the client can retry them; a key already posted is kept
+            if (error != null || result.getStatusCode() == GENERIC_ERROR) {
+                idempotencyRepository.release(keyHash, lease.token());
+                return;
+            }
+            if (idempotencyRepository.storeResponse(keyHash, lease.token(), toJson(result)) > 0) {
+                remember(keyHash, new CachedResponse(requestHash, result, expiresAt));
+            }
+        });
+    }
+
+    /* Drops expired keys from the table and from memory */
+    @Scheduled(fixedDelayString = "${banking.idempotency.cleanup-millis:600000}")
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        recentResponses.values().removeIf(cached -> !cached.expiresAt().isAfter(now));
+        int removed = idempotencyRepository.deleteExpired(now);
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private <T> DefaultApiResponse<T> replay(IdempotencyRecord record, String requestHash, Class<T> dataType) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return duplicateResponse("Idempotency-Key has already been used with a different request");
+        }
+        if (record.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+            return duplicateResponse("Request with this Idempotency-Key is still being processed");
+        }
+        if (record.getResponseBody() == null) {
+            // Posted, but the request failed before its response could be stored
+            return duplicateResponse("Request with this Idempotency-Key has already been processed");
+        }
+        JavaType responseType = objectMapper.getTypeFactory().constructParametricType(DefaultApiResponse.class, dataType);
+        try {
+            DefaultApiResponse<T> response = objectMapper.readValue(record.getResponseBody(), responseType);
+            remember(record.getKeyHash(), new CachedResponse(requestHash, response, record.getExpiresAt()));
+            log.info("Replaying stored response for Idempotency-Key on {}", record.getEndpoint());
+            return response;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored idempotent response could not be read", e);
+        }
+    }
+
+    /* An IN_PROGRESS key for the same request whose holder let the lease run out without posting */
+    private static boolean isAbandoned(IdempotencyRecord record, String requestHash, Instant now) {
+        return record.getStatus() == IdempotencyStatus.IN_PROGRESS && record.getRequestHash().equals(requestHash)
+                && record.getLeaseExpiresAt() != null && record.getLeaseExpiresAt().isBefore(now);
+    }
+
+    private void remember(String keyHash, CachedResponse cached) {
+        if (recentResponses.size() >= cacheSize) {
+            Instant now = Instant.now();
+            recentResponses.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+            if (recentResponses.size() >= cacheSize) {
+                return;
+            }
+        }
+        recentResponses.put(keyHash, cached);
+    }
+
+    private static <T> DefaultApiResponse<T> duplicateResponse(String message) {
+        DefaultApiResponse<T> response = new DefaultApiResponse<>();
+        response.setStatusCode(TRANSACTION_DUPLICATE_REQUEST);
+        response.setStatusMessage(message);
+        return response;
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? "anonymous" : authentication.getName();
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize value for idempotency store", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.henry.bankingsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.enums.LedgerCode;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.henry.bankingsystem.jobs.InterestAccrualJob;
+import org.henry.bankingsystem.repository.InterestAccrualRepository;
+import org.henry.bankingsystem.repository.JobCheckpointRepository;
+import org.henry.bankingsystem.service.LedgerService.Line;
+import org.henry.bankingsystem.service.LedgerService.Posting;
+import org.henry.bankingsystem.utils.Money;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Pays out the interest InterestAccrualJob has accrued in interest_accruals, so what a customer is
+ * credited is exactly the sum of the daily rows, truncated to a minor unit once per payout. Used by
+ * InterestCapitalisationJob for SAVINGS accounts and by FixedDepositService on maturity.
+ */
+@Service
+@RequiredArgsConstructor
+public class InterestPayoutService {
+    private final InterestAccrualRepository interestAccrualRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    /* The last day every account has been accrued for, if any */
+    public Optional<LocalDate> accruedThrough() {
+        return jobCheckpointRepository.findById(InterestAccrualJob.JOB_NAME)
+                .map(checkpoint -> checkpoint.isCompleted() ? checkpoint.getBusinessDate() : checkpoint.getBusinessDate().minusDays(1));
+    }
+
+    /* Interest the account accrued over [from, to], truncated to a minor unit */
+    public BigDecimal accruedInterest(Account account, LocalDate from, LocalDate to) {
+        return interestOf(interestAccrualRepository.sumAccruedMicros(account.getAccountId(), from, to), account);
+    }
+
+    public static BigDecimal interestOf(long accruedMicros, Account account) {
+        return Money.ofMinor(accruedMicros / Money.MICROS_PER_MINOR, account.getCurrencyType()).toBigDecimal();
+    }
+
+    /* Credits interest to a locked account as interest expense; empty if there is nothing to pay */
+    public static Optional<Posting> interestPosting(Account account, BigDecimal interest, String description) {
+        if (interest.signum() <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new Posting(TransactionType.DEPOSIT, description, List.of(
+                Line.debit(LedgerCode.INTEREST_EXPENSE, interest),
+                Line.credit(account, interest, TransactionType.DEPOSIT, null))));
+    }
+}
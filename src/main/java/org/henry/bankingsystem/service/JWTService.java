@@ -13,6 +13,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.UUID;
 import java.util.function.Function;
 
 // To generate authToken, refreshToken
@@ -42,6 +43,7 @@ public class JWTService {
         return Jwts.builder()
                 .claims(claims)
                 .subject(customer.getUsername())
+                .id(UUID.randomUUID().toString()) // Tokens issued within the same second must still differ
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SECRET_KEY)
@@ -52,6 +54,7 @@ public class JWTService {
         return Jwts.builder()
                 .claims(claims)
                 .subject(customer.getUsername())
+                .id(UUID.randomUUID().toString())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .signWith(SECRET_KEY)
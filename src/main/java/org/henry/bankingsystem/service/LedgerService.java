@@ -0,0 +1,218 @@
+package org.henry.bankingsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.enums.LedgerCode;
+import org.henry.bankingsystem.enums.TransactionCategory;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.henry.bankingsystem.utils.TransactionRefGenerator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Append-only double-entry journal.
+ * Every money movement is posted as one JournalEntry with balanced JournalLines; headers, lines and
+ * the customer statement rows are each written as one JDBC batch, however many entries are posted.
+ * Account.accountBalance (plus the balance slots of a hot account) is a cached projection of the
+ * journal and is only moved from here, together with the daily usage counters of the accounts money
+ * is sent out from. Every posting publishes the customer accounts it moved (see BalanceReadModel).
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class LedgerService {
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionRefGenerator transactionRefGenerator;
+    private final DailyUsageService dailyUsageService;
+    private final HotAccountService hotAccountService;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final IdempotencyService idempotencyService;
+
+    private static final String INSERT_ENTRY = """
+            insert into journal_entries (entry_ref, transaction_type, description, posted_at)
+            values (?, ?, ?, ?)""";
+    private static final String INSERT_LINE = """
+            insert into journal_lines (entry_ref, ledger_code, account_id, direction, amount, balance_after)
+            values (?, ?, ?, ?, ?, ?)""";
+    private static final String INSERT_STATEMENT_LINE = """
+            insert into transactions (transaction_ref, user_id, account_id, transaction_type, transaction_category,
+                amount, transaction_time, balance_before_transaction, balance_after_transaction,
+                target_account_number, entry_ref)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+
+    /**
+     * One leg of a posting.
+     * Customer legs reference a locked, managed Account and also produce a statement row of the given type.
+     */
+    public record Line(LedgerCode ledgerCode, Account account, TransactionCategory direction, BigDecimal amount,
+                       TransactionType statementType, String counterpartyAccountNumber) {
+
+        public static Line debit(Account account, BigDecimal amount, TransactionType statementType, String counterparty) {
+            return new Line(LedgerCode.CUSTOMER_ACCOUNT, account, TransactionCategory.DEBIT, amount, statementType, counterparty);
+        }
+
+        public static Line credit(Account account, BigDecimal amount, TransactionType statementType, String counterparty) {
+            return new Line(LedgerCode.CUSTOMER_ACCOUNT, account, TransactionCategory.CREDIT, amount, statementType, counterparty);
+        }
+
+        public static Line debit(LedgerCode ledgerCode, BigDecimal amount) {
+            return new Line(ledgerCode, null, TransactionCategory.DEBIT, amount, null, null);
+        }
+
+        public static Line credit(LedgerCode ledgerCode, BigDecimal amount) {
+            return new Line(ledgerCode, null, TransactionCategory.CREDIT, amount, null, null);
+        }
+    }
+
+    /**
+     * A balanced entry waiting to be posted. lease is the Idempotency-Key of the request it is posted for,
+     * marked COMPLETED in the posting's transaction; by default that of the request running on this thread.
+     */
+    public record Posting(TransactionType transactionType, String description, List<Line> lines,
+                          IdempotencyService.Lease lease) {
+
+        public Posting(TransactionType transactionType, String description, List<Line> lines) {
+            this(transactionType, description, lines, IdempotencyService.currentLease());
+        }
+    }
+
+    /* Published by every postAll with the customer accounts it moved; their state is final once the transaction commits */
+    public record Posted(Collection<Account> accounts) {}
+
+    /**
+     * Posts a balanced entry inside the caller's transaction and moves the cached balances of the
+     * customer accounts involved. Zero-amount lines are dropped.
+     *
+     * @return the reference of the journal entry
+     * @throws IllegalStateException if debits and credits do not balance
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String post(TransactionType transactionType, String description, List<Line> lines) {
+        return postAll(List.of(new Posting(transactionType, description, lines))).getFirst();
+    }
+
+    /**
+     * Posts many entries with one batch per table, in the given order, so running balances of an
+     * account that appears in several entries chain correctly.
+     *
+     * @return the journal entry references, in the order of the postings
+     * @throws IllegalStateException if any posting does not balance, or the Idempotency-Key of any was taken
+     * over by a retry; the caller's transaction must then roll back
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<String> postAll(List<Posting> postings) {
+        List<List<Line>> postable = new ArrayList<>(postings.size());
+        for (Posting posting : postings) {
+            List<Line> lines = posting.lines().stream().filter(line -> line.amount().signum() != 0).toList();
+            verifyBalanced(lines);
+            postable.add(lines);
+        }
+        postings.stream().map(Posting::lease).filter(Objects::nonNull).distinct().forEach(idempotencyService::complete);
+
+        LocalDateTime postedAt = LocalDateTime.now();
+
+        List<String> entryRefs = new ArrayList<>(postings.size());
+        List<Object[]> entryRows = new ArrayList<>(postings.size());
+        List<Object[]> journalRows = new ArrayList<>();
+        List<Object[]> statementRows = new ArrayList<>();
+        Map<Account, DailyUsageService.Debits> outgoing = new IdentityHashMap<>();
+        Set<Account> moved = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < postings.size(); i++) {
+            Posting posting = postings.get(i);
+            String entryRef = UUID.randomUUID().toString();
+            entryRefs.add(entryRef);
+            entryRows.add(new Object[]{entryRef, posting.transactionType().name(), posting.description(), postedAt});
+
+            for (Line line : postable.get(i)) {
+                Account account = line.account();
+                if (account == null) {
+                    journalRows.add(new Object[]{entryRef, line.ledgerCode().name(), null,
+                            line.direction().name(), line.amount(), null});
+                    continue;
+                }
+
+                // Customer accounts are liabilities: a debit reduces what the bank owes the customer
+                BigDecimal balanceBefore;
+                BigDecimal balanceAfter;
+                if (account.isHot()) {
+                    // Credits go to a balance slot and leave the (unlocked) account row alone; the balances
+                    // recorded are the account total as seen by this transaction
+                    if (line.direction() == TransactionCategory.DEBIT) {
+                        account.setAccountBalance(account.getAccountBalance().subtract(line.amount()));
+                        account.setLastTransactionDate(postedAt);
+                    } else {
+                        hotAccountService.creditSlot(account, line.amount());
+                    }
+                    balanceAfter = hotAccountService.totalBalance(account);
+                    balanceBefore = line.direction() == TransactionCategory.DEBIT
+                            ? balanceAfter.add(line.amount())
+                            : balanceAfter.subtract(line.amount());
+                } else {
+                    balanceBefore = account.getAccountBalance();
+                    balanceAfter = line.direction() == TransactionCategory.DEBIT
+                            ? balanceBefore.subtract(line.amount())
+                            : balanceBefore.add(line.amount());
+                    account.setAccountBalance(balanceAfter);
+                    account.setLastTransactionDate(postedAt);
+                }
+                moved.add(account);
+                if (line.direction() == TransactionCategory.DEBIT && countsTowardsLimit(line.statementType())) {
+                    outgoing.merge(account, DailyUsageService.Debits.NONE.plus(line.amount()),
+                            (sum, debit) -> sum.plus(line.amount()));
+                }
+
+                journalRows.add(new Object[]{entryRef, line.ledgerCode().name(), account.getAccountId(),
+                        line.direction().name(), line.amount(), balanceAfter});
+                statementRows.add(new Object[]{transactionRefGenerator.nextRef(), account.getCustomer().getCustomerId(),
+                        account.getAccountId(), line.statementType().name(), line.direction().name(), line.amount(),
+                        postedAt, balanceBefore, balanceAfter,
+                        line.counterpartyAccountNumber() == null ? account.getAccountNumber() : line.counterpartyAccountNumber(),
+                        entryRef});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, entryRows);
+        jdbcTemplate.batchUpdate(INSERT_LINE, journalRows);
+        if (!statementRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_STATEMENT_LINE, statementRows);
+        }
+        if (!outgoing.isEmpty()) {
+            dailyUsageService.recordDebits(outgoing);
+        }
+        if (!moved.isEmpty()) {
+            applicationEventPublisher.publishEvent(new Posted(List.copyOf(moved)));
+        }
+        log.info("Posted {} journal entries with {} lines", entryRows.size(), journalRows.size());
+        return entryRefs;
+    }
+
+    /* Money sent out counts towards the daily limit, charges do not */
+    private static boolean countsTowardsLimit(TransactionType statementType) {
+        return statementType == TransactionType.WITHDRAWAL || statementType == TransactionType.TRANSFER;
+    }
+
+    private static void verifyBalanced(List<Line> lines) {
+        BigDecimal debits = BigDecimal.ZERO;
+        BigDecimal credits = BigDecimal.ZERO;
+        for (Line line : lines) {
+            if (line.amount().signum() < 0) {
+                throw new IllegalStateException("Journal lines cannot carry negative amounts");
+            }
+            if (line.direction() == TransactionCategory.DEBIT) {
+                debits = debits.add(line.amount());
+            } else {
+                credits = credits.add(line.amount());
+            }
+        }
+        if (lines.isEmpty() || debits.compareTo(credits) != 0) {
+            throw new IllegalStateException(String.format("Unbalanced journal entry: debits %s, credits %s", debits, credits));
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package org.henry.bankingsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.dto.StatementExportStatsDto;
+import org.henry.bankingsystem.dto.StatementLineDto;
+import org.henry.bankingsystem.enums.StatementFormat;
+import org.henry.bankingsystem.enums.TransactionCategory;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.henry.bankingsystem.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams a statement as CSV or newline-delimited JSON, oldest line first, optionally gzip-compressed
+ * on the fly. Lines are read in keyset chunks of banking.statement.export.chunk-rows: each chunk is one
+ * short query whose connection goes back to the pool before the chunk is encoded and written, so a slow
+ * client never pins a connection, and memory stays at one chunk however long the statement is.
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class StatementExporter {
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final String CSV_HEADER =
+            "transactionRef,transactionDate,transactionType,transactionCategory,amount,balanceAfterTransaction,targetAccountNumber\n";
+
+    private final TransactionRepository transactionRepository;
+    private final ObjectMapper objectMapper;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicInteger inProgress = new AtomicInteger();
+    private final LongAdder lines = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+
+    @Value("${banking.statement.export.chunk-rows:1000}")
+    private int chunkRows;
+
+    /**
+     * The export of an account's statement lines in [from, to); a null type or category matches every line.
+     * Nothing is read until the body is written.
+     */
+    public StreamingResponseBody export(long accountId, LocalDateTime from, LocalDateTime to, TransactionType type,
+                                        TransactionCategory category, StatementFormat format, boolean gzip) {
+        return output -> {
+            long started = System.nanoTime();
+            inProgress.incrementAndGet();
+            CountingOutputStream counting = new CountingOutputStream(output);
+            long written = 0;
+            try {
+                OutputStream sink = gzip ? new GZIPOutputStream(counting, BUFFER_BYTES) : counting;
+                Writer writer = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8), BUFFER_BYTES);
+                written = writeLines(accountId, from, to, type, category, format, writer);
+                writer.flush();
+                if (sink instanceof GZIPOutputStream compressed) {
+                    compressed.finish();
+                }
+                completed.increment();
+            } catch (IOException | RuntimeException e) {
+                failed.increment();
+                log.warn("Statement export for account {} stopped after {} lines: {}", accountId, written, e.getMessage());
+                throw e;
+            } finally {
+                long elapsed = System.nanoTime() - started;
+                inProgress.decrementAndGet();
+                lines.add(written);
+                bytes.add(counting.count);
+                nanos.add(elapsed);
+                log.info("Exported {} statement lines ({} bytes, {}) of account {} in {} ms ({} lines/s)", written,
+                        counting.count, gzip ? "gzip" : "identity", accountId, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                        perSecond(written, elapsed));
+            }
+        };
+    }
+
+    /* Totals over every export since startup */
+    public StatementExportStatsDto stats() {
+        long totalNanos = nanos.sum();
+        long totalLines = lines.sum();
+        return new StatementExportStatsDto(completed.sum(), failed.sum(), inProgress.get(), totalLines, bytes.sum(),
+                TimeUnit.NANOSECONDS.toMillis(totalNanos), perSecond(totalLines, totalNanos));
+    }
+
+    private long writeLines(long accountId, LocalDateTime from, LocalDateTime to, TransactionType type,
+                            TransactionCategory category, StatementFormat format, Writer writer) throws IOException {
+        if (format == StatementFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        long written = 0;
+        LocalDateTime afterTime = from;
+        long afterId = 0;
+        while (true) {
+            List<StatementLineDto> chunk = transactionRepository.findExportChunk(accountId, afterTime, afterId, to,
+                    type, category, Limit.of(chunkRows));
+            for (StatementLineDto line : chunk) {
+                if (format == StatementFormat.CSV) {
+                    writeCsv(line, writer);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(line));
+                    writer.write('\n');
+                }
+            }
+            written += chunk.size();
+            // Hand the client what this chunk produced before going back to the database
+            writer.flush();
+            if (chunk.size() < chunkRows) {
+                return written;
+            }
+            StatementLineDto last = chunk.getLast();
+            afterTime = last.transactionDate();
+            afterId = last.transactionId();
+        }
+    }
+
+    private static void writeCsv(StatementLineDto line, Writer writer) throws IOException {
+        writer.write(csv(line.transactionRef()));
+        writer.write(',');
+        writer.write(line.transactionDate().toString());
+        writer.write(',');
+        writer.write(line.transactionType().name());
+        writer.write(',');
+        writer.write(line.transactionCategory().name());
+        writer.write(',');
+        writer.write(line.amount().toPlainString());
+        writer.write(',');
+        writer.write(line.balanceAfterTransaction().toPlainString());
+        writer.write(',');
+        writer.write(csv(line.targetAccountNumber()));
+        writer.write('\n');
+    }
+
+    /* Quotes a free-text field if it contains a separator, quote or line break (RFC 4180) */
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static long perSecond(long count, long elapsedNanos) {
+        return elapsedNanos == 0 ? 0 : count * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /* Counts the bytes that actually go to the client, after compression */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package org.henry.bankingsystem.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.enums.LedgerCode;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.henry.bankingsystem.exceptions.InsufficientFundsException;
+import org.henry.bankingsystem.exceptions.ResourceNotFoundException;
+import org.henry.bankingsystem.exceptions.TransactionLimitExceededException;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.service.LedgerService.Line;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Moves money between accounts inside a single database transaction and posts it to the journal.
+ * Every account row touched is locked with SELECT ... FOR UPDATE, transfers taking both rows in
+ * ascending accountId order so that two opposite transfers can never wait on each other, and the
+ * whole unit of work is retried with backoff when the database gives up waiting for a lock.
+ * Hot accounts (see HotAccountService) are the exception: their row is not locked to credit them.
+ */
+@Service @Slf4j
+@RequiredArgsConstructor
+public class TransferEngine {
+    private final AccountRepository accountRepository;
+    private final LedgerService ledgerService;
+    private final DailyUsageService dailyUsageService;
+    private final HotAccountService hotAccountService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${banking.transfer.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${banking.transfer.backoff-millis:25}")
+    private long backoffMillis;
+
+    @Value("${banking.transfer.batch-chunk-size:500}")
+    private int batchChunkSize;
+
+    /**
+     * Debits the sender with the amount plus charges and credits the receiver with the amount.
+     *
+     * @return the sender account as committed
+     * @throws InsufficientFundsException if the locked sender balance cannot cover amount and charges
+     */
+    public Account transfer(Long senderAccountId, Long receiverAccountId, BigDecimal amount, BigDecimal charges,
+                            String description) {
+        return transfer(senderAccountId, receiverAccountId, amount, charges, description, () -> {});
+    }
+
+    /**
+     * Same as {@link #transfer(Long, Long, BigDecimal, BigDecimal, String)}, also running inTransaction
+     * after the posting, in the same transaction; the transfer is rolled back if it throws.
+     */
+    public Account transfer(Long senderAccountId, Long receiverAccountId, BigDecimal amount, BigDecimal charges,
+                            String description, Runnable inTransaction) {
+        return executeWithRetry("transfer", () -> {
+            Account sender;
+            Account receiver;
+            if (isHot(receiverAccountId)) {
+                // Credits to a hot account go to a balance slot, so its row is never locked
+                sender = lock(senderAccountId);
+                receiver = find(receiverAccountId);
+            } else {
+                Account[] locked = lockInOrder(senderAccountId, receiverAccountId);
+                sender = locked[0].getAccountId().equals(senderAccountId) ? locked[0] : locked[1];
+                receiver = sender == locked[0] ? locked[1] : locked[0];
+            }
+
+            if (!canCover(sender, amount.add(charges))) {
+                log.info("Insufficient funds on account {} after acquiring lock", sender.getAccountNumber());
+                throw new InsufficientFundsException("Insufficient Funds to make transfer");
+            }
+
+            ledgerService.post(TransactionType.TRANSFER, description, List.of(
+                    Line.debit(sender, amount, TransactionType.TRANSFER, receiver.getAccountNumber()),
+                    Line.debit(sender, charges, TransactionType.CHARGE, null),
+                    Line.credit(receiver, amount, TransactionType.TRANSFER, sender.getAccountNumber()),
+                    Line.credit(LedgerCode.FEE_INCOME, charges)
+            ));
+            inTransaction.run();
+            log.info("Transfer of {} from account {} to account {} committed",
+                    amount, sender.getAccountNumber(), receiver.getAccountNumber());
+            return sender;
+        });
+    }
+
+    /* One payout of a batch; index is the position of the item in the caller's request */
+    public record BatchLeg(int index, Long receiverAccountId, BigDecimal amount, BigDecimal charges, String description) {}
+
+    /* Sender as committed after the last chunk, plus the legs refused because funds ran out */
+    public record BatchOutcome(Account sender, Set<Integer> insufficientFunds) {}
+
+    /**
+     * Applies many transfers from one sender. Legs are processed in chunks; each chunk is one
+     * transaction that locks the sender and all of its receivers with a single ordered
+     * SELECT ... FOR UPDATE and posts every leg with one batch per ledger table.
+     * A leg the sender can no longer afford is skipped and reported, the rest still go through.
+     */
+    public BatchOutcome transferBatch(Long senderAccountId, List<BatchLeg> legs) {
+        Set<Integer> insufficientFunds = new HashSet<>();
+        Account sender = null;
+        for (int from = 0; from < legs.size(); from += batchChunkSize) {
+            List<BatchLeg> chunk = legs.subList(from, Math.min(legs.size(), from + batchChunkSize));
+            Set<Integer> rejected = new HashSet<>();
+            sender = executeWithRetry("batch transfer", () -> {
+                rejected.clear();
+                Set<Long> accountIds = new TreeSet<>();
+                chunk.forEach(leg -> accountIds.add(leg.receiverAccountId()));
+                Set<Long> hotReceivers = new HashSet<>(accountRepository.findHotAccountIdsIn(accountIds));
+                hotReceivers.remove(senderAccountId);
+                accountIds.removeAll(hotReceivers);
+                accountIds.add(senderAccountId);
+
+                Map<Long, Account> locked = new HashMap<>();
+                accountRepository.findAllByIdInForUpdate(accountIds).forEach(account -> locked.put(account.getAccountId(), account));
+                accountRepository.findAllById(hotReceivers).forEach(account -> locked.put(account.getAccountId(), account));
+                Account lockedSender = locked.get(senderAccountId);
+                if (lockedSender == null) {
+                    throw new ResourceNotFoundException(String.format("Account with id %s does not exist", senderAccountId));
+                }
+                if (lockedSender.isHot()) {
+                    hotAccountService.sweep(lockedSender);
+                }
+
+                List<LedgerService.Posting> postings = new ArrayList<>(chunk.size());
+                BigDecimal available = lockedSender.getAccountBalance();
+                for (BatchLeg leg : chunk) {
+                    Account receiver = locked.get(leg.receiverAccountId());
+                    BigDecimal totalDebit = leg.amount().add(leg.charges());
+                    if (receiver == null || available.compareTo(totalDebit) < 0) {
+                        rejected.add(leg.index());
+                        continue;
+                    }
+                    available = available.subtract(totalDebit);
+                    postings.add(new LedgerService.Posting(TransactionType.TRANSFER, leg.description(), List.of(
+                            Line.debit(lockedSender, leg.amount(), TransactionType.TRANSFER, receiver.getAccountNumber()),
+                            Line.debit(lockedSender, leg.charges(), TransactionType.CHARGE, null),
+                            Line.credit(receiver, leg.amount(), TransactionType.TRANSFER, lockedSender.getAccountNumber()),
+                            Line.credit(LedgerCode.FEE_INCOME, leg.charges())
+                    )));
+                }
+                if (!postings.isEmpty()) {
+                    ledgerService.postAll(postings);
+                }
+                return lockedSender;
+            });
+            insufficientFunds.addAll(rejected);
+            log.info("Batch chunk of {} transfers from account {} committed ({} refused)",
+                    chunk.size(), sender.getAccountNumber(), rejected.size());
+        }
+        return new BatchOutcome(sender, insufficientFunds);
+    }
+
+    /* One transfer of a group committed together (see TransferPipeline); lease is that of the request it came from */
+    public record GroupTransfer(Long senderAccountId, Long receiverAccountId, BigDecimal amount, BigDecimal charges,
+                                String description, IdempotencyService.Lease lease) {}
+
+    /* What became of one transfer of a group: the sender balance right after it, or why it was refused */
+    public record GroupTransferOutcome(BigDecimal senderBalance, RuntimeException refusal) {
+
+        static GroupTransferOutcome refused(RuntimeException refusal) {
+            return new GroupTransferOutcome(null, refusal);
+        }
+    }
+
+    /**
+     * Applies transfers from any number of senders in one transaction. Every account involved is locked
+     * with a single ordered SELECT ... FOR UPDATE (hot receivers excepted), balances are tracked in
+     * memory across the group, so a credit earlier in the group can fund a debit later in it, and all
+     * postings are written with one batch per ledger table.
+     *
+     * @return for each transfer, in order, the sender balance right after it, or its refusal: a
+     * ResourceNotFoundException if either account does not exist, an InsufficientFundsException if the
+     * sender could not cover it
+     */
+    public List<GroupTransferOutcome> transferGroup(List<GroupTransfer> transfers) {
+        return executeWithRetry("transfer group", () -> {
+            Set<Long> accountIds = new TreeSet<>();
+            Set<Long> senderIds = new HashSet<>();
+            transfers.forEach(transfer -> {
+                accountIds.add(transfer.senderAccountId());
+                accountIds.add(transfer.receiverAccountId());
+                senderIds.add(transfer.senderAccountId());
+            });
+            Set<Long> hotReceivers = new HashSet<>(accountRepository.findHotAccountIdsIn(accountIds));
+            hotReceivers.removeAll(senderIds);
+            accountIds.removeAll(hotReceivers);
+
+            Map<Long, Account> accounts = new HashMap<>();
+            accountRepository.findAllByIdInForUpdate(accountIds).forEach(account -> accounts.put(account.getAccountId(), account));
+            accountRepository.findAllById(hotReceivers).forEach(account -> accounts.put(account.getAccountId(), account));
+
+            Map<Long, BigDecimal> available = new HashMap<>();
+            List<GroupTransferOutcome> outcomes = new ArrayList<>(transfers.size());
+            List<LedgerService.Posting> postings = new ArrayList<>(transfers.size());
+            for (GroupTransfer transfer : transfers) {
+                Account sender = accounts.get(transfer.senderAccountId());
+                Account receiver = accounts.get(transfer.receiverAccountId());
+                if (sender == null || receiver == null) {
+                    outcomes.add(GroupTransferOutcome.refused(new ResourceNotFoundException(String.format("Account with id %s does not exist",
+                            sender == null ? transfer.senderAccountId() : transfer.receiverAccountId()))));
+                    continue;
+                }
+                BigDecimal totalDebit = transfer.amount().add(transfer.charges());
+                if (availableBalance(sender, available).compareTo(totalDebit) < 0) {
+                    outcomes.add(GroupTransferOutcome.refused(new InsufficientFundsException("Insufficient Funds to make transfer")));
+                    continue;
+                }
+                BigDecimal senderBalance = available.get(sender.getAccountId()).subtract(totalDebit);
+                available.put(sender.getAccountId(), senderBalance);
+                if (!receiver.isHot()) {
+                    available.put(receiver.getAccountId(), availableBalance(receiver, available).add(transfer.amount()));
+                }
+                outcomes.add(new GroupTransferOutcome(senderBalance, null));
+                postings.add(new LedgerService.Posting(TransactionType.TRANSFER, transfer.description(), List.of(
+                        Line.debit(sender, transfer.amount(), TransactionType.TRANSFER, receiver.getAccountNumber()),
+                        Line.debit(sender, transfer.charges(), TransactionType.CHARGE, null),
+                        Line.credit(receiver, transfer.amount(), TransactionType.TRANSFER, sender.getAccountNumber()),
+                        Line.credit(LedgerCode.FEE_INCOME, transfer.charges())
+                ), transfer.lease()));
+            }
+            if (!postings.isEmpty()) {
+                ledgerService.postAll(postings);
+            }
+            log.info("Transfer group of {} committed ({} refused)", transfers.size(), transfers.size() - postings.size());
+            return outcomes;
+        });
+    }
+
+    /**
+     * Credits the account with the deposited amount under its row lock.
+     *
+     * @return the account as committed
+     */
+    public Account deposit(Long accountId, BigDecimal amount) {
+        return executeWithRetry("deposit", () -> {
+            Account account = isHot(accountId) ? find(accountId) : lock(accountId);
+            ledgerService.post(TransactionType.DEPOSIT, "Cash deposit", List.of(
+                    Line.debit(LedgerCode.CASH, amount),
+                    Line.credit(account, amount, TransactionType.DEPOSIT, null)
+            ));
+            log.info("Deposit of {} into account {} committed", amount, account.getAccountNumber());
+            return account;
+        });
+    }
+
+    /* One deposit of a group committed together (see DepositGroupCommit); lease is that of the request it came from */
+    public record GroupDeposit(Long accountId, BigDecimal amount, IdempotencyService.Lease lease) {}
+
+    /**
+     * Applies many deposits in one transaction: the accounts involved are locked with a single ordered
+     * SELECT ... FOR UPDATE (hot accounts are only read, their credits go to balance slots) and all
+     * postings are written with one batch per ledger table.
+     *
+     * @return for each deposit, in order, the account balance right after it, or null if the account no longer exists
+     */
+    public List<BigDecimal> depositGroup(List<GroupDeposit> deposits) {
+        return executeWithRetry("deposit group", () -> {
+            Set<Long> accountIds = new TreeSet<>();
+            deposits.forEach(deposit -> accountIds.add(deposit.accountId()));
+            Set<Long> hotAccountIds = new HashSet<>(accountRepository.findHotAccountIdsIn(accountIds));
+            accountIds.removeAll(hotAccountIds);
+
+            Map<Long, Account> accounts = new HashMap<>();
+            accountRepository.findAllByIdInForUpdate(accountIds).forEach(account -> accounts.put(account.getAccountId(), account));
+            accountRepository.findAllById(hotAccountIds).forEach(account -> accounts.put(account.getAccountId(), account));
+
+            Map<Long, BigDecimal> running = new HashMap<>();
+            List<BigDecimal> balances = new ArrayList<>(deposits.size());
+            List<LedgerService.Posting> postings = new ArrayList<>(deposits.size());
+            for (GroupDeposit deposit : deposits) {
+                Account account = accounts.get(deposit.accountId());
+                if (account == null) {
+                    balances.add(null);
+                    continue;
+                }
+                balances.add(account.isHot() ? null
+                        : running.merge(account.getAccountId(), account.getAccountBalance().add(deposit.amount()),
+                                (balance, ignored) -> balance.add(deposit.amount())));
+                postings.add(new LedgerService.Posting(TransactionType.DEPOSIT, "Cash deposit", List.of(
+                        Line.debit(LedgerCode.CASH, deposit.amount()),
+                        Line.credit(account, deposit.amount(), TransactionType.DEPOSIT, null)
+                ), deposit.lease()));
+            }
+            if (!postings.isEmpty()) {
+                ledgerService.postAll(postings);
+            }
+
+            // A hot account reports its total once every deposit of the group has landed in its slots
+            Map<Long, BigDecimal> hotTotals = new HashMap<>();
+            for (int i = 0; i < deposits.size(); i++) {
+                Account account = accounts.get(deposits.get(i).accountId());
+                if (account != null && account.isHot()) {
+                    balances.set(i, hotTotals.computeIfAbsent(account.getAccountId(), id -> hotAccountService.totalBalance(account)));
+                }
+            }
+            log.info("Deposit group of {} committed", postings.size());
+            return balances;
+        });
+    }
+
+    /**
+     * Debits the account with the amount plus charges under its row lock.
+     *
+     * @return the account as committed
+     * @throws TransactionLimitExceededException if the amount would take today's outgoing total over the account limit
+     * @throws InsufficientFundsException if the locked balance cannot cover amount and charges
+     */
+    public Account withdraw(Long accountId, BigDecimal amount, BigDecimal charges) {
+        return executeWithRetry("withdrawal", () -> {
+            Account account = lock(accountId);
+            if (dailyUsageService.debitedToday(account).add(amount).compareTo(account.getTransactionLimit()) > 0) {
+                log.info("Transaction limit reached on account {}", account.getAccountNumber());
+                throw new TransactionLimitExceededException("Transaction Limit Exceeded");
+            }
+            if (!canCover(account, amount.add(charges))) {
+                log.info("Insufficient funds on account {} after acquiring lock", account.getAccountNumber());
+                throw new InsufficientFundsException("Insufficient Funds to make withdrawal");
+            }
+
+            ledgerService.post(TransactionType.WITHDRAWAL, "Cash withdrawal", List.of(
+                    Line.debit(account, amount, TransactionType.WITHDRAWAL, null),
+                    Line.debit(account, charges, TransactionType.CHARGE, null),
+                    Line.credit(LedgerCode.CASH, amount),
+                    Line.credit(LedgerCode.FEE_INCOME, charges)
+            ));
+            log.info("Withdrawal of {} from account {} committed", amount, account.getAccountNumber());
+            return account;
+        });
+    }
+
+    /* Whether the locked account row covers the amount, sweeping the slots of a hot account into it if needed */
+    private boolean canCover(Account account, BigDecimal amount) {
+        if (account.getAccountBalance().compareTo(amount) >= 0) {
+            return true;
+        }
+        if (account.isHot()) {
+            hotAccountService.sweep(account);
+            return account.getAccountBalance().compareTo(amount) >= 0;
+        }
+        return false;
+    }
+
+    /* Spendable balance of a locked account within a group, sweeping a hot account's slots the first time it is seen */
+    private BigDecimal availableBalance(Account account, Map<Long, BigDecimal> available) {
+        return available.computeIfAbsent(account.getAccountId(), id -> {
+            if (account.isHot()) {
+                hotAccountService.sweep(account);
+            }
+            return account.getAccountBalance();
+        });
+    }
+
+    private boolean isHot(Long accountId) {
+        Integer slots = accountRepository.findBalanceSlotsById(accountId);
+        return slots != null && slots > 0;
+    }
+
+    private Account find(Long accountId) {
+        return accountRepository.findById(accountId).orElseThrow(
+                () -> new ResourceNotFoundException(String.format("Account with id %s does not exist", accountId)));
+    }
+
+    private Account lock(Long accountId) {
+        return accountRepository.findByIdForUpdate(accountId).orElseThrow(
+                () -> new ResourceNotFoundException(String.format("Account with id %s does not exist", accountId)));
+    }
+
+    /* Locks both rows, lowest accountId first, and returns them in that order */
+    private Account[] lockInOrder(Long firstAccountId, Long secondAccountId) {
+        Long lowId = firstAccountId < secondAccountId ? firstAccountId : secondAccountId;
+        Long highId = lowId.equals(firstAccountId) ? secondAccountId : firstAccountId;
+        Account low = lock(lowId);
+        Account high = lock(highId);
+        return new Account[]{low, high};
+    }
+
+    /* Runs the work in a fresh transaction, retrying lock timeouts, deadlocks and version conflicts */
+    private <T> T executeWithRetry(String operation, Supplier<T> work) {
+        int attempt = 1;
+        while (true) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (ConcurrencyFailureException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Giving up on {} after {} attempts: {}", operation, attempt, e.getMessage());
+                    throw e;
+                }
+                long delay = (backoffMillis << (attempt - 1)) + ThreadLocalRandom.current().nextLong(backoffMillis + 1);
+                log.warn("Lock conflict on {} (attempt {}), retrying in {}ms", operation, attempt, delay);
+                sleep(delay);
+                attempt++;
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Retry interrupted", ex);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.henry.bankingsystem.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.service.TransferEngine.GroupTransfer;
+import org.henry.bankingsystem.service.TransferEngine.GroupTransferOutcome;
+import org.henry.bankingsystem.utils.GroupCommitWorker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Single-writer execution mode for transfers, switched on with banking.transfer.mode=pipeline.
+ * Transfers are routed by sender account to a fixed set of single-threaded workers, so every
+ * debit of an account is applied by one thread in arrival order and request threads never queue
+ * on its row lock. Each worker takes whatever has queued up since its last commit and applies it
+ * as one group through {@link TransferEngine#transferGroup}: one lock statement, one batch of
+ * ledger inserts and one commit for the whole group.
+ * <p>
+ * Callers get a future completed once the group has committed. Futures are completed on a separate
+ * executor so that whatever the caller chains onto them never holds up the worker.
+ */
+@Service @Slf4j
+@ConditionalOnProperty(name = "banking.transfer.mode", havingValue = "pipeline")
+public class TransferPipeline {
+    private final TransferEngine transferEngine;
+    private final GroupCommitWorker<PendingTransfer> workers;
+    private final ExecutorService completions = Executors.newVirtualThreadPerTaskExecutor();
+
+    private record PendingTransfer(GroupTransfer transfer, CompletableFuture<BigDecimal> senderBalance) {}
+
+    public TransferPipeline(TransferEngine transferEngine,
+                            @Value("${banking.transfer.pipeline.workers:8}") int workerCount,
+                            @Value("${banking.transfer.pipeline.queue-capacity:4096}") int queueCapacity,
+                            @Value("${banking.transfer.pipeline.max-group-size:128}") int maxGroupSize) {
+        this.transferEngine = transferEngine;
+        this.workers = new GroupCommitWorker<>("transfer-pipeline", workerCount, queueCapacity, maxGroupSize, 0,
+                this::commitGroup, this::abandon);
+    }
+
+    /**
+     * Queues a transfer on the worker owning the sender account.
+     *
+     * @return future completed with the sender balance after the transfer once it is committed, or failed
+     * with InsufficientFundsException if the sender could not cover it, or with ResourceNotFoundException
+     * if either account no longer exists
+     * @throws java.util.concurrent.RejectedExecutionException if the worker's queue is full
+     */
+    public CompletableFuture<BigDecimal> submit(Long senderAccountId, Long receiverAccountId, BigDecimal amount,
+                                                BigDecimal charges, String description) {
+        PendingTransfer pending = new PendingTransfer(
+                new GroupTransfer(senderAccountId, receiverAccountId, amount, charges, description,
+                        IdempotencyService.currentLease()), new CompletableFuture<>());
+        workers.submit(senderAccountId, pending);
+        return pending.senderBalance();
+    }
+
+    private void commitGroup(List<PendingTransfer> group) {
+        List<PendingTransfer> pending = List.copyOf(group);
+        try {
+            List<GroupTransferOutcome> outcomes = transferEngine.transferGroup(pending.stream().map(PendingTransfer::transfer).toList());
+            for (int i = 0; i < pending.size(); i++) {
+                CompletableFuture<BigDecimal> result = pending.get(i).senderBalance();
+                GroupTransferOutcome outcome = outcomes.get(i);
+                complete(outcome.refusal() != null
+                        ? () -> result.completeExceptionally(outcome.refusal())
+                        : () -> result.complete(outcome.senderBalance()));
+            }
+        } catch (RuntimeException e) {
+            log.error("Transfer group of {} failed: {}", pending.size(), e.getMessage());
+            pending.forEach(transfer -> complete(() -> transfer.senderBalance().completeExceptionally(e)));
+        }
+    }
+
+    /* Fails a transfer that was still queued at shutdown; nothing was posted for it */
+    private void abandon(PendingTransfer pending) {
+        complete(() -> pending.senderBalance().completeExceptionally(new RejectedExecutionException("Transfers are shutting down, try again later")));
+    }
+
+    /* Completes on the completions executor, or on this thread once that has been shut down */
+    private void complete(Runnable completion) {
+        try {
+            completions.execute(completion);
+        } catch (RejectedExecutionException e) {
+            completion.run();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.close();
+        completions.close();
+    }
+}
@@ -9,43 +9,100 @@ import org.henry.bankingsystem.config.SecurityPasswordEncoder;
 import org.henry.bankingsystem.dto.*;
 import org.henry.bankingsystem.entity.Account;
 import org.henry.bankingsystem.entity.Customer;
-import org.henry.bankingsystem.entity.Transaction;
+import org.henry.bankingsystem.entity.ScheduledTransfer;
+import org.henry.bankingsystem.enums.CurrencyType;
+import org.henry.bankingsystem.enums.ScheduledTransferStatus;
+import org.henry.bankingsystem.enums.StatementFormat;
 import org.henry.bankingsystem.enums.TransactionCategory;
 import org.henry.bankingsystem.enums.TransactionType;
+import org.henry.bankingsystem.exceptions.InsufficientFundsException;
 import org.henry.bankingsystem.exceptions.ResourceNotFoundException;
+import org.henry.bankingsystem.exceptions.TransactionLimitExceededException;
 import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.repository.ScheduledTransferRepository;
+import org.henry.bankingsystem.repository.ScheduledTransferRunRepository;
 import org.henry.bankingsystem.repository.TransactionRepository;
 import org.henry.bankingsystem.repository.UserRepository;
 import org.henry.bankingsystem.service.AccountService;
+import org.henry.bankingsystem.service.BalanceReadModel;
+import org.henry.bankingsystem.service.DepositGroupCommit;
+import org.henry.bankingsystem.service.FeeEngine;
+import org.henry.bankingsystem.service.BalanceHistoryService;
+import org.henry.bankingsystem.service.HotAccountService;
+import org.henry.bankingsystem.service.IdempotencyService;
 import org.henry.bankingsystem.service.JWTService;
+import org.henry.bankingsystem.service.StatementExporter;
+import org.henry.bankingsystem.service.TransferEngine;
+import org.henry.bankingsystem.service.TransferPipeline;
+import org.henry.bankingsystem.utils.AccountLockManager;
+import org.henry.bankingsystem.utils.Money;
+import org.henry.bankingsystem.utils.StatementCursor;
 import org.jetbrains.annotations.NotNull;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
+import static java.util.concurrent.CompletableFuture.completedFuture;
 import static org.henry.bankingsystem.constants.StatusCodeConstants.*;
 
 @Slf4j @Service
 @RequiredArgsConstructor
 public class AccountServiceImpl implements AccountService {
     private final AccountRepository accountRepository;
-    private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final JWTService jwtService;
     private final HttpServletRequest request;
     private final SecurityPasswordEncoder encoder;
+    private final TransferEngine transferEngine;
+    private final HotAccountService hotAccountService;
+    private final BalanceReadModel balanceReadModel;
+    private final FeeEngine feeEngine;
+    private final AccountLockManager accountLockManager;
+    private final ObjectProvider<TransferPipeline> transferPipeline;
+    private final ObjectProvider<DepositGroupCommit> depositGroupCommit;
+    private final TransactionRepository transactionRepository;
+    private final StatementExporter statementExporter;
+    private final BalanceHistoryService balanceHistoryService;
+    private final ScheduledTransferRepository scheduledTransferRepository;
+    private final ScheduledTransferRunRepository scheduledTransferRunRepository;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final long MINIMUM_TRANSFER = 50;
+    private static final int DEFAULT_STATEMENT_PAGE_SIZE = 20;
+    private static final int MAX_STATEMENT_PAGE_SIZE = 100;
+    /* Open ends of a statement date range; both fit a MySQL DATETIME */
+    private static final LocalDateTime STATEMENT_START = LocalDate.of(1970, 1, 1).atStartOfDay();
+    private static final LocalDateTime STATEMENT_END = LocalDate.of(9999, 12, 31).atStartOfDay();
+
+    @Value("${banking.transfer.batch-max-items:5000}")
+    private int batchMaxItems;
+
+    @Value("${banking.scheduled-transfers.max-per-account:50}")
+    private int maxScheduledTransfers;
+
+    @Value("${banking.scheduled-transfers.min-interval-minutes:60}")
+    private long minScheduleIntervalMinutes;
 
     private String CUSTOMER_ACCESS_TOKEN(){
         return request.getHeader("Authorization").substring(7);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public DefaultApiResponse<CustomerDto> getDetails() {
         // Verify if the customer access token is expired
         verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
@@ -78,7 +135,7 @@ public class AccountServiceImpl implements AccountService {
         accountData.setAccountNumber(account.getAccountNumber());
         accountData.setAccountType(account.getAccountType());
         accountData.setCurrencyType(account.getCurrencyType());
-        accountData.setBalance(account.getAccountBalance());
+        accountData.setBalance(hotAccountService.totalBalance(account));
 
         // Map customer and account details to CustomerDto
         CustomerDto customerData = CustomerDto.builder()
@@ -99,6 +156,11 @@ public class AccountServiceImpl implements AccountService {
         return apiResponse;
     }
 
+    /*
+     * Not read-only on purpose: a miss seeds the balance read model, and a view seeded from a lagging
+     * replica would be held until the account next moves. Misses are rare (the first read of an
+     * account on a node), so they stay on the primary.
+     */
     @Override
     public DefaultApiResponse<ViewBalanceDto> checkBalance() {
         // Verify if the customer access token is expired
@@ -108,6 +170,15 @@ public class AccountServiceImpl implements AccountService {
         DefaultApiResponse<ViewBalanceDto> apiResponse = new DefaultApiResponse<>();
         String userEmail = jwtService.extractClaims(CUSTOMER_ACCESS_TOKEN(), Claims::getSubject);
 
+        // Answered from the balance read model when it holds the account, without touching the database
+        Optional<BalanceReadModel.BalanceView> view = balanceReadModel.findByEmail(userEmail);
+        if (view.isPresent()) {
+            apiResponse.setStatusCode(SUCCESS);
+            apiResponse.setStatusMessage("Customer Balance");
+            apiResponse.setData(new ViewBalanceDto(userEmail, view.get().accountNumber(), view.get().balance(), getLastUpdatedAt()));
+            return apiResponse;
+        }
+
         Customer existingCustomer;
         Account existingAccount;
         Optional<Customer> customer = userRepository.findByEmail(userEmail);
@@ -130,9 +201,10 @@ public class AccountServiceImpl implements AccountService {
                     // Prepare balance data
                     ViewBalanceDto balance = new ViewBalanceDto(
                             existingCustomer.getEmail(), existingAccount.getAccountNumber(),
-                            existingAccount.getAccountBalance(), getLastUpdatedAt()
+                            hotAccountService.totalBalance(existingAccount), getLastUpdatedAt()
                     );
                     apiResponse.setData(balance);
+                    balanceReadModel.load(existingAccount, existingCustomer.getEmail());
 
                     log.info("Balance details retrieved successfully for account: {}", existingAccount.getAccountNumber());
                 } else {
@@ -157,9 +229,7 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    public DefaultApiResponse<ViewBalanceDto> depositMoney(DepositDto requestBody){
-        Account account = new Account();
-
+    public CompletableFuture<DefaultApiResponse<ViewBalanceDto>> depositMoney(DepositDto requestBody){
         // Data initialization
         verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
         DefaultApiResponse<ViewBalanceDto> response = new DefaultApiResponse<>();
@@ -170,99 +240,126 @@ public class AccountServiceImpl implements AccountService {
             if(requestBody.amountToDeposit().compareTo(BigDecimal.ZERO) < 0 || requestBody.amountToDeposit().compareTo(BigDecimal.valueOf(500)) < 0){
                 response.setStatusCode(TRANSACTION_FAILED);
                 response.setStatusMessage("Invalid Deposit Amount: ( Amount needs to be 500 upwards )");
-                return response;
+                return completedFuture(response);
+            }
+            if (!hasMinorUnitPrecision(requestBody.amountToDeposit())) {
+                response.setStatusCode(TRANSACTION_FAILED);
+                response.setStatusMessage("Invalid Deposit Amount: At most 2 decimal places");
+                return completedFuture(response);
             }
 
             log.info("Performing Deposit into Account");
-            Optional<Account> customerAccount = accountRepository.findAccountByCustomer_Email(userEmail);
-            if(customerAccount.isPresent()){
-                account = customerAccount.get();
-                account.setAccountBalance(account.getAccountBalance().add(requestBody.amountToDeposit()));
-                account.setLastTransactionDate(LocalDateTime.now());
-                accountRepository.save(account);
-                log.info("Account has been successfully credited");
+            Account customerAccount = accountRepository.findAccountByCustomer_Email(userEmail).orElseThrow(
+                    () -> new ResourceNotFoundException("Customer Account Not Found"));
+
+            // Deposits are group-committed with others arriving at the same time unless that is switched off
+            CompletableFuture<BigDecimal> balance;
+            DepositGroupCommit groupCommit = depositGroupCommit.getIfAvailable();
+            if (groupCommit != null) {
+                balance = groupCommit.submit(customerAccount.getAccountId(), requestBody.amountToDeposit());
+            } else {
+                // Deposits into a hot account land in a balance slot and need no account-wide lock
+                Account account = customerAccount.isHot()
+                        ? transferEngine.deposit(customerAccount.getAccountId(), requestBody.amountToDeposit())
+                        : accountLockManager.withLock(customerAccount.getAccountNumber(),
+                                () -> transferEngine.deposit(customerAccount.getAccountId(), requestBody.amountToDeposit()));
+                balance = completedFuture(hotAccountService.totalBalance(account));
             }
 
-            Transaction newTransaction = getTransaction(account, requestBody.amountToDeposit(), TransactionCategory.CREDIT, TransactionType.DEPOSIT);
-            transactionRepository.save(newTransaction);
-
-            account.getTransactions().add(newTransaction);
-            accountRepository.save(account);
-
-            ViewBalanceDto data = new ViewBalanceDto(
-                    userEmail, account.getAccountNumber(),
-                    account.getAccountBalance().setScale(2, RoundingMode.CEILING), account.getLastTransactionDate().toString());
-
-            log.info("Account Deposit Was Successful");
-            response.setStatusCode(TRANSACTION_SUCCESS);
-            response.setStatusMessage("Account Deposit Successful");
-            response.setData(data);
-
-            return response;
-
-        } catch (Exception e) {
+            String accountNumber = customerAccount.getAccountNumber();
+            return balance.handle((newBalance, error) -> {
+                DefaultApiResponse<ViewBalanceDto> result = new DefaultApiResponse<>();
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    log.error("An Error occurred while trying to CREDIT balance: {}", cause.getMessage());
+                    // A failed group posted nothing, so it is reported as retryable (and its Idempotency-Key released)
+                    result.setStatusCode(cause instanceof ResourceNotFoundException ? TRANSACTION_FAILED : GENERIC_ERROR);
+                    result.setStatusMessage(cause.getMessage());
+                    return result;
+                }
+                log.info("Account Deposit Was Successful");
+                result.setStatusCode(TRANSACTION_SUCCESS);
+                result.setStatusMessage("Account Deposit Successful");
+                result.setData(new ViewBalanceDto(userEmail, accountNumber,
+                        newBalance.setScale(2, RoundingMode.CEILING), LocalDateTime.now().toString()));
+                return result;
+            });
+
+        } catch (ResourceNotFoundException e) {
             log.error("An Error occurred while trying to CREDIT balance: {}", e.getMessage());
             response.setStatusCode(TRANSACTION_FAILED);
             response.setStatusMessage(e.getMessage());
+        } catch (Exception e) {
+            // e.g. a full group-commit queue or lock retries running out: nothing was posted, the client can retry
+            log.error("An Error occurred while trying to CREDIT balance: {}", e.getMessage());
+            response.setStatusCode(GENERIC_ERROR);
+            response.setStatusMessage(e.getMessage());
         }
 
-        return response;
+        return completedFuture(response);
     }
 
     @Override
     public DefaultApiResponse<BalanceDto> makeWithdrawal(WithdrawDto requestBody) {
         // Data initialization
-        Account account = new Account();
         verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
         DefaultApiResponse<BalanceDto> response = new DefaultApiResponse<>();
         String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
         Customer customer = userRepository.findCustomerByEmail(userEmail);
 
         try {
-            log.info("Performing Withdrawal from Account");
-            Optional<Account> customerAccount = accountRepository.findAccountByCustomer_Email(userEmail);
-            if(customerAccount.isPresent()){
-                account = customerAccount.get();
-                account.setAccountBalance(account.getAccountBalance().subtract(requestBody.amountToWithdraw()
-                        .add(calculateCharges(requestBody.amountToWithdraw(), account))));
-                account.setLastTransactionDate(LocalDateTime.now());
-                accountRepository.save(account);
+            log.info("Checking if Amount is Valid");
+            BigDecimal amountToWithdraw = requestBody.amountToWithdraw();
+            if (amountToWithdraw == null || amountToWithdraw.signum() <= 0) {
+                response.setStatusCode(TRANSACTION_FAILED);
+                response.setStatusMessage("Invalid Withdrawal Amount: Must be above 0");
+                return response;
+            }
+            if (!hasMinorUnitPrecision(amountToWithdraw)) {
+                response.setStatusCode(TRANSACTION_FAILED);
+                response.setStatusMessage("Invalid Withdrawal Amount: At most 2 decimal places");
+                return response;
             }
 
+            log.info("Performing Withdrawal from Account");
+            Account customerAccount = accountRepository.findAccountByCustomer_Email(userEmail).orElseThrow(
+                    () -> new ResourceNotFoundException("Customer Account Not Found"));
+
             log.info("Validating Transaction pin");
-            if(!encoder.passwordEncoder().matches(String.valueOf(requestBody.hashedPin()), account.getHashedPin())){
+            if(!encoder.passwordEncoder().matches(String.valueOf(requestBody.hashedPin()), customerAccount.getHashedPin())){
                 response.setStatusCode(TRANSACTION_FAILED);
                 response.setStatusMessage("Invalid Account Pin");
                 log.info("Invalid Account Pin to perform transaction");
                 return response;
             }
 
-            log.info("Performing Check for Transaction Limit for Account");
-            BigDecimal totalTransactionAmount = getTotalTransactionAmountForToday(customer.getCustomerId()).add(requestBody.amountToWithdraw());
-            if(totalTransactionAmount.compareTo(account.getTransactionLimit()) > 0){
+            BigDecimal charges = feeEngine.charges(Money.of(amountToWithdraw, customerAccount.getCurrencyType()),
+                    customerAccount.getAccountType(), TransactionType.WITHDRAWAL).toBigDecimal();
+            Account account;
+            try {
+                account = accountLockManager.withLock(customerAccount.getAccountNumber(),
+                        () -> transferEngine.withdraw(customerAccount.getAccountId(), amountToWithdraw, charges));
+            } catch (TransactionLimitExceededException e) {
                 response.setStatusCode(TRANSACTION_LIMIT_EXCEEDED);
-                response.setStatusMessage("Transaction Limit Exceeded");
-                log.info("Transaction Limit Exceeded to perform transaction");
+                response.setStatusMessage(e.getMessage());
+                return response;
+            } catch (InsufficientFundsException e) {
+                response.setStatusCode(TRANSACTION_INSUFFICIENT_FUNDS);
+                response.setStatusMessage(e.getMessage());
                 return response;
             }
 
-            Transaction newTransaction = getTransaction(account, requestBody.amountToWithdraw(), TransactionCategory.CREDIT, TransactionType.WITHDRAWAL);
-            transactionRepository.save(newTransaction);
-
-            account.getTransactions().add(newTransaction);
-            accountRepository.save(account);
-
             BalanceDto data = BalanceDto.builder()
                     .email(customer.getEmail())
                     .accountNumber(account.getAccountNumber())
-                    .balance(account.getAccountBalance().setScale(2, RoundingMode.CEILING))
+                    .balance(hotAccountService.totalBalance(account).setScale(2, RoundingMode.CEILING))
                     .requestType(TransactionCategory.DEBIT.toString())
                     .lastUpdatedAt(getLastUpdatedAt())
                     .build();
 
             log.info("Account Withdrawal Was Successful");
             response.setStatusCode(TRANSACTION_SUCCESS);
-            response.setStatusMessage("Account Deposit Successful");
+            response.setStatusMessage("Account Withdrawal Successful");
             response.setData(data);
 
             return response;
@@ -276,7 +373,7 @@ public class AccountServiceImpl implements AccountService {
     }
 
     @Override
-    public DefaultApiResponse<BalanceDto> makeTransfer(TransferDto requestBody) {
+    public CompletableFuture<DefaultApiResponse<BalanceDto>> makeTransfer(TransferDto requestBody) {
         Account existingSenderaccount;
         Account existingReceiveraccount;
         verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
@@ -303,14 +400,14 @@ public class AccountServiceImpl implements AccountService {
                 log.error("Receiver Account not found");
                 response.setStatusCode(TRANSACTION_INVALID_ACCOUNT);
                 response.setStatusMessage("Receiver Account Not Found");
-                return response;
+                return completedFuture(response);
             }
 
             // Ensures that eh user does not make transfer to themselves
             if(existingReceiveraccount.getAccountNumber().equals(existingSenderaccount.getAccountNumber())){
                 response.setStatusCode(TRANSACTION_INVALID_ACCOUNT);
                 response.setStatusMessage("Account Number belongs to Customer: Request Invalid");
-                return response;
+                return completedFuture(response);
             }
 
             // Validate that both Account are of the same currency
@@ -319,60 +416,107 @@ public class AccountServiceImpl implements AccountService {
                 log.info("Accounts are of different Currencies: ({} and {})", existingSenderaccount, existingReceiveraccount);
                 response.setStatusCode(TRANSACTION_FAILED);
                 response.setStatusMessage(String.format("Accounts are of different Currencies: (%s and %s)", existingSenderaccount, existingReceiveraccount));
-                return response;
+                return completedFuture(response);
             }
 
 
             // Step 3: Validate Amount & Description
             log.info("Validating Amount");
-            if (requestBody.amount().compareTo(BigDecimal.valueOf(50)) <= 0) {
+            CurrencyType currency = existingSenderaccount.getCurrencyType();
+            if (!hasMinorUnitPrecision(requestBody.amount())) {
+                response.setStatusCode(TRANSACTION_FAILED);
+                response.setStatusMessage("Invalid Transfer amount: At most 2 decimal places");
+                return completedFuture(response);
+            }
+            Money amount = Money.of(requestBody.amount(), currency);
+            if (!amount.isGreaterThan(Money.ofMajor(MINIMUM_TRANSFER, currency))) {
                 log.info("Invalid Amount passed in PayLoad");
                 response.setStatusCode(TRANSACTION_FAILED);
                 response.setStatusMessage("Invalid Transfer amount: Must be above 50");
-                return response;
+                return completedFuture(response);
             }
 
             log.info("Validating Descriptions");
             if (requestBody.description() == null || requestBody.description().trim().isEmpty()) {
                 response.setStatusCode(TRANSACTION_FAILED);
                 response.setStatusMessage("Description cannot be empty");
-                return response;
+                return completedFuture(response);
             }
 
             // Step 4: Validate PIN
-            if(validateHashedPin(existingSenderaccount, String.valueOf(requestBody.hashedPin()))) {
-
-                // Step 5: Check for Insufficient Balance
-                log.info("Checking if Account has Sufficient Balance to make transactions.");
-                if(requestBody.amount().compareTo(existingSenderaccount.getAccountBalance()) > 0){
-                    response.setStatusCode(TRANSACTION_INSUFFICIENT_FUNDS);
-                    response.setStatusMessage("Insufficient Funds to make transfer");
-                    return response;
-                }
-
-                // Step 6: Perform the Transfer
-                performTransfer(existingReceiveraccount, existingSenderaccount, requestBody.amount());
-
-            }else {
+            if(!validateHashedPin(existingSenderaccount, String.valueOf(requestBody.hashedPin()))) {
                 log.info("Incorrect Pin to perform transfer operation");
                 response.setStatusCode(TRANSACTION_FAILED);
                 response.setStatusMessage("Incorrect Pin to perform transfer operation");
+                return completedFuture(response);
+            }
 
-                return response;
+            // Step 5: Check for Insufficient Balance (re-checked by the engine once the row is locked)
+            log.info("Checking if Account has Sufficient Balance to make transactions.");
+            Money charges = feeEngine.charges(amount, existingSenderaccount.getAccountType(), TransactionType.TRANSFER);
+            if(amount.plus(charges).isGreaterThan(Money.of(hotAccountService.totalBalance(existingSenderaccount), currency))){
+                response.setStatusCode(TRANSACTION_INSUFFICIENT_FUNDS);
+                response.setStatusMessage("Insufficient Funds to make transfer");
+                return completedFuture(response);
             }
 
-            response.setStatusCode(TRANSACTION_SUCCESS);
-            response.setStatusMessage("Transfer successful");
-            BalanceDto dataBalance = BalanceDto.builder()
-                    .email(customer.getEmail())
-                    .requestType(String.valueOf(TransactionCategory.DEBIT))
-                    .amount(requestBody.amount())
-                    .accountNumber(requestBody.accountNumber())
-                    .balance(existingSenderaccount.getAccountBalance().setScale(2, RoundingMode.CEILING))
-                    .description(requestBody.description())
-                    .lastUpdatedAt(getLastUpdatedAt())
-                    .build();
-            response.setData(dataBalance);
+            // Step 6: Perform the Transfer, here or on the pipeline worker owning the sender account
+            CompletableFuture<BigDecimal> senderBalance;
+            TransferPipeline pipeline = transferPipeline.getIfAvailable();
+            if (pipeline != null) {
+                senderBalance = pipeline.submit(existingSenderaccount.getAccountId(), existingReceiveraccount.getAccountId(),
+                        requestBody.amount(), charges.toBigDecimal(), requestBody.description());
+            } else {
+                try {
+                    Supplier<Account> transfer = () -> transferEngine.transfer(existingSenderaccount.getAccountId(),
+                            existingReceiveraccount.getAccountId(), requestBody.amount(), charges.toBigDecimal(), requestBody.description());
+                    // A hot receiver is credited through a balance slot, so only the sender needs serializing
+                    Account updatedSenderAccount = existingReceiveraccount.isHot()
+                            ? accountLockManager.withLock(existingSenderaccount.getAccountNumber(), transfer)
+                            : accountLockManager.withLocks(existingSenderaccount.getAccountNumber(),
+                                    existingReceiveraccount.getAccountNumber(), transfer);
+                    senderBalance = completedFuture(hotAccountService.totalBalance(updatedSenderAccount));
+                } catch (InsufficientFundsException e) {
+                    senderBalance = CompletableFuture.failedFuture(e);
+                }
+            }
+
+            // Everything the response needs from the request is read here, the future may complete on another thread
+            String email = customer.getEmail();
+            String lastUpdatedAt = getLastUpdatedAt();
+            return senderBalance.handle((balance, error) -> {
+                DefaultApiResponse<BalanceDto> result = new DefaultApiResponse<>();
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof InsufficientFundsException) {
+                    result.setStatusCode(TRANSACTION_INSUFFICIENT_FUNDS);
+                    result.setStatusMessage(cause.getMessage());
+                    return result;
+                }
+                // An account removed after it was looked up here, only seen once the pipeline locks it
+                if (cause instanceof ResourceNotFoundException) {
+                    result.setStatusCode(TRANSACTION_FAILED);
+                    result.setStatusMessage("Account Not Found");
+                    return result;
+                }
+                if (cause != null) {
+                    log.error("Unexpected Error Occurred while Making Transfer: {}", cause.getMessage());
+                    result.setStatusCode(GENERIC_ERROR);
+                    result.setStatusMessage("Unexpected Error Occurred: " + cause.getMessage());
+                    return result;
+                }
+                result.setStatusCode(TRANSACTION_SUCCESS);
+                result.setStatusMessage("Transfer successful");
+                result.setData(BalanceDto.builder()
+                        .email(email)
+                        .requestType(String.valueOf(TransactionCategory.DEBIT))
+                        .amount(requestBody.amount())
+                        .accountNumber(requestBody.accountNumber())
+                        .balance(balance.setScale(2, RoundingMode.CEILING))
+                        .description(requestBody.description())
+                        .lastUpdatedAt(lastUpdatedAt)
+                        .build());
+                return result;
+            });
 
         } catch (ResourceNotFoundException e){
             throw new ResourceNotFoundException(e.getMessage());
@@ -381,6 +525,111 @@ public class AccountServiceImpl implements AccountService {
             response.setStatusCode(GENERIC_ERROR);
             response.setStatusMessage("Unexpected Error Occurred: " + e.getMessage());
         }
+        return completedFuture(response);
+    }
+
+    /**
+        Method to make many Transfers from the Customer's Account in one request (payroll / payouts)
+        The PIN is checked once, receivers are resolved with one query and every item gets its own result.
+    * */
+    @Override
+    public DefaultApiResponse<BatchTransferResultDto> makeBatchTransfer(BatchTransferDto requestBody) {
+        verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
+        DefaultApiResponse<BatchTransferResultDto> response = new DefaultApiResponse<>();
+        String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
+
+        try {
+            List<BatchTransferItemDto> items = requestBody.transfers();
+            if (items == null || items.isEmpty() || items.size() > batchMaxItems) {
+                response.setStatusCode(TRANSACTION_FAILED);
+                response.setStatusMessage(String.format("A batch must contain between 1 and %d transfers", batchMaxItems));
+                return response;
+            }
+
+            // Step 1: Retrieve Sender Account and Validate PIN once for the whole batch
+            Account senderAccount = accountRepository.findAccountByCustomer_Email(userEmail).orElseThrow(
+                    () -> new ResourceNotFoundException("Customer Account Not Found"));
+            if (!validateHashedPin(senderAccount, String.valueOf(requestBody.hashedPin()))) {
+                log.info("Incorrect Pin to perform batch transfer operation");
+                response.setStatusCode(TRANSACTION_FAILED);
+                response.setStatusMessage("Incorrect Pin to perform transfer operation");
+                return response;
+            }
+
+            // Step 2: Resolve every Receiver Account with a single query
+            log.info("Resolving {} receiver accounts for batch transfer", items.size());
+            Set<String> accountNumbers = new HashSet<>();
+            items.forEach(item -> { if (item != null && item.accountNumber() != null) accountNumbers.add(item.accountNumber()); });
+            Map<String, Account> receivers = new HashMap<>();
+            accountRepository.findAllByAccountNumberIn(accountNumbers).forEach(account -> receivers.put(account.getAccountNumber(), account));
+
+            // Step 3: Validate each item; only valid items are sent to the engine
+            BatchTransferItemResultDto[] results = new BatchTransferItemResultDto[items.size()];
+            List<TransferEngine.BatchLeg> legs = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                BatchTransferItemDto item = items.get(i);
+                String failure = null;
+                int failureCode = TRANSACTION_FAILED;
+                Account receiver = item == null ? null : receivers.get(item.accountNumber());
+                if (item == null || item.amount() == null || item.amount().compareTo(BigDecimal.valueOf(MINIMUM_TRANSFER)) <= 0) {
+                    failure = "Invalid Transfer amount: Must be above 50";
+                } else if (!hasMinorUnitPrecision(item.amount())) {
+                    failure = "Invalid Transfer amount: At most 2 decimal places";
+                } else if (item.description() == null || item.description().trim().isEmpty()) {
+                    failure = "Description cannot be empty";
+                } else if (receiver == null) {
+                    failure = "Receiver Account Not Found";
+                    failureCode = TRANSACTION_INVALID_ACCOUNT;
+                } else if (receiver.getAccountId().equals(senderAccount.getAccountId())) {
+                    failure = "Account Number belongs to Customer: Request Invalid";
+                    failureCode = TRANSACTION_INVALID_ACCOUNT;
+                } else if (!receiver.getCurrencyType().equals(senderAccount.getCurrencyType())) {
+                    failure = "Accounts are of different Currencies";
+                }
+
+                if (failure != null) {
+                    results[i] = new BatchTransferItemResultDto(i, item == null ? null : item.accountNumber(),
+                            item == null ? null : item.amount(), null, failureCode, failure);
+                    continue;
+                }
+                BigDecimal charges = feeEngine.charges(Money.of(item.amount(), senderAccount.getCurrencyType()),
+                        senderAccount.getAccountType(), TransactionType.TRANSFER).toBigDecimal();
+                legs.add(new TransferEngine.BatchLeg(i, receiver.getAccountId(), item.amount(), charges, item.description()));
+                results[i] = new BatchTransferItemResultDto(i, item.accountNumber(), item.amount(),
+                        charges, TRANSACTION_SUCCESS, "Transfer successful");
+            }
+
+            // Step 4: Perform the Transfers
+            BigDecimal balance = hotAccountService.totalBalance(senderAccount);
+            if (!legs.isEmpty()) {
+                TransferEngine.BatchOutcome outcome = accountLockManager.withLock(senderAccount.getAccountNumber(),
+                        () -> transferEngine.transferBatch(senderAccount.getAccountId(), legs));
+                for (Integer index : outcome.insufficientFunds()) {
+                    BatchTransferItemResultDto result = results[index];
+                    results[index] = new BatchTransferItemResultDto(index, result.accountNumber(), result.amount(),
+                            result.charges(), TRANSACTION_INSUFFICIENT_FUNDS, "Insufficient Funds to make transfer");
+                }
+                balance = hotAccountService.totalBalance(outcome.sender());
+            }
+
+            int succeeded = 0;
+            for (BatchTransferItemResultDto result : results) {
+                if (result.statusCode() == TRANSACTION_SUCCESS) succeeded++;
+            }
+            log.info("Batch transfer from {} completed: {} of {} succeeded", senderAccount.getAccountNumber(), succeeded, items.size());
+
+            response.setStatusCode(succeeded == items.size() ? TRANSACTION_SUCCESS : TRANSACTION_FAILED);
+            response.setStatusMessage(String.format("%d of %d transfers successful", succeeded, items.size()));
+            response.setData(new BatchTransferResultDto(items.size(), succeeded, items.size() - succeeded,
+                    balance.setScale(2, RoundingMode.CEILING), getLastUpdatedAt(), List.of(results)));
+
+        } catch (ResourceNotFoundException e){
+            throw new ResourceNotFoundException(e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Unexpected Error Occurred while Making Batch Transfer: {}", e.getMessage());
+            response.setStatusCode(GENERIC_ERROR);
+            response.setStatusMessage("Unexpected Error Occurred: " + e.getMessage());
+        }
         return response;
     }
 
@@ -406,16 +655,16 @@ public class AccountServiceImpl implements AccountService {
             }
 
             // Step 2: Calculate Charges and Total Amount
-            BigDecimal transferAmount = requestBody.amount();
-            BigDecimal charges = calculateCharges(transferAmount, existingSenderaccount);
-            BigDecimal totalAmount = transferAmount.add(charges);
+            Money transferAmount = Money.of(requestBody.amount(), existingSenderaccount.getCurrencyType());
+            Money charges = feeEngine.charges(transferAmount, existingSenderaccount.getAccountType(), TransactionType.TRANSFER);
+            Money totalAmount = transferAmount.plus(charges);
 
             // Step 3: Transfer Summary DTO to display Data.
             log.info("Populating Summary Data for Transaction");
             TransactionSummaryDto summary = new TransactionSummaryDto(
-                    transferAmount,
-                    charges.setScale(2, RoundingMode.CEILING),
-                    totalAmount.setScale(2, RoundingMode.CEILING)
+                    requestBody.amount(),
+                    charges.toBigDecimal(),
+                    totalAmount.toBigDecimal()
             );
 
             response.setStatusCode(SUCCESS);
@@ -430,11 +679,323 @@ public class AccountServiceImpl implements AccountService {
         return response;
     }
 
+    /**
+        Method to set up a Standing Order: a Transfer repeated at every occurrence of a cron expression
+        The Receiver, Amount and PIN are validated now; each occurrence is run by ScheduledTransferExecutor.
+    * */
+    @Override
+    public DefaultApiResponse<ScheduledTransferDto> createScheduledTransfer(ScheduledTransferRequestDto requestBody) {
+        verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
+        DefaultApiResponse<ScheduledTransferDto> response = new DefaultApiResponse<>();
+        String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
+
+        try {
+            // Step 1: Retrieve Sender and Receiver Accounts
+            Account senderAccount = accountRepository.findAccountByCustomer_Email(userEmail).orElseThrow(
+                    () -> new ResourceNotFoundException("Customer Account Not Found"));
+            Optional<Account> receiverAccount = accountRepository.findByAccountNumber(requestBody.accountNumber());
+            if (receiverAccount.isEmpty()) {
+                response.setStatusCode(TRANSACTION_INVALID_ACCOUNT);
+                response.setStatusMessage("Receiver Account Not Found");
+                return response;
+            }
+            Account receiver = receiverAccount.get();
+            if (receiver.getAccountId().equals(senderAccount.getAccountId())) {
+                response.setStatusCode(TRANSACTION_INVALID_ACCOUNT);
+                response.setStatusMessage("Account Number belongs to Customer: Request Invalid");
+                return response;
+            }
+            if (!receiver.getCurrencyType().equals(senderAccount.getCurrencyType())) {
+                response.setStatusCode(TRANSACTION_FAILED);
+                response.setStatusMessage("Accounts are of different Currencies");
+                return response;
+            }
+
+            // Step 2: Validate Amount, Description and Schedule
+            String failure = null;
+            if (requestBody.amount() == null || requestBody.amount().compareTo(BigDecimal.valueOf(MINIMUM_TRANSFER)) <= 0) {
+                failure = "Invalid Transfer amount: Must be above 50";
+            } else if (!hasMinorUnitPrecision(requestBody.amount())) {
+                failure = "Invalid Transfer amount: At most 2 decimal places";
+            } else if (requestBody.description() == null || requestBody.description().trim().isEmpty()) {
+                failure = "Description cannot be empty";
+            } else if (requestBody.runs() != null && requestBody.runs() < 1) {
+                failure = "Number of runs must be at least 1";
+            } else if (requestBody.cron() == null || !CronExpression.isValidExpression(requestBody.cron())) {
+                failure = "Invalid schedule: expected a cron expression with seconds, e.g. 0 0 9 1 * *";
+            } else if (scheduledTransferRepository.countBySenderAccountIdAndStatus(senderAccount.getAccountId(),
+                    ScheduledTransferStatus.ACTIVE) >= maxScheduledTransfers) {
+                failure = String.format("At most %d scheduled transfers can be active at once", maxScheduledTransfers);
+            }
+            LocalDateTime firstRun = null;
+            if (failure == null) {
+                CronExpression cron = CronExpression.parse(requestBody.cron());
+                firstRun = cron.next(LocalDateTime.now());
+                LocalDateTime secondRun = firstRun == null ? null : cron.next(firstRun);
+                if (firstRun == null) {
+                    failure = "Invalid schedule: it never runs";
+                } else if (secondRun != null && secondRun.isBefore(firstRun.plusMinutes(minScheduleIntervalMinutes))) {
+                    failure = String.format("Invalid schedule: runs must be at least %d minutes apart", minScheduleIntervalMinutes);
+                }
+            }
+            if (failure != null) {
+                response.setStatusCode(TRANSACTION_FAILED);
+                response.setStatusMessage(failure);
+                return response;
+            }
+
+            // Step 3: Validate PIN
+            if (!validateHashedPin(senderAccount, String.valueOf(requestBody.hashedPin()))) {
+                log.info("Incorrect Pin to set up scheduled transfer");
+                response.setStatusCode(TRANSACTION_FAILED);
+                response.setStatusMessage("Incorrect Pin to perform transfer operation");
+                return response;
+            }
+
+            // Step 4: Save the Standing Order, completing its Idempotency-Key in the same transaction
+            IdempotencyService.Lease lease = IdempotencyService.currentLease();
+            LocalDateTime nextRunAt = firstRun;
+            ScheduledTransfer schedule = transactionTemplate.execute(status -> {
+                if (lease != null) {
+                    idempotencyService.complete(lease);
+                }
+                return scheduledTransferRepository.save(ScheduledTransfer.builder()
+                        .senderAccountId(senderAccount.getAccountId())
+                        .receiverAccountId(receiver.getAccountId())
+                        .receiverAccountNumber(receiver.getAccountNumber())
+                        .amount(requestBody.amount())
+                        .description(requestBody.description())
+                        .cronExpression(requestBody.cron())
+                        .nextRunAt(nextRunAt)
+                        .remainingRuns(requestBody.runs())
+                        .status(ScheduledTransferStatus.ACTIVE)
+                        .createdAt(LocalDateTime.now())
+                        .build());
+            });
+            log.info("Scheduled transfer {} from account {} first runs {}", schedule.getScheduleId(),
+                    senderAccount.getAccountNumber(), firstRun);
+
+            response.setStatusCode(SUCCESS);
+            response.setStatusMessage("Scheduled transfer created");
+            response.setData(toScheduledTransferDto(schedule));
+        } catch (ResourceNotFoundException e) {
+            throw new ResourceNotFoundException(e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Unexpected Error Occurred while creating Scheduled Transfer: {}", e.getMessage());
+            response.setStatusCode(GENERIC_ERROR);
+            response.setStatusMessage("Unexpected Error Occurred: " + e.getMessage());
+        }
+        return response;
+    }
+
+    @Override
+    public DefaultApiResponse<List<ScheduledTransferDto>> getScheduledTransfers() {
+        verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
+        DefaultApiResponse<List<ScheduledTransferDto>> response = new DefaultApiResponse<>();
+        String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
+        Long accountId = accountRepository.findAccountByCustomer_Email(userEmail).orElseThrow(
+                () -> new ResourceNotFoundException("Customer Account Not Found")).getAccountId();
+
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Scheduled transfers");
+        response.setData(scheduledTransferRepository.findBySenderAccountIdOrderByScheduleIdAsc(accountId).stream()
+                .map(AccountServiceImpl::toScheduledTransferDto)
+                .toList());
+        return response;
+    }
+
+    /**
+        Method to cancel a Standing Order
+        An occurrence already running is rolled back unless it committed first.
+    * */
+    @Override
+    public DefaultApiResponse<ScheduledTransferDto> cancelScheduledTransfer(Long scheduleId) {
+        verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
+        DefaultApiResponse<ScheduledTransferDto> response = new DefaultApiResponse<>();
+        String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
+        Long accountId = accountRepository.findAccountByCustomer_Email(userEmail).orElseThrow(
+                () -> new ResourceNotFoundException("Customer Account Not Found")).getAccountId();
+
+        ScheduledTransfer schedule = scheduledTransferRepository.findByScheduleIdAndSenderAccountId(scheduleId, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scheduled Transfer Not Found"));
+        if (schedule.getStatus() == ScheduledTransferStatus.ACTIVE) {
+            schedule.setStatus(ScheduledTransferStatus.CANCELLED);
+            schedule = scheduledTransferRepository.save(schedule);
+            log.info("Scheduled transfer {} cancelled", scheduleId);
+        }
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Scheduled transfer cancelled");
+        response.setData(toScheduledTransferDto(schedule));
+        return response;
+    }
+
+    @Override
+    public DefaultApiResponse<List<ScheduledTransferRunDto>> getScheduledTransferRuns(Long scheduleId, int limit) {
+        verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
+        DefaultApiResponse<List<ScheduledTransferRunDto>> response = new DefaultApiResponse<>();
+        String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
+        Long accountId = accountRepository.findAccountByCustomer_Email(userEmail).orElseThrow(
+                () -> new ResourceNotFoundException("Customer Account Not Found")).getAccountId();
+        scheduledTransferRepository.findByScheduleIdAndSenderAccountId(scheduleId, accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Scheduled Transfer Not Found"));
+
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Scheduled transfer runs, newest first");
+        response.setData(scheduledTransferRunRepository
+                .findByScheduleIdOrderByRunIdDesc(scheduleId, Limit.of(Math.max(1, Math.min(limit, MAX_STATEMENT_PAGE_SIZE))))
+                .stream()
+                .map(run -> new ScheduledTransferRunDto(run.getDueAt(), run.getExecutedAt(), run.getOutcome(), run.getMessage()))
+                .toList());
+        return response;
+    }
+
+    private static ScheduledTransferDto toScheduledTransferDto(ScheduledTransfer schedule) {
+        return new ScheduledTransferDto(schedule.getScheduleId(), schedule.getReceiverAccountNumber(), schedule.getAmount(),
+                schedule.getDescription(), schedule.getCronExpression(), schedule.getNextRunAt(), schedule.getRemainingRuns(),
+                schedule.getStatus());
+    }
+
+    /**
+     * One page of the customer's statement, newest first. The first page is requested without a cursor;
+     * each page carries the cursor for the next, and the last page has none.
+     */
+    @Override
+    public DefaultApiResponse<StatementPageDto> getBankStatement(StatementQueryDto query) {
+        verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
+        DefaultApiResponse<StatementPageDto> response = new DefaultApiResponse<>();
+        String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
+
+        int size = query.size() == null ? DEFAULT_STATEMENT_PAGE_SIZE : query.size();
+        if (size < 1 || size > MAX_STATEMENT_PAGE_SIZE) {
+            response.setStatusCode(VALIDATION_ERROR);
+            response.setStatusMessage(String.format("Page size must be between 1 and %d", MAX_STATEMENT_PAGE_SIZE));
+            return response;
+        }
+        LocalDateTime from = statementFrom(query);
+        LocalDateTime to = statementTo(query);
+        if (!from.isBefore(to)) {
+            response.setStatusCode(VALIDATION_ERROR);
+            response.setStatusMessage("Statement start date must not be after its end date");
+            return response;
+        }
+
+        try {
+            // Without a cursor, start just before the end of the range
+            StatementCursor after = query.cursor() == null ? new StatementCursor(to, 0) : StatementCursor.decode(query.cursor());
+            if (after.transactionDate().isAfter(to)) {
+                after = new StatementCursor(to, 0);
+            }
+
+            Long accountId = accountRepository.findIdByCustomerEmail(userEmail)
+                    .orElseThrow(() -> new ResourceNotFoundException("Customer Account Not Found"));
+
+            // One line more than the page shows whether there is a next page
+            List<StatementLineDto> lines = transactionRepository.findStatementPage(accountId, from,
+                    after.transactionDate(), after.transactionId(), query.type(), query.category(), Limit.of(size + 1));
+            String nextCursor = null;
+            if (lines.size() > size) {
+                lines = lines.subList(0, size);
+                StatementLineDto last = lines.getLast();
+                nextCursor = new StatementCursor(last.transactionDate(), last.transactionId()).encode();
+            }
+
+            response.setStatusCode(SUCCESS);
+            response.setStatusMessage("Bank statement");
+            response.setData(new StatementPageDto(lines, nextCursor));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected statement request: {}", e.getMessage());
+            response.setStatusCode(VALIDATION_ERROR);
+            response.setStatusMessage(e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Unexpected Error Occurred while fetching Bank Statement: {}", e.getMessage());
+            response.setStatusCode(GENERIC_ERROR);
+            response.setStatusMessage("Unexpected Error Occurred: " + e.getMessage());
+        }
+        return response;
+    }
+
+    /**
+     * The customer's balance at the close of a past day (or so far today), from the nearest end-of-day
+     * snapshot rather than the whole statement history.
+     */
+    @Override
+    public DefaultApiResponse<BalanceAsOfDto> getBalanceAsOf(LocalDate date) {
+        verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
+        DefaultApiResponse<BalanceAsOfDto> response = new DefaultApiResponse<>();
+        String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
+
+        if (date == null || date.isAfter(LocalDate.now())) {
+            response.setStatusCode(VALIDATION_ERROR);
+            response.setStatusMessage("Balance date must be today or earlier");
+            return response;
+        }
+
+        Optional<Account> account = accountRepository.findAccountByCustomer_Email(userEmail);
+        if (account.isEmpty()) {
+            log.warn("Account not found for customer: {}", userEmail);
+            response.setStatusCode(RESOURCE_NOT_FOUND_EXCEPTION);
+            response.setStatusMessage("Customer Account Not Found");
+            return response;
+        }
+
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Customer Balance");
+        response.setData(new BalanceAsOfDto(account.get().getAccountNumber(), date,
+                balanceHistoryService.balanceAsOf(account.get(), date), account.get().getCurrencyType()));
+        return response;
+    }
+
+    /**
+     * The customer's statement between the query's dates, filtered by its type and category, as a file
+     * to stream. Cursor and page size do not apply to an export.
+     */
+    @Override
+    public DefaultApiResponse<StatementExportDto> exportBankStatement(StatementQueryDto query, StatementFormat format, boolean gzip) {
+        verifyTokenExpiration(CUSTOMER_ACCESS_TOKEN());
+        DefaultApiResponse<StatementExportDto> response = new DefaultApiResponse<>();
+        String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
+
+        LocalDateTime from = statementFrom(query);
+        LocalDateTime to = statementTo(query);
+        if (!from.isBefore(to)) {
+            response.setStatusCode(VALIDATION_ERROR);
+            response.setStatusMessage("Statement start date must not be after its end date");
+            return response;
+        }
+
+        Optional<Long> accountId = accountRepository.findIdByCustomerEmail(userEmail);
+        if (accountId.isEmpty()) {
+            log.warn("Account not found for customer: {}", userEmail);
+            response.setStatusCode(RESOURCE_NOT_FOUND_EXCEPTION);
+            response.setStatusMessage("Customer Account Not Found");
+            return response;
+        }
+
+        String fileName = String.format("statement-%s-%s.%s%s", query.from() == null ? "start" : query.from(),
+                query.to() == null ? LocalDate.now() : query.to(), format.getExtension(), gzip ? ".gz" : "");
+        response.setStatusCode(SUCCESS);
+        response.setStatusMessage("Bank statement export");
+        response.setData(new StatementExportDto(fileName, gzip ? "application/gzip" : format.getContentType(),
+                statementExporter.export(accountId.get(), from, to, query.type(), query.category(), format, gzip)));
+        return response;
+    }
+
+    /* Start of the statement range: the first instant of the from day */
+    private static LocalDateTime statementFrom(StatementQueryDto query) {
+        return query.from() == null ? STATEMENT_START : query.from().atStartOfDay();
+    }
+
+    /* Exclusive end of the statement range: the first instant after the to day */
+    private static LocalDateTime statementTo(StatementQueryDto query) {
+        return query.to() == null ? STATEMENT_END : query.to().plusDays(1).atStartOfDay();
+    }
+
     /**
         Method to get Account Holder Name
         Would be sent to the Frontend for Customer to validate Account.
     * */
     @Override
+    @Transactional(readOnly = true)
     public String getAccountHolderName(String accountNumber){
         String userEmail = jwtService.extractUsername(CUSTOMER_ACCESS_TOKEN());
         Optional<Account> senderAccount = accountRepository.findAccountByCustomer_Email(userEmail);
@@ -454,121 +1015,19 @@ public class AccountServiceImpl implements AccountService {
         return existingAccount.getAccountHolderName();
     }
 
-    /** Method to update Balance and Transaction Data for each Account belonging to the customer */
-    private void performTransfer(Account existingSenderaccount, Account existingReceiveraccount, BigDecimal amount) {
-        log.info("Performing Transfer Transactions");
-        BigDecimal totalAmount = calculateCharges(amount, existingSenderaccount);
-        existingSenderaccount.setAccountBalance(existingSenderaccount.getAccountBalance().subtract(totalAmount));
-        existingReceiveraccount.setAccountBalance(existingReceiveraccount.getAccountBalance().add(amount));
-
-        existingReceiveraccount.setLastTransactionDate(LocalDateTime.now());
-        existingReceiveraccount.setLastTransactionDate(LocalDateTime.now());
-
-        accountRepository.save(existingSenderaccount);
-        accountRepository.save(existingReceiveraccount);
-
-        // Generates transaction Data for Sender and Receiver and saves it
-        Transaction senderTransaction = getTransaction(existingSenderaccount, amount, TransactionCategory.DEBIT, TransactionType.TRANSFER);
-        Transaction receiverTransaction = getTransaction(existingReceiveraccount, amount, TransactionCategory.CREDIT, TransactionType.TRANSFER);
-
-        transactionRepository.save(senderTransaction);
-        transactionRepository.save(receiverTransaction);
-
-        existingReceiveraccount.getTransactions().add(receiverTransaction);
-        existingSenderaccount.getTransactions().add(senderTransaction);
-
-        accountRepository.save(existingReceiveraccount);
-        accountRepository.save(existingSenderaccount);
-        log.info("Transfer transaction successful");
-    }
-
-    // Takes in the Amount, Account, Transaction Category and Type to formulate a Transaction Data
-    private Transaction getTransaction(Account account, BigDecimal amount, TransactionCategory category, TransactionType type) {
-        log.info("Populating transaction data for account {}", account.getAccountNumber());
-        BigDecimal value;
-        if(category == TransactionCategory.CREDIT){
-            value = account.getAccountBalance().subtract(amount);
-        }else{
-            value = account.getAccountBalance().add(amount);
-        }
-
-        return Transaction.builder()
-                .transactionRef(generateTransactionRef())
-                .customer(account.getCustomer())
-                .account(account)
-                .transactionType(type)
-                .transactionCategory(category)
-                .amount(amount)
-                .transactionDate(getLastUpdatedAt())
-                .balanceBeforeTransaction(value)
-                .balanceAfterTransaction(account.getAccountBalance())
-                .targetAccountNumber(account.getAccountNumber())
-                .build();
-    }
-
     // Gets the Date and Time of that Day and return it as a string
     private String getLastUpdatedAt(){
         return LocalDateTime.now().toString().replace("T", " ").substring(0, 16);
     }
 
-    // Some Mock Data for Bank Charges
-    private BigDecimal calculateCharges(BigDecimal amount, Account account) {
-        log.info("Calculating charges for account {}", account.getAccountNumber());
-        String currencyType = String.valueOf(account.getCurrencyType());
-        switch (currencyType) {
-            // Bank Charges for USD Currency
-            case "USD":
-                amount = amount.multiply(BigDecimal.valueOf(0.1));
-                if(amount.compareTo(BigDecimal.valueOf(100_000)) < 0){
-                    amount = amount.multiply(BigDecimal.valueOf(0.3));
-                }
-            // Bank Charges for NGN Currency
-            case "NGN":
-                amount = amount.multiply(BigDecimal.valueOf(0.2));
-                if(amount.compareTo(BigDecimal.valueOf(100_000)) < 0){
-                    amount = amount.multiply(BigDecimal.valueOf(0.4));
-                }
-            // Bank Charges for EUR Currency
-            case "EUR":
-                amount = amount.multiply(BigDecimal.valueOf(0.25));
-                if(amount.compareTo(BigDecimal.valueOf(100_000)) < 0){
-                    amount = amount.multiply(BigDecimal.valueOf(0.45));
-                }
-        }
-        return amount;
+    /* Amounts must be expressible in whole kobo / cents */
+    private static boolean hasMinorUnitPrecision(BigDecimal amount) {
+        return amount.stripTrailingZeros().scale() <= 2;
     }
 
-
     /** Validate Account Hashed Pin */
     private boolean validateHashedPin(@NotNull Account account, String hashedPin) {
         log.info("Validating hashed pin for account {}", account.getAccountNumber());
         return encoder.passwordEncoder().matches(hashedPin, account.getHashedPin());
     }
-
-    /** Generates Transaction Reference for Customer */
-    private String generateTransactionRef() {
-        log.info("Generating transaction ref for transactions");
-        String transactionReference;
-        do{
-            transactionReference = UUID.randomUUID().toString().substring(0,12).replace("-","");
-        }while(transactionRepository.existsByTransactionRef(transactionReference));
-        return transactionReference;
-    }
-
-
-    /* Fetch Transactions of the User for that particular Day and Sums it up*/
-    private BigDecimal getTotalTransactionAmountForToday(String id) {
-        log.info("Calculating Total Transaction Amount of {} for Customer with id: {}", LocalDateTime.now() , id);
-        String TODAY = LocalDate.now().toString();
-        List<Transaction> transactions = transactionRepository.findAllByCustomer_CustomerIdAndTransactionDateContains(id, TODAY);
-        BigDecimal totalAmount = BigDecimal.valueOf(0.0);
-        for(Transaction transaction : transactions){
-            if(transaction.getTransactionType().equals(TransactionType.DEPOSIT)){
-                continue;
-            }
-            totalAmount = totalAmount.add(transaction.getAmount());
-            log.info("Total Amount: {}" ,totalAmount);
-        }
-        return totalAmount;
-    }
 }
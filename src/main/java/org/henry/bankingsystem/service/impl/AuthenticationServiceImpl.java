@@ -2,7 +2,6 @@ package org.henry.bankingsystem.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.RandomStringUtils;
 import org.henry.bankingsystem.dto.*;
 import org.henry.bankingsystem.entity.Account;
 import org.henry.bankingsystem.entity.AuthToken;
@@ -20,6 +19,7 @@ import org.henry.bankingsystem.repository.UserRepository;
 import org.henry.bankingsystem.service.AuthenticationService;
 import org.henry.bankingsystem.service.EmailService;
 import org.henry.bankingsystem.service.JWTService;
+import org.henry.bankingsystem.utils.AccountNumberAllocator;
 import org.henry.bankingsystem.utils.OneTimePasswordUtil;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.http.converter.HttpMessageConversionException;
@@ -51,6 +51,7 @@ public class AuthenticationServiceImpl implements AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
     private final OneTimePasswordUtil oneTimePasswordUtil;
+    private final AccountNumberAllocator accountNumberAllocator;
 
     private final static BigDecimal DEFAULT_TRANSACTION_LIMIT = BigDecimal.valueOf(200_000.00);
     private final static BigDecimal DEFAULT_INTEREST_RATE = BigDecimal.valueOf(4);
@@ -404,27 +405,8 @@ public class AuthenticationServiceImpl implements AuthenticationService {
         return responseData;
     }
 
-    /* Generates Account Number for Customer */
-    private String generateAccountNumber() {
-        log.info("Generating Account Number for Customer");
-        long uniqueValue = userRepository.count();
-        String accountNumber;
-        String uniqueNumber;
-        /*
-         * Generates a random number from the characters
-         * Adds the uniqueValue to the end of uniqueNumber which changes as number of users increases
-         */
-        do{
-            uniqueNumber = RandomStringUtils.random(10 , "0123456789");
-            int subStringEnd = (10 - String.valueOf(uniqueValue).length());
-            accountNumber = uniqueNumber.substring(0, subStringEnd) + uniqueValue;
-        }while(accountRepository.existsByAccountNumber(uniqueNumber + uniqueValue));
-
-        return accountNumber;
-    }
-
     private Customer generateCustomerAndAccount(Customer newCustomer, Account newAccount, OnboardUserDto requestBody){
-        String accountNumber = generateAccountNumber();
+        String accountNumber = accountNumberAllocator.nextAccountNumber();
         String fullName = String.format("%s %s", requestBody.firstName().trim(), requestBody.lastName().trim());
 
         // Generates new Account from the RequestBody
@@ -0,0 +1,124 @@
+package org.henry.bankingsystem.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.dto.LockStripeStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fixed table of locks keyed by account number hash.
+ * Work on the same account is serialized inside the JVM before it reaches the database, so
+ * conflicting requests queue here instead of holding a pooled connection while waiting on a row lock.
+ * Two accounts can share a stripe; that only costs some parallelism, never correctness.
+ */
+@Slf4j
+@Component
+public class AccountLockManager {
+    private final Stripe[] stripes;
+    private final int mask;
+    private final long maxWaitMillis;
+
+    public AccountLockManager(@Value("${banking.locks.stripes:256}") int stripeCount,
+                              @Value("${banking.locks.max-wait-millis:5000}") long maxWaitMillis) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+        this.maxWaitMillis = maxWaitMillis;
+        log.info("Account lock table initialised with {} stripes", size);
+    }
+
+    /* Runs the work while holding the stripe of a single account */
+    public <T> T withLock(String accountNumber, Supplier<T> work) {
+        Stripe stripe = stripes[stripeIndex(accountNumber)];
+        acquire(stripe);
+        try {
+            return work.get();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /* Runs the work while holding the stripes of both accounts, always taken in ascending stripe order */
+    public <T> T withLocks(String firstAccountNumber, String secondAccountNumber, Supplier<T> work) {
+        int first = stripeIndex(firstAccountNumber);
+        int second = stripeIndex(secondAccountNumber);
+        if (first == second) {
+            return withLock(firstAccountNumber, work);
+        }
+        Stripe low = stripes[Math.min(first, second)];
+        Stripe high = stripes[Math.max(first, second)];
+        acquire(low);
+        try {
+            acquire(high);
+            try {
+                return work.get();
+            } finally {
+                high.lock.unlock();
+            }
+        } finally {
+            low.lock.unlock();
+        }
+    }
+
+    /* Snapshot of the contention counters for every stripe that has been used */
+    public List<LockStripeStatsDto> stripeStats() {
+        List<LockStripeStatsDto> stats = new ArrayList<>();
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[i];
+            long acquisitions = stripe.acquisitions.sum();
+            if (acquisitions == 0) {
+                continue;
+            }
+            stats.add(new LockStripeStatsDto(i, acquisitions, stripe.contended.sum(),
+                    TimeUnit.NANOSECONDS.toMicros(stripe.waitNanos.sum()),
+                    TimeUnit.NANOSECONDS.toMicros(stripe.maxWaitNanos.get())));
+        }
+        return stats;
+    }
+
+    int stripeIndex(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void acquire(Stripe stripe) {
+        stripe.acquisitions.increment();
+        if (stripe.lock.tryLock()) {
+            return;
+        }
+        stripe.contended.increment();
+        long start = System.nanoTime();
+        try {
+            if (!stripe.lock.tryLock(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new CannotAcquireLockException("Account is busy: timed out waiting for account lock");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new CannotAcquireLockException("Interrupted while waiting for account lock", ex);
+        } finally {
+            long waited = System.nanoTime() - start;
+            stripe.waitNanos.add(waited);
+            stripe.maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder contended = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+    }
+}
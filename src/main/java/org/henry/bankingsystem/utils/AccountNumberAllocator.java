@@ -0,0 +1,116 @@
+package org.henry.bankingsystem.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.henry.bankingsystem.entity.NumberSequence;
+import org.henry.bankingsystem.repository.NumberSequenceRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out 10 digit NUBAN-style account numbers: a 9 digit serial followed by a check digit
+ * computed over the bank code and the serial.
+ * Serials come from the account-number row of number_sequences, reserved a block at a time in a short
+ * transaction of their own; inside a block numbers are taken from memory with an atomic cursor, so
+ * issuing a number normally costs no database round-trip and never needs an existence check.
+ * Numbers left in a block when the node stops are skipped, so the sequence may have gaps.
+ */
+@Slf4j
+@Component
+public class AccountNumberAllocator {
+    static final String SEQUENCE_NAME = "account-number";
+    static final long MAX_SERIAL = 999_999_999L;
+    private static final int[] NUBAN_WEIGHTS = {3, 7, 3, 3, 7, 3, 3, 7, 3, 3, 7, 3};
+
+    private final NumberSequenceRepository numberSequenceRepository;
+    private final TransactionTemplate requiresNew;
+    private final String bankCode;
+    private final int blockSize;
+    private final long firstSerial;
+
+    private volatile Block current = new Block(0, 0);
+
+    /* Serials [next, end) reserved by this node */
+    private record Block(AtomicLong next, long end) {
+        Block(long start, long end) {
+            this(new AtomicLong(start), end);
+        }
+    }
+
+    public AccountNumberAllocator(NumberSequenceRepository numberSequenceRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${banking.account-number.bank-code:999}") String bankCode,
+                                  @Value("${banking.account-number.block-size:1000}") int blockSize,
+                                  @Value("${banking.account-number.first-serial:100000000}") long firstSerial) {
+        if (!bankCode.matches("\\d{3}")) {
+            throw new IllegalArgumentException("banking.account-number.bank-code must be 3 digits");
+        }
+        this.numberSequenceRepository = numberSequenceRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.bankCode = bankCode;
+        this.blockSize = blockSize;
+        this.firstSerial = firstSerial;
+    }
+
+    /** Next unused account number. */
+    public String nextAccountNumber() {
+        while (true) {
+            Block block = current;
+            long serial = block.next().getAndIncrement();
+            if (serial < block.end()) {
+                return withCheckDigit(bankCode, serial);
+            }
+            synchronized (this) {
+                if (current == block) {
+                    current = reserveBlock();
+                }
+            }
+        }
+    }
+
+    private Block reserveBlock() {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Block block = requiresNew.execute(status -> {
+                    NumberSequence sequence = numberSequenceRepository.findByNameForUpdate(SEQUENCE_NAME)
+                            .orElseGet(() -> numberSequenceRepository.saveAndFlush(NumberSequence.builder()
+                                    .sequenceName(SEQUENCE_NAME)
+                                    .nextValue(firstSerial)
+                                    .build()));
+                    long start = sequence.getNextValue();
+                    long end = Math.min(start + blockSize, MAX_SERIAL + 1);
+                    if (start > MAX_SERIAL) {
+                        throw new IllegalStateException("Account number serials are exhausted");
+                    }
+                    sequence.setNextValue(end);
+                    return new Block(start, end);
+                });
+                log.info("Reserved account number serials {} to {}", block.next().get(), block.end() - 1);
+                return block;
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the sequence row first; lock and use it instead
+                if (attempt >= 3) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /* NUBAN check digit over the 3 digit bank code and 9 digit serial */
+    static String withCheckDigit(String bankCode, long serial) {
+        String serialDigits = String.format("%09d", serial);
+        String digits = bankCode + serialDigits;
+        int sum = 0;
+        for (int i = 0; i < NUBAN_WEIGHTS.length; i++) {
+            sum += (digits.charAt(i) - '0') * NUBAN_WEIGHTS[i];
+        }
+        int checkDigit = (10 - sum % 10) % 10;
+        return serialDigits + checkDigit;
+    }
+}
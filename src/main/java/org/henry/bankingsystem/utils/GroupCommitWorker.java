@@ -0,0 +1,135 @@
+package org.henry.bankingsystem.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Fixed set of single-threaded workers, each draining its own bounded queue in batches.
+ * Items are routed to a worker by key, so items with the same key are always handled by the same
+ * thread in submission order. Whatever has queued up while the previous batch was being handled
+ * (up to maxBatch items) is passed to the batch handler in one call, which is where owners commit
+ * the whole batch in a single transaction. A linger time makes a worker wait briefly for a batch to
+ * fill instead of handing over a single item.
+ * <p>
+ * The batch handler must not throw and must complete every item itself, failed batches included;
+ * the list it receives is reused once it returns. Items still queued when {@link #close} stops
+ * waiting for the workers are passed to the abandon handler instead, which must complete them too.
+ */
+@Slf4j
+public class GroupCommitWorker<T> implements AutoCloseable {
+    private final String name;
+    private final List<BlockingQueue<T>> queues;
+    private final List<Thread> threads;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final Consumer<List<T>> batchHandler;
+    private final Consumer<T> abandonHandler;
+    private volatile boolean running = true;
+
+    public GroupCommitWorker(String name, int workers, int queueCapacity, int maxBatch, long lingerMicros,
+                             Consumer<List<T>> batchHandler, Consumer<T> abandonHandler) {
+        this.name = name;
+        this.maxBatch = maxBatch;
+        this.lingerNanos = TimeUnit.MICROSECONDS.toNanos(lingerMicros);
+        this.batchHandler = batchHandler;
+        this.abandonHandler = abandonHandler;
+        this.queues = new ArrayList<>(workers);
+        this.threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            BlockingQueue<T> queue = new ArrayBlockingQueue<>(queueCapacity);
+            Thread thread = new Thread(() -> drain(queue), String.format("%s-%d", name, i));
+            thread.setDaemon(true);
+            queues.add(queue);
+            threads.add(thread);
+        }
+        threads.forEach(Thread::start);
+        log.info("Started {} with {} workers, queue capacity {} and batches of up to {}", name, workers, queueCapacity, maxBatch);
+    }
+
+    /**
+     * Queues the item on the worker owning the key.
+     *
+     * @throws RejectedExecutionException if that worker's queue is full or the workers are shut down
+     */
+    public void submit(long key, T item) {
+        if (!running) {
+            throw new RejectedExecutionException(name + " is shut down");
+        }
+        BlockingQueue<T> queue = queues.get(Math.floorMod(Long.hashCode(key), queues.size()));
+        if (!queue.offer(item)) {
+            throw new RejectedExecutionException(name + " is at capacity, try again later");
+        }
+        // Shut down meanwhile: take the item back unless a worker or close() has already taken it over
+        if (!running && queue.remove(item)) {
+            throw new RejectedExecutionException(name + " is shut down");
+        }
+    }
+
+    /** Items waiting in each worker's queue. */
+    public List<Integer> queueDepths() {
+        return queues.stream().map(BlockingQueue::size).toList();
+    }
+
+    private void drain(BlockingQueue<T> queue) {
+        List<T> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                T first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                if (lingerNanos > 0 && queue.size() < maxBatch - 1) {
+                    LockSupport.parkNanos(lingerNanos);
+                }
+                queue.drainTo(batch, maxBatch - 1);
+                batchHandler.accept(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("{} failed to handle a batch of {} items", name, batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /* Stops taking new items and waits for queued ones to be handled */
+    @Override
+    public void close() {
+        close(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /* Waits up to timeoutMillis per worker, then hands whatever is still queued to the abandon handler */
+    void close(long timeoutMillis) {
+        running = false;
+        for (Thread thread : threads) {
+            try {
+                thread.join(timeoutMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<T> abandoned = new ArrayList<>();
+        queues.forEach(queue -> queue.drainTo(abandoned));
+        if (!abandoned.isEmpty()) {
+            log.warn("{} stopped with {} items not handled", name, abandoned.size());
+            abandoned.forEach(abandonHandler);
+        }
+        long busy = threads.stream().filter(Thread::isAlive).count();
+        if (busy > 0) {
+            log.warn("{} stopped with {} workers still handling a batch", name, busy);
+        }
+        log.info("Stopped {}", name);
+    }
+}
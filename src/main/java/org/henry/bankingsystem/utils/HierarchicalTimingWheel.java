@@ -0,0 +1,133 @@
+package org.henry.bankingsystem.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Timers kept in a hierarchy of circular wheels, so adding a timer and expiring it are both O(1)
+ * however many are pending. Level 0 has wheelSize buckets of tickMillis each; every level above has
+ * buckets as wide as the whole level below, and levels are added as timers further out arrive. A
+ * timer sits in the finest level whose span reaches its due time and moves down a level each time its
+ * bucket comes round, until it expires from level 0 in the tick that contains its due time.
+ * <p>
+ * The wheel does not keep time itself: its owner calls {@link #advance} as the clock moves, typically
+ * once per tick. Thread-safe.
+ */
+public final class HierarchicalTimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final List<Level<T>> levels = new ArrayList<>();
+    private long currentTime;
+    private int size;
+
+    private record Timer<T>(T item, long dueMillis) {}
+
+    /* One wheel: wheelSize buckets of tick millis, starting at currentTime */
+    private static final class Level<T> {
+        final long tick;
+        final long span;
+        final ArrayDeque<Timer<T>>[] buckets;
+        long currentTime;
+
+        @SuppressWarnings("unchecked")
+        Level(long tick, int wheelSize, long now) {
+            this.tick = tick;
+            this.span = Math.multiplyExact(tick, wheelSize);
+            this.buckets = new ArrayDeque[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new ArrayDeque<>();
+            }
+            this.currentTime = now - Math.floorMod(now, tick);
+        }
+
+        ArrayDeque<Timer<T>> bucketFor(long time) {
+            return buckets[(int) Math.floorMod(Math.floorDiv(time, tick), (long) buckets.length)];
+        }
+    }
+
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis < 1 || wheelSize < 2) {
+            throw new IllegalArgumentException("A timing wheel needs a tick of at least 1ms and at least 2 buckets");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+        levels.add(new Level<>(tickMillis, wheelSize, currentTime));
+    }
+
+    /**
+     * Schedules item for dueMillis.
+     *
+     * @return false, without scheduling it, if it is already due; the caller should run it now
+     */
+    public synchronized boolean add(T item, long dueMillis) {
+        if (!place(new Timer<>(item, dueMillis))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Moves the clock forward to nowMillis one tick at a time, handing every timer that falls due to
+     * expired, in due order to within a tick.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        List<T> due = new ArrayList<>();
+        synchronized (this) {
+            while (currentTime + tickMillis <= nowMillis) {
+                currentTime += tickMillis;
+                tick(due);
+            }
+        }
+        due.forEach(expired);
+    }
+
+    /** Number of timers waiting. */
+    public synchronized int size() {
+        return size;
+    }
+
+    /* Called with the clock just moved onto the start of a level-0 tick */
+    private void tick(List<T> due) {
+        for (Level<T> level : levels) {
+            if (Math.floorMod(currentTime, level.tick) == 0) {
+                level.currentTime = currentTime;
+            }
+        }
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            Level<T> level = levels.get(i);
+            if (level.currentTime != currentTime) {
+                continue;
+            }
+            ArrayDeque<Timer<T>> bucket = level.bucketFor(currentTime);
+            // Timers of a coarse bucket whose time has come move down to a finer level, or expire
+            for (Timer<T> timer = bucket.poll(); timer != null; timer = bucket.poll()) {
+                if (i > 0 && place(timer)) {
+                    continue;
+                }
+                size--;
+                due.add(timer.item());
+            }
+        }
+    }
+
+    /* Puts the timer in the finest level whose span reaches its due time; false if it is due within the current tick */
+    private boolean place(Timer<T> timer) {
+        if (timer.dueMillis() < currentTime + tickMillis) {
+            return false;
+        }
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                levels.add(new Level<>(levels.get(i - 1).span, wheelSize, currentTime));
+            }
+            Level<T> level = levels.get(i);
+            if (timer.dueMillis() < level.currentTime + level.span) {
+                level.bucketFor(timer.dueMillis()).add(timer);
+                return true;
+            }
+        }
+    }
+}
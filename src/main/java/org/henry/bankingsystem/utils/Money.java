@@ -0,0 +1,154 @@
+package org.henry.bankingsystem.utils;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import org.henry.bankingsystem.enums.CurrencyType;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * Immutable amount of money held as a long of minor units (kobo, cents) plus its currency.
+ * Arithmetic is exact and overflow-checked, and never mixes currencies. Rates are applied in
+ * basis points and rounded up to the next minor unit, the same way charges have always been
+ * rounded for display. Amounts enter and leave as BigDecimal at the edges (request payloads,
+ * the decimal columns of accounts and the ledger); a Money serializes to JSON as that same
+ * plain decimal number.
+ */
+public final class Money implements Comparable<Money> {
+    /* NGN, USD and EUR all have 2 decimal places */
+    static final int MINOR_DIGITS = 2;
+    private static final long MINOR_PER_MAJOR = 100;
+    private static final long BASIS_POINTS = 10_000;
+    /* Interest accrues at a fraction of a minor unit a day; accruals are kept in millionths of one */
+    public static final long MICROS_PER_MINOR = 1_000_000;
+    /* Daily interest is computed actual/365 */
+    private static final long DAYS_PER_YEAR = 365;
+
+    private final long minorUnits;
+    private final CurrencyType currency;
+
+    private Money(long minorUnits, CurrencyType currency) {
+        this.minorUnits = minorUnits;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minorUnits, CurrencyType currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money ofMajor(long majorUnits, CurrencyType currency) {
+        return new Money(Math.multiplyExact(majorUnits, MINOR_PER_MAJOR), currency);
+    }
+
+    public static Money zero(CurrencyType currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * Converts an exact decimal amount.
+     *
+     * @throws IllegalArgumentException if the amount has more decimal places than the currency or does not fit
+     */
+    public static Money of(BigDecimal amount, CurrencyType currency) {
+        try {
+            return new Money(amount.movePointRight(MINOR_DIGITS).longValueExact(), currency);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("%s is not a valid %s amount", amount.toPlainString(), currency));
+        }
+    }
+
+    public long minorUnits() {
+        return minorUnits;
+    }
+
+    public CurrencyType currency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minorUnits, sameCurrency(other).minorUnits), currency);
+    }
+
+    /** This amount times basisPoints / 10,000, rounded up to a whole minor unit. */
+    public Money applyRate(long basisPoints) {
+        return new Money(rateOf(minorUnits, basisPoints), currency);
+    }
+
+    /** Same as {@link #applyRate} on raw minor units, for callers that must not allocate. */
+    public static long rateOf(long minorUnits, long basisPoints) {
+        return Math.ceilDiv(Math.multiplyExact(minorUnits, basisPoints), BASIS_POINTS);
+    }
+
+    /**
+     * One day's interest on this amount at rateBasisPoints a year, in millionths of a minor unit,
+     * truncated; exact integer arithmetic, so summing days never drifts.
+     */
+    public long dailyInterestMicros(long rateBasisPoints) {
+        return Math.multiplyExact(Math.multiplyExact(minorUnits, rateBasisPoints), MICROS_PER_MINOR / BASIS_POINTS) / DAYS_PER_YEAR;
+    }
+
+    /**
+     * Converts a yearly percentage rate (4 or 4.25) to basis points.
+     *
+     * @throws IllegalArgumentException if the rate is negative or finer than a basis point
+     */
+    public static int basisPointsOf(BigDecimal percent) {
+        try {
+            int basisPoints = percent.movePointRight(2).intValueExact();
+            if (basisPoints < 0) {
+                throw new ArithmeticException();
+            }
+            return basisPoints;
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(String.format("%s is not a valid interest rate", percent.toPlainString()));
+        }
+    }
+
+    public boolean isLessThan(Money other) {
+        return compareTo(other) < 0;
+    }
+
+    public boolean isGreaterThan(Money other) {
+        return compareTo(other) > 0;
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    @JsonValue
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, MINOR_DIGITS);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, sameCurrency(other).minorUnits);
+    }
+
+    private Money sameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new IllegalArgumentException(String.format("Cannot combine %s with %s", currency, other.currency));
+        }
+        return other;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money money && money.minorUnits == minorUnits && money.currency == currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minorUnits) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return currency + " " + toBigDecimal().toPlainString();
+    }
+}
@@ -0,0 +1,33 @@
+package org.henry.bankingsystem.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in a bank statement: the time and id of the last line a client has been sent. The next
+ * page starts strictly after it, so lines written meanwhile never shift or repeat a page. Handed to
+ * clients as an opaque URL-safe string.
+ */
+public record StatementCursor(LocalDateTime transactionDate, long transactionId) {
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((transactionDate.toString() + SEPARATOR + transactionId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if cursor was not produced by {@link #encode()}
+     */
+    public static StatementCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf(SEPARATOR);
+            return new StatementCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid statement cursor: " + cursor);
+        }
+    }
+}
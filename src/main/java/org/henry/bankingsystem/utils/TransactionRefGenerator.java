@@ -0,0 +1,106 @@
+package org.henry.bankingsystem.utils;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style generator for transaction references.
+ * An id is 41 bits of milliseconds since 2024-01-01, 10 bits of node id and a 12 bit per-millisecond
+ * sequence, rendered as 13 Crockford base32 characters so that references sort in issue order.
+ * Ids are unique across nodes as long as every node is configured with its own banking.node-id,
+ * which has no default so that a node cannot start without one, and are handed out with a single
+ * compare-and-set; no database round-trip is needed.
+ * <p>
+ * When a millisecond's 4096 sequence numbers are used up, or the clock steps backwards, the
+ * generator waits for the clock to reach the last issued id rather than run ahead of it. Ids so
+ * never carry a time later than the clock, and a restarted node cannot reissue an id from before
+ * the restart unless its clock was set back across the restart.
+ */
+@Slf4j
+@Component
+public class TransactionRefGenerator {
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    static final int REF_LENGTH = 13;
+
+    /* Last issued (timestamp << SEQUENCE_BITS | sequence) */
+    private final AtomicLong lastIssued = new AtomicLong();
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    @Autowired
+    public TransactionRefGenerator(@Value("${banking.node-id:#{null}}") Long nodeId) {
+        this(requireNodeId(nodeId), System::currentTimeMillis);
+    }
+
+    TransactionRefGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException(String.format("banking.node-id must be between 0 and %d", MAX_NODE_ID));
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+        log.info("Transaction references are generated for node {}", nodeId);
+    }
+
+    /** Next id; strictly greater than every id this instance has issued before. */
+    public long nextId() {
+        while (true) {
+            long last = lastIssued.get();
+            long now = clock.getAsLong() - EPOCH_MILLIS;
+            long next = now > (last >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : last + 1;
+            if ((next >>> SEQUENCE_BITS) > now) {
+                awaitClock(next >>> SEQUENCE_BITS, now);
+                continue;
+            }
+            if (lastIssued.compareAndSet(last, next)) {
+                return ((next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    /* Spins through the rest of a used-up millisecond, and sleeps through a clock step-back */
+    private static void awaitClock(long target, long now) {
+        long behind = target - now;
+        if (behind <= 1) {
+            Thread.onSpinWait();
+            return;
+        }
+        log.warn("Clock is {}ms behind the last transaction reference issued, waiting for it", behind);
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(behind - 1));
+    }
+
+    private static long requireNodeId(Long nodeId) {
+        if (nodeId == null) {
+            throw new IllegalStateException(String.format(
+                    "banking.node-id is not set; give every node its own id between 0 and %d", MAX_NODE_ID));
+        }
+        return nodeId;
+    }
+
+    /** Next reference as 13 Crockford base32 characters. */
+    public String nextRef() {
+        return encode(nextId());
+    }
+
+    static String encode(long id) {
+        char[] ref = new char[REF_LENGTH];
+        for (int i = REF_LENGTH - 1; i >= 0; i--) {
+            ref[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(ref);
+    }
+}
@@ -0,0 +1,78 @@
+package org.henry.bankingsystem;
+
+import lombok.RequiredArgsConstructor;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.AuthToken;
+import org.henry.bankingsystem.entity.Customer;
+import org.henry.bankingsystem.enums.AccountType;
+import org.henry.bankingsystem.enums.CurrencyType;
+import org.henry.bankingsystem.repository.TokenRepository;
+import org.henry.bankingsystem.repository.UserRepository;
+import org.henry.bankingsystem.service.JWTService;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Customers and accounts for tests against the shared database. Every test uses its own account
+ * numbers, and a customer is named after its first account number, so tests never see each other's
+ * rows. Start from {@link #account} and override what the test depends on.
+ */
+@Component
+@RequiredArgsConstructor
+public class TestAccounts {
+    private final UserRepository userRepository;
+    private final TokenRepository tokenRepository;
+    private final JWTService jwtService;
+
+    /* A SAVINGS account holding 1,000.00 in NGN at 4%, opened now */
+    public static Account.AccountBuilder account(String accountNumber) {
+        return Account.builder()
+                .accountNumber(accountNumber).accountHolderName("Test Customer").accountType(AccountType.SAVINGS)
+                .accountBalance(new BigDecimal("1000.00")).transactionLimit(new BigDecimal("200000"))
+                .dateOpened(Instant.now()).isActive(true).hashedPin("not-used")
+                .currencyType(CurrencyType.NGN).interestRate(BigDecimal.valueOf(4))
+                .lastTransactionDate(LocalDateTime.now());
+    }
+
+    public static String emailOf(String accountNumber) {
+        return "customer" + accountNumber + "@example.com";
+    }
+
+    /* Saves the account under a new customer of its own */
+    public Account save(Account.AccountBuilder account) {
+        return save(UnaryOperator.identity(), account).getFirst();
+    }
+
+    /* Saves the accounts under one new customer, in order */
+    public List<Account> save(Account.AccountBuilder... accounts) {
+        return save(UnaryOperator.identity(), accounts);
+    }
+
+    /* Saves the accounts under one new customer, adjusted by customer before it is saved */
+    public List<Account> save(UnaryOperator<Customer.CustomerBuilder> customer, Account.AccountBuilder... accounts) {
+        Account first = accounts[0].build();
+        String email = emailOf(first.getAccountNumber());
+        Customer saved = customer.apply(Customer.builder()
+                        .firstName("Test").lastName("Customer").username(email).email(email)
+                        .password("not-used").phoneNumber(first.getAccountNumber())
+                        .isSuspended(false).isEnabled(true).accounts(new ArrayList<>()))
+                .build();
+        Arrays.stream(accounts).map(account -> account.customer(saved).build()).forEach(saved.getAccounts()::add);
+        return userRepository.save(saved).getAccounts();
+    }
+
+    /* Issues an access token to the account's customer, as a login does; returns the Authorization header */
+    public String bearerOf(Account account) {
+        String accessToken = jwtService.createJWT(account.getCustomer());
+        tokenRepository.save(AuthToken.builder().customer(account.getCustomer()).accessToken(accessToken)
+                .refreshToken(accessToken + ".refresh").build());
+        return "Bearer " + accessToken;
+    }
+}
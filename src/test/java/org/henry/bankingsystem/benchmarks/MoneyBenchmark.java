@@ -0,0 +1,63 @@
+package org.henry.bankingsystem.benchmarks;
+
+import org.henry.bankingsystem.enums.CurrencyType;
+import org.henry.bankingsystem.utils.Money;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer charge and funds check as done per request: the BigDecimal version as it was in
+ * AccountServiceImpl against the same steps on Money.
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=org.henry.bankingsystem.benchmarks.MoneyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    private final BigDecimal amountDecimal = new BigDecimal("123456.78");
+    private final BigDecimal balanceDecimal = new BigDecimal("9876543.21");
+    private final Money amount = Money.of(amountDecimal, CurrencyType.NGN);
+    private final Money balance = Money.of(balanceDecimal, CurrencyType.NGN);
+
+    @Benchmark
+    public boolean bigDecimal() {
+        BigDecimal charges = amountDecimal.multiply(BigDecimal.valueOf(0.2));
+        if (charges.compareTo(BigDecimal.valueOf(100_000)) < 0) {
+            charges = charges.multiply(BigDecimal.valueOf(0.4));
+        }
+        charges = charges.multiply(BigDecimal.valueOf(0.25));
+        if (charges.compareTo(BigDecimal.valueOf(100_000)) < 0) {
+            charges = charges.multiply(BigDecimal.valueOf(0.45));
+        }
+        charges = charges.setScale(2, RoundingMode.CEILING);
+        return amountDecimal.add(charges).compareTo(balanceDecimal) > 0;
+    }
+
+    @Benchmark
+    public boolean money() {
+        Money threshold = Money.ofMajor(100_000, CurrencyType.NGN);
+        Money charges = amount.applyRate(2_000);
+        if (charges.isLessThan(threshold)) {
+            charges = charges.applyRate(4_000);
+        }
+        charges = charges.applyRate(2_500);
+        if (charges.isLessThan(threshold)) {
+            charges = charges.applyRate(4_500);
+        }
+        return amount.plus(charges).isGreaterThan(balance);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MoneyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,48 @@
+package org.henry.bankingsystem.benchmarks;
+
+import org.henry.bankingsystem.utils.TransactionRefGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of issuing one transaction reference, against the UUID substring it replaced
+ * (which additionally paid an existsByTransactionRef query per reference).
+ * Run with: mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=org.henry.bankingsystem.benchmarks.TransactionRefGeneratorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionRefGeneratorBenchmark {
+    private final TransactionRefGenerator generator = new TransactionRefGenerator(1L);
+
+    @Benchmark
+    @Threads(1)
+    public String snowflakeSingleThread() {
+        return generator.nextRef();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String snowflakeContended() {
+        return generator.nextRef();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String uuidSubstring() {
+        return UUID.randomUUID().toString().substring(0, 12).replace("-", "");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TransactionRefGeneratorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,75 @@
+package org.henry.bankingsystem.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingDataSourceTest {
+
+    @AfterEach
+    void clearCaller() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void sendsReadOnlyTransactionsToReplicasUnlessTheCallerJustWrote() {
+        ReadReplicaRoutingDataSource routing = new ReadReplicaRoutingDataSource(database("primary"),
+                List.of(database("replica-a"), database("replica-b")), 60_000);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        // Given up front, so the proxy does not open a connection to read them
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.setTargetDataSource(routing);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        TransactionTemplate readWrite = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        TransactionTemplate readOnly = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        readOnly.setReadOnly(true);
+
+        assertThat(origin(readWrite, jdbcTemplate)).isEqualTo("primary");
+        assertThat(List.of(
+                origin(readOnly, jdbcTemplate),
+                origin(readOnly, jdbcTemplate)))
+                .containsExactlyInAnyOrder("replica-a", "replica-b");
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("writer@example.com", null, List.of()));
+        routing.recordWrite("writer@example.com");
+        assertThat(origin(readOnly, jdbcTemplate)).isEqualTo("primary");
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("reader@example.com", null, List.of()));
+        assertThat(origin(readOnly, jdbcTemplate)).startsWith("replica");
+
+        assertThat(routing.stats().primaryConnections()).isEqualTo(2);
+        assertThat(routing.stats().replicaConnections()).isEqualTo(3);
+        assertThat(routing.stats().staleGuardFallbacks()).isEqualTo(1);
+    }
+
+    /* Name of the database the transaction's connection went to */
+    private static String origin(TransactionTemplate transactionTemplate, JdbcTemplate jdbcTemplate) {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select name from origin", String.class));
+    }
+
+    /* An embedded database that answers with its own name */
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table if not exists origin (name varchar(32))");
+        jdbcTemplate.update("delete from origin");
+        jdbcTemplate.update("insert into origin (name) values (?)", name);
+        return dataSource;
+    }
+}
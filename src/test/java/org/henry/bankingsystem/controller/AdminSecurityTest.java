@@ -0,0 +1,112 @@
+package org.henry.bankingsystem.controller;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.entity.Admin;
+import org.henry.bankingsystem.entity.AuthToken;
+import org.henry.bankingsystem.entity.Customer;
+import org.henry.bankingsystem.enums.AccountType;
+import org.henry.bankingsystem.enums.AdminRoles;
+import org.henry.bankingsystem.jobs.LedgerReconciliationJob;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.repository.AdminRepository;
+import org.henry.bankingsystem.repository.FixedDepositRepository;
+import org.henry.bankingsystem.repository.TokenRepository;
+import org.henry.bankingsystem.service.JWTService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.HashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Admin endpoints are only open to admins: a customer's token is refused before the endpoint runs.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class AdminSecurityTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private AdminRepository adminRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private FixedDepositRepository fixedDepositRepository;
+    @Autowired private TokenRepository tokenRepository;
+    @Autowired private JWTService jwtService;
+    @Autowired private LedgerReconciliationJob ledgerReconciliationJob;
+
+    @Test
+    void customersCannotCallAdminEndpoints() throws Exception {
+        String bearer = customerBearer("7600000001", AccountType.SAVINGS);
+
+        mockMvc.perform(put("/api/v1/admin/accounts/7600000001/balance-slots").param("slots", "4")
+                        .header("Authorization", bearer))
+                .andExpect(status().isForbidden());
+        assertThat(accountRepository.findByAccountNumber("7600000001").orElseThrow().isHot()).isFalse();
+    }
+
+    @Test
+    void customersCannotOpenFixedDeposits() throws Exception {
+        String bearer = customerBearer("7600000002", AccountType.FIXED_DEPOSIT);
+        Long accountId = accountRepository.findIdByAccountNumber("7600000002").orElseThrow();
+
+        mockMvc.perform(put("/api/v1/admin/accounts/7600000002/fixed-deposit").param("termDays", "30")
+                        .header("Authorization", bearer))
+                .andExpect(status().isForbidden());
+        assertThat(fixedDepositRepository.findById(accountId)).isEmpty();
+    }
+
+    @Test
+    void customersCannotReloadFees() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/fees/reload").header("Authorization", customerBearer("7600000003", AccountType.SAVINGS)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void customersCannotStartReconciliations() throws Exception {
+        mockMvc.perform(post("/api/v1/admin/reconciliation/run").header("Authorization", customerBearer("7600000004", AccountType.SAVINGS)))
+                .andExpect(status().isForbidden());
+        assertThat(ledgerReconciliationJob.isRunning()).isFalse();
+    }
+
+    @Test
+    void adminsCanCallAdminEndpoints() throws Exception {
+        String bearer = adminBearer("7600000101");
+        mockMvc.perform(get("/api/v1/admin/metrics/account-locks").header("Authorization", bearer))
+                .andExpect(status().isOk());
+
+        // The run goes to the job executor and the request returns straight away
+        mockMvc.perform(post("/api/v1/admin/reconciliation/run").header("Authorization", bearer))
+                .andExpect(status().isAccepted());
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (ledgerReconciliationJob.lastRun() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(ledgerReconciliationJob.lastRun()).isNotNull();
+    }
+
+    private String customerBearer(String accountNumber, AccountType accountType) {
+        return testAccounts.bearerOf(testAccounts.save(account(accountNumber).accountType(accountType)));
+    }
+
+    private String adminBearer(String id) {
+        String email = "admin" + id + "@example.com";
+        Admin admin = adminRepository.save(Admin.builder()
+                .firstName("Security").lastName("Admin").username(email).email(email)
+                .password("not-used").role(AdminRoles.IT_SUPPORT)
+                .build());
+
+        // Tokens are signed for a subject; only the email of this stand-in is used
+        String accessToken = jwtService.generateRefreshToken(new HashMap<>(), Customer.builder().email(email).build());
+        tokenRepository.save(AuthToken.builder().admin(admin).accessToken(accessToken).refreshToken(accessToken + ".refresh").build());
+        return "Bearer " + accessToken;
+    }
+}
@@ -0,0 +1,63 @@
+package org.henry.bankingsystem.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+import static org.henry.bankingsystem.constants.StatusCodeConstants.TRANSACTION_FAILED;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class AmountValidationTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private PasswordEncoder passwordEncoder;
+
+    @Test
+    void rejectsDepositsFinerThanAMinorUnit() throws Exception {
+        String bearer = newCustomer("7950000001");
+
+        assertThat(statusCodeOf(post("/api/v1/account/make-deposit").header("Authorization", bearer)
+                .content("{\"amountToDeposit\":500.005}"))).isEqualTo(TRANSACTION_FAILED);
+        assertThat(accountRepository.findByAccountNumber("7950000001").orElseThrow().getAccountBalance()).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    void rejectsWithdrawalsThatAreNotPositiveOrFinerThanAMinorUnit() throws Exception {
+        String bearer = newCustomer("7950000002");
+
+        for (String amount : new String[]{"0", "-100", "100.001"}) {
+            assertThat(statusCodeOf(post("/api/v1/account/withdraw").header("Authorization", bearer)
+                    .content("{\"amountToWithdraw\":" + amount + ",\"hashedPin\":1234}"))).as(amount).isEqualTo(TRANSACTION_FAILED);
+        }
+        assertThat(accountRepository.findByAccountNumber("7950000002").orElseThrow().getAccountBalance()).isEqualByComparingTo("1000.00");
+    }
+
+    private int statusCodeOf(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.statusCode");
+    }
+
+    /* A customer with one SAVINGS account holding 1,000.00 and pin 1234; returns their bearer token */
+    private String newCustomer(String accountNumber) {
+        return testAccounts.bearerOf(testAccounts.save(account(accountNumber).hashedPin(passwordEncoder.encode("1234"))));
+    }
+}
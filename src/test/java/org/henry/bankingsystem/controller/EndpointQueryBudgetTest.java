@@ -0,0 +1,327 @@
+package org.henry.bankingsystem.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.controller.QueryCountingDataSourceConfig.Usage;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.jobs.BalanceSnapshotJob;
+import org.henry.bankingsystem.repository.TransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+/**
+ * SQL statement and row budgets per endpoint. Each endpoint is called once to warm up caches and
+ * allocators, then measured on a second call; a budget is exceeded when the endpoint starts issuing
+ * more statements or reading more rows than declared here. Raise a budget only together with the
+ * change that needs it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(QueryCountingDataSourceConfig.class)
+class EndpointQueryBudgetTest {
+    private static final String PASSWORD = "Budget#2024";
+    private static final int LONG_HISTORY = 1_000_000;
+    private static final int HISTORY_CHUNK = 50_000;
+    private static final AtomicLong accountNumbers = new AtomicLong(7_000_000_000L);
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private PasswordEncoder passwordEncoder;
+    @Autowired private TransactionRepository transactionRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+    @Autowired private BalanceSnapshotJob balanceSnapshotJob;
+
+    private record TestCustomer(String email, String accountNumber, String bearer) {}
+
+    @Test
+    void onboard() throws Exception {
+        assertWithinBudget("POST /auth/onboard", 3, 0, () -> post("/auth/onboard").content(onboardBody()));
+    }
+
+    @Test
+    void login() throws Exception {
+        TestCustomer customer = newCustomer();
+        assertWithinBudget("POST /auth/login", 3, 2, () -> login(customer));
+    }
+
+    @Test
+    void refreshToken() throws Exception {
+        TestCustomer customer = newCustomer();
+        // Every refresh revokes the token it was given, so the measured call uses the one the warm-up returned
+        String refreshToken = refreshTokenOf(perform(refresh(refreshTokenOf(perform(login(customer))))));
+        Usage usage = QueryCountingDataSourceConfig.measure(() -> perform(refresh(refreshToken)));
+        assertWithinBudget("POST /auth/refresh-token", 4, 2, usage);
+    }
+
+    @Test
+    void getDetails() throws Exception {
+        TestCustomer customer = newCustomer();
+        assertWithinBudget("GET /api/v1/account/get-details", 4, 4, () -> get("/api/v1/account/get-details")
+                .header("Authorization", customer.bearer()));
+    }
+
+    @Test
+    void viewBalance() throws Exception {
+        TestCustomer customer = newCustomer();
+        assertWithinBudget("GET /api/v1/account/view-balance", 2, 2, () -> get("/api/v1/account/view-balance")
+                .header("Authorization", customer.bearer()));
+    }
+
+    @Test
+    void deposit() throws Exception {
+        TestCustomer customer = newCustomer();
+        assertWithinBudget("POST /api/v1/account/make-deposit", 9, 4, () -> post("/api/v1/account/make-deposit")
+                .header("Authorization", customer.bearer())
+                .content("{\"amountToDeposit\":1000}"));
+    }
+
+    @Test
+    void withdraw() throws Exception {
+        TestCustomer customer = newCustomer();
+        assertWithinBudget("POST /api/v1/account/withdraw", 10, 5, () -> post("/api/v1/account/withdraw")
+                .header("Authorization", customer.bearer())
+                .content("{\"amountToWithdraw\":1000,\"hashedPin\":1234}"));
+    }
+
+    @Test
+    void transfer() throws Exception {
+        TestCustomer sender = newCustomer();
+        TestCustomer receiver = newCustomer();
+        assertWithinBudget("POST /api/v1/account/make-transfer", 14, 8, () -> post("/api/v1/account/make-transfer")
+                .header("Authorization", sender.bearer())
+                .content(transferBody(receiver.accountNumber())));
+    }
+
+    @Test
+    void transferWithIdempotencyKey() throws Exception {
+        TestCustomer sender = newCustomer();
+        TestCustomer receiver = newCustomer();
+        AtomicLong keys = new AtomicLong();
+        // On top of a plain transfer: the key is reserved, marked posted inside the transfer and its response stored
+        assertWithinBudget("POST /api/v1/account/make-transfer (Idempotency-Key)", 19, 8, () -> post("/api/v1/account/make-transfer")
+                .header("Authorization", sender.bearer())
+                .header("Idempotency-Key", sender.accountNumber() + "-" + keys.incrementAndGet())
+                .content(transferBody(receiver.accountNumber())));
+    }
+
+    @Test
+    void transferFromAccountWithLongHistory() throws Exception {
+        TestCustomer sender = newCustomer();
+        TestCustomer receiver = newCustomer();
+        long accountId = addHistory(sender, LONG_HISTORY);
+
+        assertWithinBudget("POST /api/v1/account/make-transfer (1M statement lines)", 14, 8, () -> post("/api/v1/account/make-transfer")
+                .header("Authorization", sender.bearer())
+                .content(transferBody(receiver.accountNumber())));
+
+        Usage page = QueryCountingDataSourceConfig.measure(() -> assertThat(
+                transactionRepository.findPageByAccountId(accountId, PageRequest.of(0, 20)).getContent()).hasSize(20));
+        assertWithinBudget("TransactionRepository.findPageByAccountId (1M statement lines)", 1, 21, page);
+
+        String cursor = nextCursorOf(perform(statementPage(sender, null)));
+        assertWithinBudget("GET /api/v1/account/view-bank-statement (1M statement lines)", 4, 24, QueryCountingDataSourceConfig.measure(
+                () -> perform(statementPage(sender, cursor))));
+    }
+
+    @Test
+    void batchTransfer() throws Exception {
+        TestCustomer sender = newCustomer();
+        TestCustomer first = newCustomer();
+        TestCustomer second = newCustomer();
+        assertWithinBudget("POST /api/v1/account/make-transfers/batch", 13, 8, () -> post("/api/v1/account/make-transfers/batch")
+                .header("Authorization", sender.bearer())
+                .content("{\"hashedPin\":1234,\"transfers\":["
+                        + "{\"accountNumber\":\"" + first.accountNumber() + "\",\"amount\":100,\"description\":\"budget\"},"
+                        + "{\"accountNumber\":\"" + second.accountNumber() + "\",\"amount\":100,\"description\":\"budget\"}]}"));
+    }
+
+    @Test
+    void transferSummary() throws Exception {
+        TestCustomer sender = newCustomer();
+        TestCustomer receiver = newCustomer();
+        assertWithinBudget("POST /api/v1/account/get-transfer-summary", 3, 3, () -> post("/api/v1/account/get-transfer-summary")
+                .header("Authorization", sender.bearer())
+                .content(transferBody(receiver.accountNumber())));
+    }
+
+    @Test
+    void accountHolderName() throws Exception {
+        TestCustomer customer = newCustomer();
+        TestCustomer other = newCustomer();
+        assertWithinBudget("GET /api/v1/account/details", 4, 4, () -> get("/api/v1/account/details")
+                .header("Authorization", customer.bearer())
+                .param("accountNumber", other.accountNumber()));
+    }
+
+    @Test
+    void bankStatement() throws Exception {
+        TestCustomer customer = newCustomer();
+        addHistory(customer, 50);
+
+        // The second page, reached with the cursor of the first, must cost the same as the first
+        String cursor = nextCursorOf(perform(statementPage(customer, null)));
+        MvcResult[] secondPage = new MvcResult[1];
+        Usage usage = QueryCountingDataSourceConfig.measure(() -> secondPage[0] = perform(statementPage(customer, cursor)));
+        assertWithinBudget("GET /api/v1/account/view-bank-statement", 4, 24, usage);
+
+        MvcResult lastPage = perform(statementPage(customer, nextCursorOf(secondPage[0])));
+        assertThat(JsonPath.<List<?>>read(lastPage.getResponse().getContentAsString(), "$.data.lines")).hasSize(10);
+        assertThat(nextCursorOf(lastPage)).isNull();
+    }
+
+    @Test
+    void balanceAsOf() throws Exception {
+        TestCustomer customer = newCustomer();
+        long accountId = addHistory(customer, 50);
+        jdbcTemplate.update("update accounts set date_opened = timestamp '2019-12-01 00:00:00' where account_id = ?", accountId);
+        balanceSnapshotJob.closeDay(LocalDate.of(2020, 1, 1));
+        balanceSnapshotJob.closeDay(LocalDate.of(2020, 1, 2));
+
+        // Replays forward from the snapshot of 2 January, or back from the first snapshot for earlier days
+        assertWithinBudget("GET /api/v1/account/view-balance-as-of", 5, 5, () -> balanceAsOf(customer, "2020-01-05"));
+        assertThat(balanceOf(perform(balanceAsOf(customer, "2020-01-05")))).isEqualTo(1_000_000);
+        assertThat(balanceOf(perform(balanceAsOf(customer, "2019-12-31")))).isEqualTo(999_950);
+        assertThat(balanceOf(perform(balanceAsOf(customer, "2019-11-30")))).isZero();
+    }
+
+    @Test
+    void exportBankStatement() throws Exception {
+        TestCustomer customer = newCustomer();
+        addHistory(customer, 2_500);
+
+        // Read in chunks of 1000 lines: three short queries, however slowly the file is consumed
+        MvcResult[] export = new MvcResult[1];
+        Usage usage = QueryCountingDataSourceConfig.measure(() -> export[0] = perform(get("/api/v1/account/export-bank-statement")
+                .header("Authorization", customer.bearer())
+                .param("gzip", "true")));
+        assertWithinBudget("GET /api/v1/account/export-bank-statement", 6, 2_503, usage);
+
+        byte[] body = export[0].getResponse().getContentAsByteArray();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8))) {
+            List<String> lines = reader.lines().toList();
+            assertThat(lines).hasSize(2_501);
+            assertThat(lines.get(1)).startsWith("HIST-" + customer.accountNumber() + "-1,2020-01-01T00:00:01,DEPOSIT,CREDIT,");
+            assertThat(lines.getLast()).startsWith("HIST-" + customer.accountNumber() + "-2500,");
+        }
+    }
+
+    private interface Request {
+        MockHttpServletRequestBuilder build();
+    }
+
+    private void assertWithinBudget(String endpoint, long maxStatements, long maxRows, Request request) throws Exception {
+        perform(request.build());
+        assertWithinBudget(endpoint, maxStatements, maxRows, QueryCountingDataSourceConfig.measure(() -> perform(request.build())));
+    }
+
+    private static void assertWithinBudget(String endpoint, long maxStatements, long maxRows, Usage usage) {
+        assertThat(usage.statements())
+                .withFailMessage("%s issued %d statements, budget is %d:%n%s", endpoint, usage.statements(), maxStatements, String.join("\n", usage.queries()))
+                .isLessThanOrEqualTo(maxStatements);
+        assertThat(usage.rows())
+                .withFailMessage("%s read %d rows, budget is %d:%n%s", endpoint, usage.rows(), maxRows, String.join("\n", usage.queries()))
+                .isLessThanOrEqualTo(maxRows);
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        assertThat(result.getResponse().getStatus()).as(result.getResponse().getContentAsString()).isBetween(200, 299);
+        return result;
+    }
+
+    private static MockHttpServletRequestBuilder login(TestCustomer customer) {
+        return post("/auth/login").content("{\"email\":\"" + customer.email() + "\",\"password\":\"" + PASSWORD + "\"}");
+    }
+
+    private static MockHttpServletRequestBuilder refresh(String refreshToken) {
+        return post("/auth/refresh-token").content("{\"refreshToken\":\"" + refreshToken + "\"}");
+    }
+
+    private static MockHttpServletRequestBuilder statementPage(TestCustomer customer, String cursor) {
+        MockHttpServletRequestBuilder request = get("/api/v1/account/view-bank-statement")
+                .header("Authorization", customer.bearer())
+                .param("type", "DEPOSIT")
+                .param("size", "20");
+        return cursor == null ? request : request.param("cursor", cursor);
+    }
+
+    private static MockHttpServletRequestBuilder balanceAsOf(TestCustomer customer, String date) {
+        return get("/api/v1/account/view-balance-as-of").header("Authorization", customer.bearer()).param("date", date);
+    }
+
+    private static double balanceOf(MvcResult result) throws Exception {
+        return JsonPath.<Number>read(result.getResponse().getContentAsString(), "$.data.balance").doubleValue();
+    }
+
+    private static String nextCursorOf(MvcResult result) throws Exception {
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.data.nextCursor");
+    }
+
+    private static String refreshTokenOf(MvcResult result) throws Exception {
+        return JsonPath.read(result.getResponse().getContentAsString(), "$.data.refreshToken");
+    }
+
+    private TestCustomer newCustomer() {
+        String accountNumber = String.valueOf(accountNumbers.incrementAndGet());
+        Account account = testAccounts.save(customer -> customer.password(passwordEncoder.encode(PASSWORD)),
+                account(accountNumber).accountBalance(new BigDecimal("1000000")).hashedPin(passwordEncoder.encode("1234"))).getFirst();
+        return new TestCustomer(TestAccounts.emailOf(accountNumber), accountNumber, testAccounts.bearerOf(account));
+    }
+
+    /* Writes count statement lines for the customer's account, committed in chunks; returns the account id */
+    private long addHistory(TestCustomer customer, int count) {
+        Map<String, Object> account = jdbcTemplate.queryForMap(
+                "select account_id, customer_id from accounts where account_number = ?", customer.accountNumber());
+        for (int from = 1; from <= count; from += HISTORY_CHUNK) {
+            jdbcTemplate.update("""
+                    insert into transactions (transaction_ref, user_id, account_id, transaction_type, transaction_category, amount,
+                        transaction_time, balance_before_transaction, balance_after_transaction, target_account_number)
+                    select concat('HIST-', ?, '-', x), ?, ?, 'DEPOSIT', 'CREDIT', 1,
+                        dateadd('SECOND', x, timestamp '2020-01-01 00:00:00'), 0, 1, ?
+                    from system_range(?, ?)""",
+                    customer.accountNumber(), account.get("customer_id"), account.get("account_id"), customer.accountNumber(),
+                    from, Math.min(from + HISTORY_CHUNK - 1, count));
+        }
+        return ((Number) account.get("account_id")).longValue();
+    }
+
+    private static String onboardBody() {
+        String phoneNumber = String.valueOf(accountNumbers.incrementAndGet());
+        return "{\"firstName\":\"Budget\",\"lastName\":\"Onboard\",\"email\":\"onboard" + phoneNumber + "@example.com\","
+                + "\"password\":\"" + PASSWORD + "\",\"hashedPin\":1234,\"phoneNumber\":\"" + phoneNumber + "\","
+                + "\"accountType\":\"SAVINGS\",\"currencyType\":\"NGN\",\"initialDeposit\":5000}";
+    }
+
+    private static String transferBody(String accountNumber) {
+        return "{\"accountNumber\":\"" + accountNumber + "\",\"amount\":100,\"description\":\"budget\",\"hashedPin\":1234}";
+    }
+}
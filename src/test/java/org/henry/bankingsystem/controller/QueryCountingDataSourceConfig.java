@@ -0,0 +1,97 @@
+package org.henry.bankingsystem.controller;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps the application DataSource in a proxy that counts every statement executed (a JDBC batch
+ * counts once, as one round trip) and every row read from a result set, across all threads, so
+ * work handed to the transfer pipeline or deposit group commit is counted too.
+ */
+@TestConfiguration
+public class QueryCountingDataSourceConfig {
+    private static final AtomicLong statements = new AtomicLong();
+    private static final AtomicLong rows = new AtomicLong();
+    private static final Queue<String> queries = new ConcurrentLinkedQueue<>();
+
+    /** Statements and rows recorded while a measured block ran, and the SQL behind them. */
+    public record Usage(long statements, long rows, List<String> queries) {}
+
+    public interface Measured {
+        void run() throws Exception;
+    }
+
+    @Bean
+    static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new CountingQueryListener())
+                            .methodListener(new RowCountingListener())
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Runs block and returns what it cost. Waits for nothing: callers finish any async work
+     * (e.g. MockMvc async dispatch) inside the block.
+     */
+    public static Usage measure(Measured block) throws Exception {
+        statements.set(0);
+        rows.set(0);
+        queries.clear();
+        block.run();
+        return new Usage(statements.get(), rows.get(), List.copyOf(queries));
+    }
+
+    private static class CountingQueryListener implements QueryExecutionListener {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            statements.incrementAndGet();
+            for (QueryInfo queryInfo : queryInfoList) {
+                queries.add(execInfo.isBatch() ? "[batch of " + execInfo.getBatchSize() + "] " + queryInfo.getQuery() : queryInfo.getQuery());
+            }
+        }
+    }
+
+    private static class RowCountingListener implements MethodExecutionListener {
+        @Override
+        public void beforeMethod(MethodExecutionContext executionContext) {
+        }
+
+        @Override
+        public void afterMethod(MethodExecutionContext executionContext) {
+            if (executionContext.getTarget() instanceof ResultSet
+                    && "next".equals(executionContext.getMethod().getName())
+                    && Boolean.TRUE.equals(executionContext.getResult())) {
+                rows.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package org.henry.bankingsystem.jobs;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest
+class AccountVersionMigrationTest {
+
+    @Autowired private AccountVersionMigration accountVersionMigration;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void accountsOpenedBeforeVersioningCanBeUpdatedAfterTheBackfill() {
+        Long accountId = testAccounts.save(account("7700000001")).getAccountId();
+        jdbcTemplate.update("update accounts set version = null where account_id = ?", accountId);
+
+        accountVersionMigration.backfillVersions();
+
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        assertThat(account.getVersion()).isZero();
+        account.setAccountBalance(new BigDecimal("1500.00"));
+        assertThat(accountRepository.saveAndFlush(account).getVersion()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,124 @@
+package org.henry.bankingsystem.jobs;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.JobCheckpoint;
+import org.henry.bankingsystem.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest
+class BalanceSnapshotJobTest {
+    private static final LocalDate DAY = LocalDate.of(2021, 3, 6);
+
+    @Autowired private BalanceSnapshotJob job;
+    @Autowired private JobCheckpointRepository jobCheckpointRepository;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    /* The checkpoint is shared with every other test that closes a day, so none is left behind */
+    @AfterEach
+    void removeCheckpoint() {
+        jobCheckpointRepository.deleteById(BalanceSnapshotJob.JOB_NAME);
+    }
+
+    @Test
+    void anInterruptedCloseResumesAfterTheCheckpoint() {
+        Long closedBefore = newAccount("7900000401", DAY.minusDays(5)).getAccountId();
+        Long notYetClosed = newAccount("7900000402", DAY.minusDays(5)).getAccountId();
+        checkpoint(DAY, closedBefore, false);
+
+        assertThat(job.closeDay(DAY)).isPositive();
+        assertThat(closingBalance(closedBefore, DAY)).isNull();
+        assertThat(closingBalance(notYetClosed, DAY)).isEqualByComparingTo("1000.00");
+
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(BalanceSnapshotJob.JOB_NAME).orElseThrow();
+        assertThat(checkpoint.getBusinessDate()).isEqualTo(DAY);
+        assertThat(checkpoint.isCompleted()).isTrue();
+        assertThat(job.closeDay(DAY)).isZero();
+        assertThat(job.closeDay(DAY.minusDays(1))).isZero();
+    }
+
+    @Test
+    void anAccountWithoutAPreviousSnapshotIsSeededFromItsCurrentBalance() {
+        Account account = newAccount("7900000403", DAY.minusDays(5));
+        statementLine(account, "CREDIT", "200.00", DAY.atTime(10, 0));
+        statementLine(account, "DEBIT", "50.00", DAY.plusDays(4).atTime(10, 0));
+        checkpoint(DAY.minusDays(1), 0L, true);
+
+        job.closeDay(DAY);
+        // 1,000.00 now, less the 50.00 debit posted after the day closed
+        assertThat(closingBalance(account.getAccountId(), DAY)).isEqualByComparingTo("1050.00");
+
+        statementLine(account, "CREDIT", "25.00", DAY.plusDays(1).atTime(23, 59));
+        job.closeDay(DAY.plusDays(1));
+        // Chained from the previous close, so the late line of the day is counted
+        assertThat(closingBalance(account.getAccountId(), DAY.plusDays(1))).isEqualByComparingTo("1075.00");
+        assertThat(closingBalance(account.getAccountId(), DAY.minusDays(1))).isNull();
+    }
+
+    @Test
+    void daysMissedWhileTheJobWasNotRunningAreClosedInOrder() {
+        LocalDate today = LocalDate.now();
+        Account account = newAccount("7900000404", today.minusDays(70));
+        statementLine(account, "CREDIT", "100.00", today.minusDays(2).atTime(12, 0));
+        checkpoint(today.minusDays(60), 0L, true);
+
+        job.closePendingDays();
+
+        // Only the last max-catch-up-days (31) days are closed
+        assertThat(jdbcTemplate.queryForObject("select count(*) from balance_snapshots where account_id = ?",
+                Integer.class, account.getAccountId())).isEqualTo(31);
+        assertThat(closingBalance(account.getAccountId(), today.minusDays(32))).isNull();
+        assertThat(closingBalance(account.getAccountId(), today.minusDays(31))).isEqualByComparingTo("900.00");
+        assertThat(closingBalance(account.getAccountId(), today.minusDays(3))).isEqualByComparingTo("900.00");
+        assertThat(closingBalance(account.getAccountId(), today.minusDays(2))).isEqualByComparingTo("1000.00");
+        assertThat(closingBalance(account.getAccountId(), today.minusDays(1))).isEqualByComparingTo("1000.00");
+
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(BalanceSnapshotJob.JOB_NAME).orElseThrow();
+        assertThat(checkpoint.getBusinessDate()).isEqualTo(today.minusDays(1));
+        assertThat(checkpoint.isCompleted()).isTrue();
+    }
+
+    private void checkpoint(LocalDate businessDate, long lastId, boolean completed) {
+        jobCheckpointRepository.save(JobCheckpoint.builder()
+                .jobName(BalanceSnapshotJob.JOB_NAME).businessDate(businessDate).lastId(lastId).completed(completed)
+                .updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    private BigDecimal closingBalance(Long accountId, LocalDate day) {
+        List<BigDecimal> closing = jdbcTemplate.queryForList(
+                "select closing_balance from balance_snapshots where account_id = ? and snapshot_date = ?",
+                BigDecimal.class, accountId, day);
+        return closing.isEmpty() ? null : closing.getFirst();
+    }
+
+    private void statementLine(Account account, String category, String amount, LocalDateTime at) {
+        jdbcTemplate.update("""
+                insert into transactions (transaction_ref, user_id, account_id, transaction_type, transaction_category, amount,
+                    transaction_time, balance_before_transaction, balance_after_transaction, target_account_number)
+                values (?, ?, ?, ?, ?, ?, ?, 0, 0, ?)""",
+                UUID.randomUUID().toString(), account.getCustomer().getCustomerId(), account.getAccountId(),
+                "CREDIT".equals(category) ? "DEPOSIT" : "WITHDRAWAL", category, new BigDecimal(amount), at,
+                account.getAccountNumber());
+    }
+
+    private Account newAccount(String accountNumber, LocalDate opened) {
+        return testAccounts.save(account(accountNumber)
+                .dateOpened(opened.atStartOfDay(ZoneId.systemDefault()).toInstant()).lastTransactionDate(opened.atStartOfDay()));
+    }
+}
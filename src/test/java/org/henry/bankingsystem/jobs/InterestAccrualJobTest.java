@@ -0,0 +1,59 @@
+package org.henry.bankingsystem.jobs;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.enums.AccountType;
+import org.henry.bankingsystem.repository.InterestAccrualRepository;
+import org.henry.bankingsystem.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest(properties = {
+        "banking.interest.chunk-size=3",
+        "banking.interest.parallelism=2",
+        "banking.interest.max-connections=1"})
+class InterestAccrualJobTest {
+    private static final LocalDate DAY = LocalDate.of(2020, 1, 1);
+
+    @Autowired private InterestAccrualJob job;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private InterestAccrualRepository interestAccrualRepository;
+    @Autowired private JobCheckpointRepository jobCheckpointRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearCheckpoint() {
+        jobCheckpointRepository.deleteById(InterestAccrualJob.JOB_NAME);
+    }
+
+    @Test
+    void accruesEachInterestBearingAccountOnceOnItsClosingBalance() {
+        long savings = newAccount("7200000001", AccountType.SAVINGS);
+        long current = newAccount("7200000002", AccountType.CURRENT);
+        for (long accountId : new long[]{savings, current}) {
+            jdbcTemplate.update("insert into balance_snapshots (account_id, snapshot_date, closing_balance) values (?, ?, 1000000.00)",
+                    accountId, DAY);
+        }
+
+        assertThat(job.accrueDay(DAY)).isTrue();
+        assertThat(job.accrueDay(DAY)).isTrue();
+
+        // 1,000,000.00 at 4% a year for one day is 109.589041 (in millionths of a kobo)
+        assertThat(interestAccrualRepository.sumAccruedMicros(savings, DAY, DAY)).isEqualTo(10_958_904_109L);
+        assertThat(interestAccrualRepository.sumAccruedMicros(current, DAY, DAY)).isZero();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from interest_accruals where account_id = ?", Long.class, savings))
+                .isEqualTo(1);
+    }
+
+    private long newAccount(String accountNumber, AccountType accountType) {
+        return testAccounts.save(account(accountNumber).accountType(accountType).accountBalance(new BigDecimal("1000000.00"))).getAccountId();
+    }
+}
@@ -0,0 +1,64 @@
+package org.henry.bankingsystem.jobs;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.enums.AccountType;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest(properties = "banking.interest.capitalisation-chunk-size=1")
+class InterestCapitalisationJobTest {
+    private static final YearMonth MONTH = YearMonth.of(2020, 1);
+
+    @Autowired private InterestCapitalisationJob job;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private JobCheckpointRepository jobCheckpointRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearCheckpoint() {
+        jobCheckpointRepository.deleteById(InterestCapitalisationJob.JOB_NAME);
+    }
+
+    @Test
+    void creditsTheMonthsAccruedInterestOnce() {
+        long savings = newAccount("7900000601", AccountType.SAVINGS);
+        long deposit = newAccount("7900000602", AccountType.FIXED_DEPOSIT);
+        for (long accountId : new long[]{savings, deposit}) {
+            accrue(accountId, MONTH.atDay(1));
+            accrue(accountId, MONTH.atEndOfMonth());
+            accrue(accountId, MONTH.plusMonths(1).atDay(1));
+        }
+
+        job.capitaliseMonth(MONTH);
+        job.capitaliseMonth(MONTH);
+
+        // Two days of 109.589041 is 219.178082, truncated to 219.17; fixed deposits are paid on maturity
+        assertThat(accountRepository.findById(savings).orElseThrow().getAccountBalance()).isEqualByComparingTo("1000219.17");
+        assertThat(accountRepository.findById(deposit).orElseThrow().getAccountBalance()).isEqualByComparingTo("1000000.00");
+        assertThat(jdbcTemplate.queryForObject("select count(*) from transactions where account_id = ?", Long.class, savings))
+                .isEqualTo(1);
+    }
+
+    private void accrue(long accountId, LocalDate day) {
+        jdbcTemplate.update("""
+                insert into interest_accruals (account_id, accrual_date, closing_balance, rate_basis_points, accrued_micros)
+                values (?, ?, 1000000.00, 400, 10958904109)""", accountId, day);
+    }
+
+    private long newAccount(String accountNumber, AccountType accountType) {
+        return testAccounts.save(account(accountNumber).accountType(accountType).accountBalance(new BigDecimal("1000000.00"))).getAccountId();
+    }
+}
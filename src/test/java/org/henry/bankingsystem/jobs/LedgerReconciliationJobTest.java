@@ -0,0 +1,69 @@
+package org.henry.bankingsystem.jobs;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.dto.ReconciliationReportDto;
+import org.henry.bankingsystem.entity.ReconciliationMismatch;
+import org.henry.bankingsystem.enums.MismatchType;
+import org.henry.bankingsystem.repository.ReconciliationMismatchRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest(properties = {
+        "banking.reconciliation.range-size=2",
+        "banking.reconciliation.parallelism=3"})
+class LedgerReconciliationJobTest {
+    private static final String ACCOUNT_NUMBER = "7100000001";
+
+    @Autowired private LedgerReconciliationJob job;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private ReconciliationMismatchRepository mismatchRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportsTheFirstBrokenLineAndTheDriftedBalance() {
+        long accountId = newAccount(new BigDecimal("51"));
+        // Fifty credits of 1 chaining 0 -> 50, then line 20 is made to claim 25
+        jdbcTemplate.update("""
+                insert into transactions (transaction_ref, user_id, account_id, transaction_type, transaction_category, amount,
+                    transaction_time, balance_before_transaction, balance_after_transaction, target_account_number)
+                select concat('RECON-', x), (select customer_id from accounts where account_id = ?), ?, 'DEPOSIT', 'CREDIT', 1,
+                    dateadd('SECOND', x, timestamp '2020-01-01 00:00:00'), x - 1, x, ?
+                from system_range(1, 50)""", accountId, accountId, ACCOUNT_NUMBER);
+        jdbcTemplate.update("update transactions set balance_after_transaction = 25 where transaction_ref = 'RECON-20'");
+        Long broken = jdbcTemplate.queryForObject("select transaction_id from transactions where transaction_ref = 'RECON-20'", Long.class);
+        Long next = jdbcTemplate.queryForObject("select transaction_id from transactions where transaction_ref = 'RECON-21'", Long.class);
+
+        ReconciliationReportDto report = job.reconcile().orElseThrow();
+
+        assertThat(report.linesChecked()).isGreaterThanOrEqualTo(50);
+        List<ReconciliationMismatch> mismatches = mismatchRepository.findByRunIdOrderByAccountIdAscMismatchIdAsc(report.runId(), Limit.unlimited())
+                .stream().filter(mismatch -> mismatch.getAccountId() == accountId).toList();
+        assertThat(mismatches).extracting(ReconciliationMismatch::getMismatchType, ReconciliationMismatch::getTransactionId)
+                .containsExactlyInAnyOrder(
+                        tuple(MismatchType.LINE_ARITHMETIC, broken),
+                        tuple(MismatchType.CHAIN_BREAK, next),
+                        tuple(MismatchType.FINAL_BALANCE, null));
+        assertThat(mismatches).filteredOn(mismatch -> mismatch.getMismatchType() == MismatchType.FINAL_BALANCE)
+                .singleElement()
+                .satisfies(mismatch -> {
+                    assertThat(mismatch.getExpected()).isEqualByComparingTo("50");
+                    assertThat(mismatch.getActual()).isEqualByComparingTo("51");
+                });
+    }
+
+    private long newAccount(BigDecimal balance) {
+        return testAccounts.save(account(ACCOUNT_NUMBER).accountBalance(balance)
+                .lastTransactionDate(LocalDateTime.of(2020, 1, 1, 0, 0, 50))).getAccountId();
+    }
+}
@@ -0,0 +1,78 @@
+package org.henry.bankingsystem.jobs;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.ScheduledTransfer;
+import org.henry.bankingsystem.entity.ScheduledTransferRun;
+import org.henry.bankingsystem.enums.ScheduledTransferOutcome;
+import org.henry.bankingsystem.enums.ScheduledTransferStatus;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.repository.ScheduledTransferRepository;
+import org.henry.bankingsystem.repository.ScheduledTransferRunRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest(properties = "banking.scheduled-transfers.batch-size=2")
+class ScheduledTransferExecutorTest {
+
+    @Autowired private ScheduledTransferExecutor executor;
+    @Autowired private ScheduledTransferRepository scheduledTransferRepository;
+    @Autowired private ScheduledTransferRunRepository scheduledTransferRunRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TestAccounts testAccounts;
+
+    @Test
+    void runsEachDueOccurrenceOnceAndRecordsItsOutcome() {
+        Account funded = newAccount("7400000001", "1000000.00");
+        Account empty = newAccount("7400000002", "10.00");
+        Account receiver = newAccount("7400000003", "0.00");
+        ScheduledTransfer once = schedule(funded, receiver, 1, ScheduledTransferStatus.ACTIVE);
+        ScheduledTransfer monthly = schedule(funded, receiver, null, ScheduledTransferStatus.ACTIVE);
+        ScheduledTransfer unfunded = schedule(empty, receiver, null, ScheduledTransferStatus.ACTIVE);
+        ScheduledTransfer cancelled = schedule(funded, receiver, null, ScheduledTransferStatus.CANCELLED);
+
+        // Two batches of two, then nothing left to run
+        assertThat(executor.runDue()).isEqualTo(3);
+        assertThat(executor.runDue()).isZero();
+
+        assertThat(accountRepository.findById(receiver.getAccountId()).orElseThrow().getAccountBalance()).isEqualByComparingTo("2000.00");
+        assertThat(lastOutcome(once)).isEqualTo(ScheduledTransferOutcome.SUCCEEDED);
+        assertThat(lastOutcome(monthly)).isEqualTo(ScheduledTransferOutcome.SUCCEEDED);
+        assertThat(lastOutcome(unfunded)).isEqualTo(ScheduledTransferOutcome.INSUFFICIENT_FUNDS);
+        assertThat(scheduledTransferRunRepository.findByScheduleIdOrderByRunIdDesc(cancelled.getScheduleId(), Limit.of(1))).isEmpty();
+
+        assertThat(scheduledTransferRepository.findById(once.getScheduleId()).orElseThrow().getStatus())
+                .isEqualTo(ScheduledTransferStatus.COMPLETED);
+        ScheduledTransfer next = scheduledTransferRepository.findById(monthly.getScheduleId()).orElseThrow();
+        assertThat(next.getStatus()).isEqualTo(ScheduledTransferStatus.ACTIVE);
+        assertThat(next.getNextRunAt()).isAfter(LocalDateTime.now());
+        assertThat(next.getClaimedBy()).isNull();
+    }
+
+    private ScheduledTransferOutcome lastOutcome(ScheduledTransfer schedule) {
+        return scheduledTransferRunRepository.findByScheduleIdOrderByRunIdDesc(schedule.getScheduleId(), Limit.of(1))
+                .stream().map(ScheduledTransferRun::getOutcome).findFirst().orElse(null);
+    }
+
+    /* Due a minute ago, then on the first of every month */
+    private ScheduledTransfer schedule(Account sender, Account receiver, Integer runs, ScheduledTransferStatus status) {
+        return scheduledTransferRepository.save(ScheduledTransfer.builder()
+                .senderAccountId(sender.getAccountId()).receiverAccountId(receiver.getAccountId())
+                .receiverAccountNumber(receiver.getAccountNumber()).amount(new BigDecimal("1000.00"))
+                .description("Rent").cronExpression("0 0 9 1 * *").nextRunAt(LocalDateTime.now().minusMinutes(1))
+                .remainingRuns(runs).status(status).createdAt(LocalDateTime.now())
+                .build());
+    }
+
+    private Account newAccount(String accountNumber, String balance) {
+        return testAccounts.save(account(accountNumber).accountBalance(new BigDecimal(balance)));
+    }
+}
@@ -0,0 +1,72 @@
+package org.henry.bankingsystem.service;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.entity.Account;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest
+class BalanceHistoryServiceTest {
+    private static final LocalDate OPENED = LocalDate.of(2022, 1, 1);
+    private static final LocalDate SNAPSHOT = LocalDate.of(2022, 2, 10);
+
+    @Autowired private BalanceHistoryService balanceHistoryService;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void answersBeforeOnAndAfterTheNearestSnapshot() {
+        // 400.00 until the 5th, 500.00 from then to the 12th, 470.00 until the 15th and 480.00 since
+        Account account = newAccount("7900000501", "480.00");
+        statementLine(account, "CREDIT", "100.00", LocalDate.of(2022, 2, 5).atTime(9, 0));
+        statementLine(account, "DEBIT", "30.00", LocalDate.of(2022, 2, 12).atTime(9, 0));
+        statementLine(account, "CREDIT", "10.00", LocalDate.of(2022, 2, 15).atTime(9, 0));
+        jdbcTemplate.update("insert into balance_snapshots (account_id, snapshot_date, closing_balance) values (?, ?, 500.00)",
+                account.getAccountId(), SNAPSHOT);
+
+        assertThat(balanceHistoryService.balanceAsOf(account, OPENED.minusDays(1))).isEqualByComparingTo("0");
+        assertThat(balanceHistoryService.balanceAsOf(account, LocalDate.of(2022, 2, 4))).isEqualByComparingTo("400.00");
+        assertThat(balanceHistoryService.balanceAsOf(account, LocalDate.of(2022, 2, 5))).isEqualByComparingTo("500.00");
+        assertThat(balanceHistoryService.balanceAsOf(account, SNAPSHOT)).isEqualByComparingTo("500.00");
+        assertThat(balanceHistoryService.balanceAsOf(account, LocalDate.of(2022, 2, 13))).isEqualByComparingTo("470.00");
+        assertThat(balanceHistoryService.balanceAsOf(account, LocalDate.of(2022, 3, 1))).isEqualByComparingTo("480.00");
+    }
+
+    @Test
+    void anAccountWithoutSnapshotsIsWorkedBackFromItsCurrentBalance() {
+        Account account = newAccount("7900000502", "480.00");
+        statementLine(account, "CREDIT", "100.00", LocalDate.of(2022, 2, 5).atTime(9, 0));
+        statementLine(account, "DEBIT", "30.00", LocalDate.of(2022, 2, 12).atTime(9, 0));
+        statementLine(account, "CREDIT", "10.00", LocalDate.of(2022, 2, 15).atTime(9, 0));
+
+        assertThat(balanceHistoryService.balanceAsOf(account, LocalDate.of(2022, 2, 4))).isEqualByComparingTo("400.00");
+        assertThat(balanceHistoryService.balanceAsOf(account, LocalDate.of(2022, 2, 13))).isEqualByComparingTo("470.00");
+        assertThat(balanceHistoryService.balanceAsOf(account, LocalDate.now())).isEqualByComparingTo("480.00");
+    }
+
+    private void statementLine(Account account, String category, String amount, LocalDateTime at) {
+        jdbcTemplate.update("""
+                insert into transactions (transaction_ref, user_id, account_id, transaction_type, transaction_category, amount,
+                    transaction_time, balance_before_transaction, balance_after_transaction, target_account_number)
+                values (?, ?, ?, ?, ?, ?, ?, 0, 0, ?)""",
+                UUID.randomUUID().toString(), account.getCustomer().getCustomerId(), account.getAccountId(),
+                "CREDIT".equals(category) ? "DEPOSIT" : "WITHDRAWAL", category, new BigDecimal(amount), at,
+                account.getAccountNumber());
+    }
+
+    private Account newAccount(String accountNumber, String balance) {
+        return testAccounts.save(account(accountNumber).accountBalance(new BigDecimal(balance))
+                .dateOpened(OPENED.atStartOfDay(ZoneId.systemDefault()).toInstant()).lastTransactionDate(OPENED.atStartOfDay()));
+    }
+}
@@ -0,0 +1,85 @@
+package org.henry.bankingsystem.service;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.enums.LedgerCode;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.service.LedgerService.Line;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest(properties = "banking.balance-read-model.lookback-seconds=1")
+class BalanceReadModelTest {
+    private static final String EMAIL = TestAccounts.emailOf("7500000001");
+
+    @Autowired private BalanceReadModel balanceReadModel;
+    @Autowired private LedgerService ledgerService;
+    @Autowired private HotAccountService hotAccountService;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void followsCommittedPostingsOnly() {
+        Account opened = testAccounts.save(account("7500000001"));
+        balanceReadModel.rebuild();
+        assertThat(balanceOf(EMAIL)).isEqualByComparingTo("1000.00");
+
+        deposit(opened.getAccountId(), "500.00", false);
+        assertThat(balanceOf(EMAIL)).isEqualByComparingTo("1500.00");
+        deposit(opened.getAccountId(), "700.00", true);
+        assertThat(balanceOf(EMAIL)).isEqualByComparingTo("1500.00");
+
+        // A read of the account from before the deposit does not replace the later view
+        balanceReadModel.load(opened, EMAIL);
+        assertThat(balanceOf(EMAIL)).isEqualByComparingTo("1500.00");
+
+        hotAccountService.configure("7500000001", 4);
+        balanceReadModel.refresh();
+        assertThat(balanceReadModel.findByEmail(EMAIL)).isEmpty();
+    }
+
+    @Test
+    void catchesUpWithWritesFromOtherNodesAfterMissedRefreshes() throws InterruptedException {
+        Account opened = testAccounts.save(account("7500000002"));
+        String email = TestAccounts.emailOf("7500000002");
+        balanceReadModel.rebuild();
+        assertThat(balanceOf(email)).isEqualByComparingTo("1000.00");
+
+        // Another node posts, and no refresh runs for longer than the lookback
+        jdbcTemplate.update("update accounts set account_balance = 2500.00, version = version + 1, last_transaction_date = ? where account_id = ?",
+                LocalDateTime.now(), opened.getAccountId());
+        Thread.sleep(1_500);
+
+        balanceReadModel.refresh();
+        assertThat(balanceOf(email)).isEqualByComparingTo("2500.00");
+    }
+
+    private BigDecimal balanceOf(String email) {
+        return balanceReadModel.findByEmail(email).orElseThrow().balance();
+    }
+
+    private void deposit(Long accountId, String amount, boolean rollBack) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = accountRepository.findByIdForUpdate(accountId).orElseThrow();
+            ledgerService.post(TransactionType.DEPOSIT, "Cash deposit", List.of(
+                    Line.debit(LedgerCode.CASH, new BigDecimal(amount)),
+                    Line.credit(account, new BigDecimal(amount), TransactionType.DEPOSIT, null)));
+            if (rollBack) {
+                status.setRollbackOnly();
+            }
+        });
+    }
+}
@@ -0,0 +1,101 @@
+package org.henry.bankingsystem.service;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.entity.DailyUsage;
+import org.henry.bankingsystem.entity.DailyUsageId;
+import org.henry.bankingsystem.exceptions.TransactionLimitExceededException;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.repository.DailyUsageRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest
+class DailyUsageServiceTest {
+
+    @Autowired private TransferEngine transferEngine;
+    @Autowired private DailyUsageService dailyUsageService;
+    @Autowired private DailyUsageRepository dailyUsageRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void counterMatchesTheDebitsPostedTodayUnderConcurrentLoad() throws Exception {
+        Long accountId = newAccount("7900000001");
+        Long otherId = newAccount("7900000002");
+
+        AtomicInteger withdrawals = new AtomicInteger();
+        AtomicInteger overLimit = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int worker = 0; worker < 4; worker++) {
+            workers.add(() -> {
+                for (int i = 0; i < 20; i++) {
+                    try {
+                        transferEngine.withdraw(accountId, new BigDecimal("100.00"), new BigDecimal("10.00"));
+                        withdrawals.incrementAndGet();
+                    } catch (TransactionLimitExceededException e) {
+                        overLimit.incrementAndGet();
+                    }
+                    if (i % 4 == 0) {
+                        transferEngine.transfer(accountId, otherId, new BigDecimal("50.00"), new BigDecimal("5.00"), "Usage test");
+                        // Money coming in does not count
+                        transferEngine.transfer(otherId, accountId, new BigDecimal("20.00"), BigDecimal.ZERO, "Usage test");
+                    }
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (Future<Void> result : executor.invokeAll(workers)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        DailyUsage usage = dailyUsageRepository.findById(new DailyUsageId(accountId, LocalDate.now())).orElseThrow();
+        BigDecimal posted = jdbcTemplate.queryForObject("""
+                select sum(amount) from transactions where account_id = ? and transaction_category = 'DEBIT'
+                and transaction_type in ('WITHDRAWAL', 'TRANSFER')""", BigDecimal.class, accountId);
+        Integer postedCount = jdbcTemplate.queryForObject("""
+                select count(*) from transactions where account_id = ? and transaction_category = 'DEBIT'
+                and transaction_type in ('WITHDRAWAL', 'TRANSFER')""", Integer.class, accountId);
+
+        assertThat(usage.getDebitedAmount()).isEqualByComparingTo(posted);
+        assertThat(usage.getDebitedAmount()).isEqualByComparingTo(BigDecimal.valueOf(withdrawals.get() * 100L + 20 * 50L));
+        assertThat(usage.getDebitCount()).isEqualTo(postedCount);
+        assertThat(overLimit.get()).isPositive();
+        assertThat(withdrawals.get()).isLessThanOrEqualTo(50);
+
+        // The in-memory copy agrees with the row
+        BigDecimal debitedToday = transactionTemplate.execute(status ->
+                dailyUsageService.debitedToday(accountRepository.findByIdForUpdate(accountId).orElseThrow()));
+        assertThat(debitedToday).isEqualByComparingTo(usage.getDebitedAmount());
+        assertThat(dailyUsageRepository.findById(new DailyUsageId(otherId, LocalDate.now())).orElseThrow().getDebitedAmount())
+                .isEqualByComparingTo(BigDecimal.valueOf(20 * 20L));
+    }
+
+    /* 100,000.00 against a daily limit of 5,000 */
+    private Long newAccount(String accountNumber) {
+        return testAccounts.save(account(accountNumber)
+                .accountBalance(new BigDecimal("100000.00")).transactionLimit(new BigDecimal("5000"))).getAccountId();
+    }
+}
@@ -0,0 +1,104 @@
+package org.henry.bankingsystem.service;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.exceptions.ResourceNotFoundException;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest
+class DepositGroupCommitTest {
+
+    @Autowired private DepositGroupCommit depositGroupCommit;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TestAccounts testAccounts;
+
+    @Test
+    void everyDepositIsCompletedWithTheBalanceRightAfterIt() throws Exception {
+        List<Long> accountIds = List.of(testAccounts.save(account("7900000201")).getAccountId(), testAccounts.save(account("7900000202")).getAccountId());
+
+        List<List<CompletableFuture<BigDecimal>>> results = List.of(new ArrayList<>(), new ArrayList<>());
+        List<Thread> depositors = new ArrayList<>();
+        for (int worker = 0; worker < 4; worker++) {
+            depositors.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 50; i++) {
+                    int account = i % 2;
+                    CompletableFuture<BigDecimal> balance = depositGroupCommit.submit(accountIds.get(account), BigDecimal.ONE);
+                    synchronized (results) {
+                        results.get(account).add(balance);
+                    }
+                }
+            }));
+        }
+        for (Thread depositor : depositors) {
+            depositor.join();
+        }
+
+        for (int account = 0; account < 2; account++) {
+            List<BigDecimal> balances = new ArrayList<>();
+            for (CompletableFuture<BigDecimal> balance : results.get(account)) {
+                balances.add(balance.get(30, TimeUnit.SECONDS));
+            }
+            // Each deposit saw its own running balance: 1001, 1002, ... 1100 in some order
+            assertThat(balances.stream().map(BigDecimal::intValue).sorted().toList())
+                    .isEqualTo(IntStream.rangeClosed(1001, 1100).boxed().toList());
+            assertThat(accountRepository.findById(accountIds.get(account)).orElseThrow().getAccountBalance())
+                    .isEqualByComparingTo("1100.00");
+        }
+    }
+
+    @Test
+    void aMissingAccountOnlyFailsItsOwnDeposit() throws Exception {
+        Long accountId = testAccounts.save(account("7900000203")).getAccountId();
+
+        List<CompletableFuture<BigDecimal>> deposits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            deposits.add(depositGroupCommit.submit(accountId, BigDecimal.TEN));
+        }
+        CompletableFuture<BigDecimal> missing = depositGroupCommit.submit(Long.MAX_VALUE, BigDecimal.TEN);
+
+        assertThatThrownBy(() -> missing.get(30, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(ResourceNotFoundException.class);
+        for (CompletableFuture<BigDecimal> deposit : deposits) {
+            assertThat(deposit.get(30, TimeUnit.SECONDS)).isNotNull();
+        }
+        assertThat(accountRepository.findById(accountId).orElseThrow().getAccountBalance()).isEqualByComparingTo("1100.00");
+    }
+
+    @Test
+    void aFailedGroupFailsEveryDepositInItAndPostsNothing() throws Exception {
+        Long accountId = testAccounts.save(account("7900000204")).getAccountId();
+
+        List<CompletableFuture<BigDecimal>> deposits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            deposits.add(depositGroupCommit.submit(accountId, i == 5 ? new BigDecimal("-1") : BigDecimal.TEN));
+        }
+
+        BigDecimal credited = BigDecimal.ZERO;
+        for (CompletableFuture<BigDecimal> deposit : deposits) {
+            try {
+                deposit.get(30, TimeUnit.SECONDS);
+                credited = credited.add(BigDecimal.TEN);
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+            }
+        }
+        assertThat(deposits.get(5)).isCompletedExceptionally();
+        assertThat(accountRepository.findById(accountId).orElseThrow().getAccountBalance())
+                .isEqualByComparingTo(new BigDecimal("1000.00").add(credited));
+    }
+}
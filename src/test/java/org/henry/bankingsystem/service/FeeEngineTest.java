@@ -0,0 +1,72 @@
+package org.henry.bankingsystem.service;
+
+import org.henry.bankingsystem.entity.FeeTier;
+import org.henry.bankingsystem.enums.AccountType;
+import org.henry.bankingsystem.enums.CurrencyType;
+import org.henry.bankingsystem.enums.TransactionType;
+import org.henry.bankingsystem.repository.FeeTierRepository;
+import org.henry.bankingsystem.utils.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FeeEngineTest {
+    private final FeeTierRepository repository = mock(FeeTierRepository.class);
+    private final FeeEngine feeEngine = new FeeEngine(repository);
+
+    @Test
+    void defaultBandsChargeEachCurrencyOnlyItsOwnRate() {
+        when(repository.findAll()).thenReturn(List.of());
+        feeEngine.reload();
+
+        assertThat(charges("999999.99", CurrencyType.USD, AccountType.SAVINGS)).isEqualByComparingTo("30000.00");
+        assertThat(charges("1000000", CurrencyType.USD, AccountType.SAVINGS)).isEqualByComparingTo("100000.00");
+        assertThat(charges("100", CurrencyType.NGN, AccountType.CURRENT)).isEqualByComparingTo("8.00");
+        assertThat(charges("500000", CurrencyType.NGN, AccountType.CURRENT)).isEqualByComparingTo("100000.00");
+        assertThat(charges("123.45", CurrencyType.EUR, AccountType.CHECKING)).isEqualByComparingTo("13.89");
+        assertThat(charges("400000", CurrencyType.EUR, AccountType.CHECKING)).isEqualByComparingTo("100000.00");
+    }
+
+    @Test
+    void accountTypeRowsOverrideAndReloadSwapsTheSchedule() {
+        when(repository.findAll()).thenReturn(List.of(
+                tier(null, "0", 100, "10"),
+                tier(AccountType.SAVINGS, "0", 0, "0"),
+                tier(AccountType.SAVINGS, "1000", 50, "0")));
+        feeEngine.reload();
+
+        assertThat(charges("500", CurrencyType.NGN, AccountType.CURRENT)).isEqualByComparingTo("15.00");
+        assertThat(charges("500", CurrencyType.NGN, AccountType.SAVINGS)).isEqualByComparingTo("0.00");
+        assertThat(charges("2000", CurrencyType.NGN, AccountType.SAVINGS)).isEqualByComparingTo("10.00");
+        assertThat(charges("100", CurrencyType.USD, AccountType.SAVINGS)).isEqualByComparingTo("3.00");
+    }
+
+    @Test
+    void invalidTableKeepsTheCurrentSchedule() {
+        when(repository.findAll()).thenReturn(List.of(tier(null, "0", 100, "0"), tier(null, "0", 200, "0")));
+        assertThatThrownBy(feeEngine::reload).isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(charges("100", CurrencyType.NGN, AccountType.SAVINGS)).isEqualByComparingTo("8.00");
+    }
+
+    private BigDecimal charges(String amount, CurrencyType currency, AccountType accountType) {
+        return feeEngine.charges(Money.of(new BigDecimal(amount), currency), accountType, TransactionType.TRANSFER).toBigDecimal();
+    }
+
+    private static FeeTier tier(AccountType accountType, String lowerBound, int rateBasisPoints, String flatFee) {
+        return FeeTier.builder()
+                .currencyType(CurrencyType.NGN)
+                .accountType(accountType)
+                .transactionType(TransactionType.TRANSFER)
+                .lowerBound(new BigDecimal(lowerBound))
+                .rateBasisPoints(rateBasisPoints)
+                .flatFee(new BigDecimal(flatFee))
+                .build();
+    }
+}
@@ -0,0 +1,118 @@
+package org.henry.bankingsystem.service;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.entity.FixedDeposit;
+import org.henry.bankingsystem.entity.JobCheckpoint;
+import org.henry.bankingsystem.enums.AccountType;
+import org.henry.bankingsystem.enums.FixedDepositStatus;
+import org.henry.bankingsystem.enums.MaturityInstruction;
+import org.henry.bankingsystem.jobs.InterestAccrualJob;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.repository.FixedDepositRepository;
+import org.henry.bankingsystem.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest
+class FixedDepositServiceTest {
+
+    @Autowired private FixedDepositService fixedDepositService;
+    @Autowired private FixedDepositRepository fixedDepositRepository;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private JobCheckpointRepository jobCheckpointRepository;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clearAccrualCheckpoint() {
+        jobCheckpointRepository.deleteById(InterestAccrualJob.JOB_NAME);
+    }
+
+    @Test
+    void paysPrincipalAndInterestOutOnceAtMaturity() {
+        List<Account> accounts = newCustomer("7300000001", "7300000002");
+        Long deposit = accounts.get(0).getAccountId();
+        FixedDeposit term = fixedDepositService.open("7300000001", 30, MaturityInstruction.PAYOUT, "7300000002");
+
+        assertThat(fixedDepositService.mature(deposit)).contains(term.getMaturesAt());
+        makeDue(deposit);
+        accrueTerm(deposit);
+        assertThat(fixedDepositService.mature(deposit)).isEmpty();
+        assertThat(fixedDepositService.mature(deposit)).isEmpty();
+
+        // 1,000,000.00 at 4% a year for 30 days is 3,287.67
+        assertThat(accountRepository.findById(deposit).orElseThrow().getAccountBalance()).isEqualByComparingTo("0");
+        assertThat(accountRepository.findById(accounts.get(1).getAccountId()).orElseThrow().getAccountBalance())
+                .isEqualByComparingTo("2003287.67");
+        assertThat(fixedDepositRepository.findById(deposit).orElseThrow().getStatus()).isEqualTo(FixedDepositStatus.MATURED);
+    }
+
+    @Test
+    void rollsPrincipalAndInterestOverIntoANewTerm() {
+        Long deposit = newCustomer("7300000003", "7300000004").get(0).getAccountId();
+        FixedDeposit term = fixedDepositService.open("7300000003", 30, MaturityInstruction.ROLLOVER, null);
+        makeDue(deposit);
+        accrueTerm(deposit);
+
+        LocalDateTime previousMaturity = fixedDepositRepository.findById(deposit).orElseThrow().getMaturesAt();
+        assertThat(fixedDepositService.mature(deposit)).contains(previousMaturity.plusDays(30));
+
+        FixedDeposit rolled = fixedDepositRepository.findById(deposit).orElseThrow();
+        assertThat(rolled.getStatus()).isEqualTo(FixedDepositStatus.ACTIVE);
+        assertThat(rolled.getPrincipal()).isEqualByComparingTo("1003287.67");
+        assertThat(rolled.getStartsAt()).isEqualTo(previousMaturity);
+        assertThat(accountRepository.findById(deposit).orElseThrow().getAccountBalance()).isEqualByComparingTo("1003287.67");
+        assertThat(term.getPrincipal()).isEqualByComparingTo("1000000.00");
+    }
+
+    @Test
+    void waitsForTheLastDayOfTheTermToBeAccrued() {
+        Long deposit = newCustomer("7300000005", "7300000006").get(0).getAccountId();
+        fixedDepositService.open("7300000005", 30, MaturityInstruction.PAYOUT, "7300000006");
+        makeDue(deposit);
+
+        assertThat(fixedDepositService.mature(deposit)).hasValueSatisfying(retry -> assertThat(retry).isAfter(LocalDateTime.now()));
+        assertThat(fixedDepositRepository.findById(deposit).orElseThrow().getStatus()).isEqualTo(FixedDepositStatus.ACTIVE);
+        assertThat(accountRepository.findById(deposit).orElseThrow().getAccountBalance()).isEqualByComparingTo("1000000.00");
+    }
+
+    /* Moves the 30 day term back so it ended a minute ago */
+    private void makeDue(Long accountId) {
+        LocalDateTime maturesAt = LocalDateTime.now().minusMinutes(1);
+        jdbcTemplate.update("update fixed_deposits set starts_at = ?, matures_at = ? where account_id = ?",
+                maturesAt.minusDays(30), maturesAt, accountId);
+    }
+
+    /* Accrues every day of the term on 1,000,000.00 at 4%, as InterestAccrualJob would */
+    private void accrueTerm(Long accountId) {
+        FixedDeposit term = fixedDepositRepository.findById(accountId).orElseThrow();
+        LocalDate lastDay = term.getMaturesAt().toLocalDate().minusDays(1);
+        for (LocalDate day = term.getStartsAt().toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            jdbcTemplate.update("""
+                    insert into interest_accruals (account_id, accrual_date, closing_balance, rate_basis_points, accrued_micros)
+                    values (?, ?, 1000000.00, 400, 10958904109)""", accountId, day);
+        }
+        jobCheckpointRepository.save(JobCheckpoint.builder()
+                .jobName(InterestAccrualJob.JOB_NAME).businessDate(lastDay).lastId(0).completed(true).updatedAt(LocalDateTime.now())
+                .build());
+    }
+
+    /* A customer with a FIXED_DEPOSIT account and a SAVINGS account, each holding 1,000,000.00 */
+    private List<Account> newCustomer(String depositAccountNumber, String savingsAccountNumber) {
+        return testAccounts.save(
+                account(depositAccountNumber).accountType(AccountType.FIXED_DEPOSIT).accountBalance(new BigDecimal("1000000.00")),
+                account(savingsAccountNumber).accountBalance(new BigDecimal("1000000.00")));
+    }
+}
@@ -0,0 +1,119 @@
+package org.henry.bankingsystem.service;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.entity.Account;
+import org.henry.bankingsystem.enums.AccountType;
+import org.henry.bankingsystem.repository.AccountBalanceSlotRepository;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest
+class HotAccountServiceTest {
+
+    @Autowired private HotAccountService hotAccountService;
+    @Autowired private TransferEngine transferEngine;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private AccountBalanceSlotRepository accountBalanceSlotRepository;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private TransactionTemplate transactionTemplate;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void creditsLandInSlotsAndAreSweptWhenADebitNeedsThem() throws Exception {
+        Long accountId = testAccounts.save(account("7900000101").accountType(AccountType.CURRENT)).getAccountId();
+        hotAccountService.configure("7900000101", 4);
+        Long version = accountRepository.findById(accountId).orElseThrow().getVersion();
+
+        List<Callable<Void>> depositors = new ArrayList<>();
+        for (int worker = 0; worker < 4; worker++) {
+            depositors.add(() -> {
+                for (int i = 0; i < 25; i++) {
+                    transferEngine.deposit(accountId, new BigDecimal("10.00"));
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (Future<Void> result : executor.invokeAll(depositors)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // The account row was neither moved nor locked for the credits
+        Account hot = accountRepository.findById(accountId).orElseThrow();
+        assertThat(hot.getAccountBalance()).isEqualByComparingTo("1000.00");
+        assertThat(hot.getVersion()).isEqualTo(version);
+        assertThat(accountBalanceSlotRepository.sumBalanceByAccountId(accountId)).isEqualByComparingTo("1000.00");
+        assertThat(hotAccountService.totalBalance(hot)).isEqualByComparingTo("2000.00");
+
+        // The row alone cannot cover this, so the slots are swept into it first
+        transferEngine.withdraw(accountId, new BigDecimal("1500.00"), new BigDecimal("10.00"));
+        assertThat(accountRepository.findById(accountId).orElseThrow().getAccountBalance()).isEqualByComparingTo("490.00");
+        assertThat(accountBalanceSlotRepository.sumBalanceByAccountId(accountId)).isEqualByComparingTo("0");
+        assertThat(journalBalance(accountId)).isEqualByComparingTo("-510.00");
+    }
+
+    @Test
+    void sweepMovesEverySlotIntoTheRow() {
+        Long accountId = testAccounts.save(account("7900000102").accountType(AccountType.CURRENT)).getAccountId();
+        hotAccountService.configure("7900000102", 2);
+        transferEngine.deposit(accountId, new BigDecimal("30.00"));
+        transferEngine.deposit(accountId, new BigDecimal("20.00"));
+
+        BigDecimal swept = transactionTemplate.execute(status ->
+                hotAccountService.sweep(accountRepository.findByIdForUpdate(accountId).orElseThrow()));
+        assertThat(swept).isEqualByComparingTo("50.00");
+        assertThat(accountRepository.findById(accountId).orElseThrow().getAccountBalance()).isEqualByComparingTo("1050.00");
+        assertThat(accountBalanceSlotRepository.sumBalanceByAccountId(accountId)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void resizingOrSwitchingOffKeepsTheMoneyInTheSlots() {
+        Long accountId = testAccounts.save(account("7900000103").accountType(AccountType.CURRENT)).getAccountId();
+        hotAccountService.configure("7900000103", 4);
+        transferEngine.deposit(accountId, new BigDecimal("40.00"));
+
+        hotAccountService.configure("7900000103", 2);
+        assertThat(slotCount(accountId)).isEqualTo(2);
+        transferEngine.deposit(accountId, new BigDecimal("60.00"));
+
+        Account off = hotAccountService.configure("7900000103", 0);
+        assertThat(off.isHot()).isFalse();
+        assertThat(slotCount(accountId)).isZero();
+        assertThat(accountRepository.findById(accountId).orElseThrow().getAccountBalance()).isEqualByComparingTo("1100.00");
+        assertThat(journalBalance(accountId)).isEqualByComparingTo("100.00");
+
+        assertThatThrownBy(() -> hotAccountService.configure("7900000103", 65)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> hotAccountService.configure("7900000103", -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private int slotCount(Long accountId) {
+        return jdbcTemplate.queryForObject("select count(*) from account_balance_slots where account_id = ?", Integer.class, accountId);
+    }
+
+    /* Net movement of the account according to the journal */
+    private BigDecimal journalBalance(Long accountId) {
+        return jdbcTemplate.queryForObject("""
+                select coalesce(sum(case when direction = 'CREDIT' then amount else -amount end), 0)
+                from journal_lines where account_id = ?""", BigDecimal.class, accountId);
+    }
+}
@@ -0,0 +1,218 @@
+package org.henry.bankingsystem.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.henry.bankingsystem.dto.DefaultApiResponse;
+import org.henry.bankingsystem.entity.IdempotencyRecord;
+import org.henry.bankingsystem.enums.IdempotencyStatus;
+import org.henry.bankingsystem.repository.IdempotencyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.henry.bankingsystem.constants.StatusCodeConstants.GENERIC_ERROR;
+import static org.henry.bankingsystem.constants.StatusCodeConstants.TRANSACTION_DUPLICATE_REQUEST;
+import static org.henry.bankingsystem.constants.StatusCodeConstants.TRANSACTION_SUCCESS;
+
+@SpringBootTest
+class IdempotencyServiceTest {
+    private static final Map<String, String> BODY = Map.of("amount", "100.00");
+
+    @Autowired private IdempotencyService idempotencyService;
+    @Autowired private IdempotencyRepository idempotencyRepository;
+    @Autowired private ObjectMapper objectMapper;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void aRetryReplaysTheFirstResponseWithoutRunningAgain() {
+        String key = UUID.randomUUID().toString();
+        DefaultApiResponse<BigDecimal> first = execute(key, BODY, TRANSACTION_SUCCESS);
+        DefaultApiResponse<BigDecimal> retry = execute(key, BODY, TRANSACTION_SUCCESS);
+
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(retry).isSameAs(first);
+        IdempotencyRecord stored = idempotencyRepository.findById(keyHash(key)).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(IdempotencyStatus.COMPLETED);
+        assertThat(stored.getResponseBody()).contains("\"data\":1");
+    }
+
+    @Test
+    void aResponseStoredByAnotherNodeIsReplayedFromTheTable() throws Exception {
+        String key = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        idempotencyRepository.save(IdempotencyRecord.builder()
+                .keyHash(keyHash(key)).endpoint("transfer").requestHash(sha256(objectMapper.writeValueAsString(BODY)))
+                .status(IdempotencyStatus.COMPLETED).responseBody("{\"statusCode\":13,\"data\":42}")
+                .createdAt(now).expiresAt(now.plus(Duration.ofHours(1)))
+                .build());
+
+        DefaultApiResponse<BigDecimal> replayed = execute(key, BODY, TRANSACTION_SUCCESS);
+        assertThat(replayed.getStatusCode()).isEqualTo(TRANSACTION_SUCCESS);
+        assertThat(replayed.getData()).isEqualByComparingTo("42");
+        assertThat(runs.get()).isZero();
+    }
+
+    @Test
+    void aRetryWhileTheFirstIsStillRunningIsRefused() {
+        String key = UUID.randomUUID().toString();
+        CompletableFuture<DefaultApiResponse<BigDecimal>> pending = new CompletableFuture<>();
+        CompletableFuture<DefaultApiResponse<BigDecimal>> first =
+                idempotencyService.executeAsync(key, "transfer", BODY, BigDecimal.class, () -> pending);
+
+        DefaultApiResponse<BigDecimal> retry = execute(key, BODY, TRANSACTION_SUCCESS);
+        assertThat(retry.getStatusCode()).isEqualTo(TRANSACTION_DUPLICATE_REQUEST);
+        assertThat(retry.getStatusMessage()).contains("still being processed");
+        assertThat(runs.get()).isZero();
+
+        pending.complete(response(TRANSACTION_SUCCESS, BigDecimal.TEN));
+        assertThat(first.join().getData()).isEqualByComparingTo("10");
+        assertThat(execute(key, BODY, TRANSACTION_SUCCESS).getData()).isEqualByComparingTo("10");
+        assertThat(runs.get()).isZero();
+    }
+
+    @Test
+    void aKeyCannotBeReusedForADifferentRequest() {
+        String key = UUID.randomUUID().toString();
+        execute(key, BODY, TRANSACTION_SUCCESS);
+
+        DefaultApiResponse<BigDecimal> reused = execute(key, Map.of("amount", "900.00"), TRANSACTION_SUCCESS);
+        assertThat(reused.getStatusCode()).isEqualTo(TRANSACTION_DUPLICATE_REQUEST);
+        assertThat(reused.getStatusMessage()).contains("different request");
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keysAreScopedToTheCustomer() {
+        String key = UUID.randomUUID().toString();
+        execute(key, BODY, TRANSACTION_SUCCESS);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("someone@example.com", null, List.of()));
+        execute(key, BODY, TRANSACTION_SUCCESS);
+
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void unexpectedFailuresReleaseTheKeySoTheClientCanRetry() {
+        String key = UUID.randomUUID().toString();
+        assertThat(execute(key, BODY, GENERIC_ERROR).getStatusCode()).isEqualTo(GENERIC_ERROR);
+        assertThatThrownBy(() -> idempotencyService.execute(key, "transfer", BODY, BigDecimal.class, () -> {
+            runs.incrementAndGet();
+            throw new IllegalStateException("database went away");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(execute(key, BODY, TRANSACTION_SUCCESS).getStatusCode()).isEqualTo(TRANSACTION_SUCCESS);
+        assertThat(runs.get()).isEqualTo(3);
+        assertThat(execute(key, BODY, TRANSACTION_SUCCESS).getData()).isEqualByComparingTo("3");
+    }
+
+    @Test
+    void aKeyPostedBeforeTheRequestFailedIsNotReleased() {
+        String key = UUID.randomUUID().toString();
+        DefaultApiResponse<BigDecimal> failed = idempotencyService.execute(key, "transfer", BODY, BigDecimal.class, () -> {
+            runs.incrementAndGet();
+            idempotencyService.complete(IdempotencyService.currentLease());
+            return response(GENERIC_ERROR, null);
+        });
+        assertThat(failed.getStatusCode()).isEqualTo(GENERIC_ERROR);
+
+        DefaultApiResponse<BigDecimal> retry = execute(key, BODY, TRANSACTION_SUCCESS);
+        assertThat(retry.getStatusCode()).isEqualTo(TRANSACTION_DUPLICATE_REQUEST);
+        assertThat(retry.getStatusMessage()).contains("already been processed");
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void aKeyAbandonedUnpostedIsTakenOverOnceItsLeaseRunsOut() throws Exception {
+        String key = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        idempotencyRepository.save(IdempotencyRecord.builder()
+                .keyHash(keyHash(key)).endpoint("transfer").requestHash(sha256(objectMapper.writeValueAsString(BODY)))
+                .status(IdempotencyStatus.IN_PROGRESS).createdAt(now).expiresAt(now.plus(Duration.ofHours(1)))
+                .leaseToken(UUID.randomUUID().toString()).leaseExpiresAt(now.minusSeconds(1))
+                .build());
+
+        assertThat(execute(key, BODY, TRANSACTION_SUCCESS).getData()).isEqualByComparingTo("1");
+        assertThat(execute(key, BODY, TRANSACTION_SUCCESS).getData()).isEqualByComparingTo("1");
+        assertThat(idempotencyRepository.findById(keyHash(key)).orElseThrow().getStatus()).isEqualTo(IdempotencyStatus.COMPLETED);
+    }
+
+    @Test
+    void theFormerHolderOfAKeyTakenOverCannotPost() {
+        String key = UUID.randomUUID().toString();
+        AtomicReference<IdempotencyService.Lease> formerLease = new AtomicReference<>();
+        CompletableFuture<DefaultApiResponse<BigDecimal>> pending = new CompletableFuture<>();
+        CompletableFuture<DefaultApiResponse<BigDecimal>> first = idempotencyService.executeAsync(key, "transfer", BODY,
+                BigDecimal.class, () -> {
+                    formerLease.set(IdempotencyService.currentLease());
+                    return pending;
+                });
+        IdempotencyRecord stalled = idempotencyRepository.findById(keyHash(key)).orElseThrow();
+        stalled.setLeaseExpiresAt(Instant.now().minusSeconds(1));
+        idempotencyRepository.save(stalled);
+
+        assertThat(execute(key, BODY, TRANSACTION_SUCCESS).getData()).isEqualByComparingTo("1");
+        assertThatThrownBy(() -> idempotencyService.complete(formerLease.get())).isInstanceOf(IllegalStateException.class);
+
+        pending.complete(response(TRANSACTION_SUCCESS, BigDecimal.TEN));
+        first.join();
+        assertThat(execute(key, BODY, TRANSACTION_SUCCESS).getData()).isEqualByComparingTo("1");
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void requestsWithoutAKeyAlwaysRun() {
+        execute(null, BODY, TRANSACTION_SUCCESS);
+        execute(" ", BODY, TRANSACTION_SUCCESS);
+
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    private DefaultApiResponse<BigDecimal> execute(String key, Object body, int statusCode) {
+        return idempotencyService.execute(key, "transfer", body, BigDecimal.class,
+                () -> response(statusCode, BigDecimal.valueOf(runs.incrementAndGet())));
+    }
+
+    /* Keys are stored hashed together with the customer and the endpoint */
+    private static String keyHash(String key) {
+        return sha256("anonymous|transfer|" + key);
+    }
+
+    private static String sha256(String value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static DefaultApiResponse<BigDecimal> response(int statusCode, BigDecimal data) {
+        DefaultApiResponse<BigDecimal> response = new DefaultApiResponse<>();
+        response.setStatusCode(statusCode);
+        response.setData(data);
+        return response;
+    }
+}
@@ -0,0 +1,105 @@
+package org.henry.bankingsystem.service;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.exceptions.InsufficientFundsException;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+/**
+ * Transfers racing over the same few accounts neither lose nor create money, and the cached
+ * balances stay equal to what the journal says.
+ */
+@SpringBootTest
+class TransferEngineConcurrencyTest {
+    private static final String ENTRY_LINES = """
+            select l.entry_ref, l.direction, l.amount from journal_lines l
+            where l.entry_ref in (select entry_ref from journal_lines where account_id in (%s))""";
+
+    @Autowired private TransferEngine transferEngine;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TestAccounts testAccounts;
+    @Autowired private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void concurrentTransfersKeepBalancesAndJournalInStep() throws Exception {
+        List<Long> accountIds = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            accountIds.add(testAccounts.save(account("780000000" + i)).getAccountId());
+        }
+
+        AtomicInteger committed = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int worker = 0; worker < 8; worker++) {
+            Random random = new Random(worker);
+            workers.add(() -> {
+                for (int i = 0; i < 40; i++) {
+                    Long sender = accountIds.get(random.nextInt(4));
+                    Long receiver = accountIds.get(random.nextInt(4));
+                    if (sender.equals(receiver)) {
+                        continue;
+                    }
+                    try {
+                        transferEngine.transfer(sender, receiver, BigDecimal.valueOf(1 + random.nextInt(300)),
+                                BigDecimal.ONE, "Concurrency test");
+                        committed.incrementAndGet();
+                    } catch (InsufficientFundsException e) {
+                        refused.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Void> result : executor.invokeAll(workers)) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(committed.get()).isPositive();
+
+        // Every committed transfer moved one unit of charges out of the customers' money, nothing else left it
+        BigDecimal total = accountIds.stream()
+                .map(id -> accountRepository.findById(id).orElseThrow().getAccountBalance())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(total).isEqualByComparingTo(BigDecimal.valueOf(4_000 - committed.get()));
+
+        for (Long accountId : accountIds) {
+            BigDecimal journal = jdbcTemplate.queryForObject("""
+                    select coalesce(sum(case when direction = 'CREDIT' then amount else -amount end), 0)
+                    from journal_lines where account_id = ?""", BigDecimal.class, accountId);
+            assertThat(accountRepository.findById(accountId).orElseThrow().getAccountBalance())
+                    .isEqualByComparingTo(new BigDecimal("1000.00").add(journal));
+            assertThat(accountRepository.findById(accountId).orElseThrow().getAccountBalance()).isNotNegative();
+        }
+
+        Map<String, BigDecimal> netByEntry = new HashMap<>();
+        String ids = String.join(",", accountIds.stream().map(String::valueOf).toList());
+        jdbcTemplate.query(ENTRY_LINES.formatted(ids), rs -> {
+            BigDecimal amount = rs.getBigDecimal("amount");
+            netByEntry.merge(rs.getString("entry_ref"), "DEBIT".equals(rs.getString("direction")) ? amount : amount.negate(), BigDecimal::add);
+        });
+        assertThat(netByEntry).hasSize(committed.get());
+        assertThat(netByEntry.values()).allSatisfy(net -> assertThat(net).isEqualByComparingTo("0"));
+    }
+}
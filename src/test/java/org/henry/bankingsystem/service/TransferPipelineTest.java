@@ -0,0 +1,102 @@
+package org.henry.bankingsystem.service;
+
+import org.henry.bankingsystem.TestAccounts;
+import org.henry.bankingsystem.exceptions.InsufficientFundsException;
+import org.henry.bankingsystem.exceptions.ResourceNotFoundException;
+import org.henry.bankingsystem.repository.AccountRepository;
+import org.henry.bankingsystem.service.TransferEngine.GroupTransfer;
+import org.henry.bankingsystem.service.TransferEngine.GroupTransferOutcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.henry.bankingsystem.TestAccounts.account;
+
+@SpringBootTest(properties = "banking.transfer.mode=pipeline")
+class TransferPipelineTest {
+
+    @Autowired private TransferPipeline transferPipeline;
+    @Autowired private TransferEngine transferEngine;
+    @Autowired private AccountRepository accountRepository;
+    @Autowired private TestAccounts testAccounts;
+
+    @Test
+    void transfersThatCannotBeCoveredFailOneByOne() throws Exception {
+        Long first = testAccounts.save(account("7900000301")).getAccountId();
+        Long second = testAccounts.save(account("7900000302")).getAccountId();
+        Long receiver = testAccounts.save(account("7900000303")).getAccountId();
+
+        // Each sender can cover four of these, and the request threads race to submit them
+        List<CompletableFuture<BigDecimal>> transfers = new ArrayList<>();
+        List<Thread> senders = new ArrayList<>();
+        for (Long sender : List.of(first, second)) {
+            senders.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < 6; i++) {
+                    CompletableFuture<BigDecimal> transfer = transferPipeline.submit(sender, receiver,
+                            new BigDecimal("240.00"), new BigDecimal("10.00"), "Pipeline test");
+                    synchronized (transfers) {
+                        transfers.add(transfer);
+                    }
+                }
+            }));
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        int committed = 0;
+        int refused = 0;
+        for (CompletableFuture<BigDecimal> transfer : transfers) {
+            try {
+                assertThat(transfer.get(30, TimeUnit.SECONDS)).isNotNegative();
+                committed++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(InsufficientFundsException.class);
+                refused++;
+            }
+        }
+        assertThat(committed).isEqualTo(8);
+        assertThat(refused).isEqualTo(4);
+        assertThat(accountRepository.findById(first).orElseThrow().getAccountBalance()).isEqualByComparingTo("0");
+        assertThat(accountRepository.findById(second).orElseThrow().getAccountBalance()).isEqualByComparingTo("0");
+        assertThat(accountRepository.findById(receiver).orElseThrow().getAccountBalance()).isEqualByComparingTo("2920.00");
+    }
+
+    @Test
+    void aCreditEarlierInAGroupCanFundALaterDebit() {
+        Long payer = testAccounts.save(account("7900000304")).getAccountId();
+        Long middle = testAccounts.save(account("7900000305")).getAccountId();
+
+        List<GroupTransferOutcome> outcomes = transferEngine.transferGroup(List.of(
+                new GroupTransfer(payer, middle, new BigDecimal("500.00"), BigDecimal.ZERO, "Pipeline test", null),
+                new GroupTransfer(middle, payer, new BigDecimal("1500.00"), BigDecimal.ZERO, "Pipeline test", null),
+                new GroupTransfer(middle, payer, BigDecimal.ONE, BigDecimal.ZERO, "Pipeline test", null)));
+
+        assertThat(outcomes.get(0).senderBalance()).isEqualByComparingTo("500.00");
+        assertThat(outcomes.get(1).senderBalance()).isEqualByComparingTo("0");
+        assertThat(outcomes.get(2).refusal()).isInstanceOf(InsufficientFundsException.class);
+        assertThat(accountRepository.findById(payer).orElseThrow().getAccountBalance()).isEqualByComparingTo("2000.00");
+        assertThat(accountRepository.findById(middle).orElseThrow().getAccountBalance()).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void aTransferToAMissingAccountIsNotReportedAsInsufficientFunds() {
+        Long sender = testAccounts.save(account("7900000306")).getAccountId();
+
+        CompletableFuture<BigDecimal> transfer = transferPipeline.submit(sender, Long.MAX_VALUE,
+                new BigDecimal("100.00"), BigDecimal.ZERO, "Pipeline test");
+
+        assertThatThrownBy(() -> transfer.get(30, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+                .cause().isInstanceOf(ResourceNotFoundException.class);
+        assertThat(accountRepository.findById(sender).orElseThrow().getAccountBalance()).isEqualByComparingTo("1000.00");
+    }
+}
@@ -0,0 +1,89 @@
+package org.henry.bankingsystem.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AccountLockManagerTest {
+
+    private final int[] counter = new int[1];
+
+    @Test
+    void oppositeTransfersBetweenTwoStripesNeitherDeadlockNorOverlap() throws Exception {
+        AccountLockManager locks = new AccountLockManager(16, 5_000);
+        String first = "0000000001";
+        String second = otherStripeThan(locks, first);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> forward = executor.submit(() -> increment(locks, first, second));
+            Future<?> backward = executor.submit(() -> increment(locks, second, first));
+            forward.get(30, TimeUnit.SECONDS);
+            backward.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(counter[0]).isEqualTo(20_000);
+    }
+
+    @Test
+    void waitingLongerThanTheMaximumFails() throws Exception {
+        AccountLockManager locks = new AccountLockManager(16, 50);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofPlatform().start(() -> locks.withLock("0000000001", () -> {
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        assertThat(held.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> locks.withLock("0000000001", () -> null))
+                    .isInstanceOf(CannotAcquireLockException.class);
+            // Sharing the stripe with the held account is enough to wait, and both accounts are needed here
+            assertThatThrownBy(() -> locks.withLocks(otherStripeThan(locks, "0000000001"), "0000000001", () -> null))
+                    .isInstanceOf(CannotAcquireLockException.class);
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertThat(locks.withLock("0000000001", () -> "free again")).isEqualTo("free again");
+        assertThat(locks.stripeStats()).anySatisfy(stats -> assertThat(stats.contended()).isEqualTo(2));
+    }
+
+    @Test
+    void stripeCountIsRoundedUpToAPowerOfTwo() {
+        AccountLockManager locks = new AccountLockManager(100, 50);
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(locks.stripeIndex(String.format("%010d", i))).isBetween(0, 127);
+        }
+    }
+
+    private void increment(AccountLockManager locks, String from, String to) {
+        for (int i = 0; i < 10_000; i++) {
+            locks.withLocks(from, to, () -> counter[0]++);
+        }
+    }
+
+    private static String otherStripeThan(AccountLockManager locks, String accountNumber) {
+        for (int i = 2; ; i++) {
+            String candidate = String.format("%010d", i);
+            if (locks.stripeIndex(candidate) != locks.stripeIndex(accountNumber)) {
+                return candidate;
+            }
+        }
+    }
+}
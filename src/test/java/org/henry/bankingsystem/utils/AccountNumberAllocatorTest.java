@@ -0,0 +1,65 @@
+package org.henry.bankingsystem.utils;
+
+import org.henry.bankingsystem.repository.NumberSequenceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class AccountNumberAllocatorTest {
+
+    @Autowired private NumberSequenceRepository numberSequenceRepository;
+    @Autowired private PlatformTransactionManager transactionManager;
+
+    @Test
+    void checkDigitMatchesTheNubanSpecification() {
+        // Worked example of the CBN NUBAN standard: bank 011, serial 000001457
+        assertThat(AccountNumberAllocator.withCheckDigit("011", 1457)).isEqualTo("0000014579");
+        assertThat(AccountNumberAllocator.withCheckDigit("999", 0)).isEqualTo("0000000003");
+        assertThat(AccountNumberAllocator.withCheckDigit("999", 100_000_000)).isEqualTo("1000000000");
+        assertThat(AccountNumberAllocator.withCheckDigit("011", AccountNumberAllocator.MAX_SERIAL)).hasSize(10).startsWith("999999999");
+    }
+
+    @Test
+    void numbersStayConsecutiveAcrossBlocksAndNeverRepeatBetweenNodes() {
+        AccountNumberAllocator first = new AccountNumberAllocator(numberSequenceRepository, transactionManager, "011", 3, 100_000_000);
+        AccountNumberAllocator second = new AccountNumberAllocator(numberSequenceRepository, transactionManager, "011", 3, 100_000_000);
+
+        List<String> fromFirst = new ArrayList<>();
+        Set<String> issued = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            String number = first.nextAccountNumber();
+            fromFirst.add(number);
+            assertThat(issued.add(number)).isTrue();
+            assertThat(issued.add(second.nextAccountNumber())).isTrue();
+        }
+
+        // Within a block of 3 the serials follow each other, and every number carries its check digit
+        for (int block = 0; block < 3; block++) {
+            long start = serial(fromFirst.get(block * 3));
+            assertThat(serial(fromFirst.get(block * 3 + 1))).isEqualTo(start + 1);
+            assertThat(serial(fromFirst.get(block * 3 + 2))).isEqualTo(start + 2);
+        }
+        assertThat(issued).allSatisfy(number ->
+                assertThat(AccountNumberAllocator.withCheckDigit("011", serial(number))).isEqualTo(number));
+    }
+
+    @Test
+    void bankCodeMustBeThreeDigits() {
+        assertThatThrownBy(() -> new AccountNumberAllocator(numberSequenceRepository, transactionManager, "11", 3, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long serial(String accountNumber) {
+        return Long.parseLong(accountNumber.substring(0, 9));
+    }
+}
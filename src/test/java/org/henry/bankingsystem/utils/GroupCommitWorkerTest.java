@@ -0,0 +1,88 @@
+package org.henry.bankingsystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class GroupCommitWorkerTest {
+
+    private record Item(long key, CompletableFuture<Integer> batchSize) {
+    }
+
+    @Test
+    void everyItemIsHandledOnceInABatchOfItsKey() {
+        List<List<Long>> batches = new ArrayList<>();
+        GroupCommitWorker<Item> worker = new GroupCommitWorker<>("test-worker", 2, 1_000, 16, 200,
+                batch -> {
+                    synchronized (batches) {
+                        batches.add(batch.stream().map(Item::key).toList());
+                    }
+                    batch.forEach(item -> item.batchSize().complete(batch.size()));
+                },
+                item -> item.batchSize().completeExceptionally(new IllegalStateException("abandoned")));
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            Item item = new Item(i % 4, new CompletableFuture<>());
+            worker.submit(item.key(), item);
+            items.add(item);
+        }
+        worker.close();
+
+        assertThat(items).allSatisfy(item -> assertThat(item.batchSize()).isCompleted());
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSizeLessThanOrEqualTo(16));
+        // Keys 0 and 2 share a worker, as do 1 and 3, so a batch never mixes odd and even keys
+        assertThat(batches).allSatisfy(batch -> assertThat(batch.stream().map(key -> key % 2).distinct()).hasSize(1));
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(500);
+    }
+
+    @Test
+    void itemsSubmittedAfterCloseAreRejected() {
+        GroupCommitWorker<Item> worker = new GroupCommitWorker<>("test-worker", 1, 10, 4, 0,
+                batch -> batch.forEach(item -> item.batchSize().complete(batch.size())),
+                item -> item.batchSize().completeExceptionally(new IllegalStateException("abandoned")));
+        worker.close();
+
+        assertThatThrownBy(() -> worker.submit(1, new Item(1, new CompletableFuture<>())))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void itemsStillQueuedWhenCloseGivesUpAreAbandoned() throws Exception {
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        GroupCommitWorker<Item> worker = new GroupCommitWorker<>("test-worker", 1, 10, 1, 0,
+                batch -> {
+                    handling.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    batch.forEach(item -> item.batchSize().complete(batch.size()));
+                },
+                item -> item.batchSize().completeExceptionally(new RejectedExecutionException("abandoned")));
+
+        Item busy = new Item(1, new CompletableFuture<>());
+        worker.submit(1, busy);
+        assertThat(handling.await(5, TimeUnit.SECONDS)).isTrue();
+        Item queued = new Item(1, new CompletableFuture<>());
+        worker.submit(1, queued);
+
+        worker.close(100);
+        assertThat(queued.batchSize()).isCompletedExceptionally();
+        assertThat(busy.batchSize()).isNotDone();
+
+        // The batch in hand when close gave up still completes
+        release.countDown();
+        assertThat(busy.batchSize().get(5, TimeUnit.SECONDS)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,48 @@
+package org.henry.bankingsystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HierarchicalTimingWheelTest {
+
+    @Test
+    void timersExpireInTheTickContainingTheirDueTime() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(10, 8, 0);
+        assertThat(wheel.add(5L, 5)).isFalse();
+
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            long due = 10 + random.nextInt(200_000);
+            assertThat(wheel.add(due, due)).isTrue();
+        }
+        assertThat(wheel.add(80L, 80)).isTrue();
+        assertThat(wheel.size()).isEqualTo(2_001);
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long now = 10; now <= 200_010; now += 10) {
+            long tick = now;
+            wheel.advance(now, due -> firedAt.put(due, tick));
+        }
+        assertThat(wheel.size()).isZero();
+        assertThat(firedAt).allSatisfy((due, tick) -> assertThat(tick).isEqualTo(due - due % 10));
+    }
+
+    @Test
+    void advancingPastSeveralTicksAtOnceExpiresEverythingDueSoFar() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1_000, 64, 1_000_000);
+        wheel.add("next minute", 1_060_000);
+        wheel.add("next hour", 4_600_000);
+        wheel.add("next week", 605_800_000);
+
+        StringBuilder fired = new StringBuilder();
+        wheel.advance(5_000_000, item -> fired.append(item).append(';'));
+
+        assertThat(fired).hasToString("next minute;next hour;");
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,52 @@
+package org.henry.bankingsystem.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.henry.bankingsystem.enums.CurrencyType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void convertsExactDecimalsAndRejectsSubMinorAmounts() {
+        assertThat(Money.of(new BigDecimal("1234.5"), CurrencyType.NGN).minorUnits()).isEqualTo(123_450);
+        assertThat(Money.of(new BigDecimal("10.000"), CurrencyType.NGN).minorUnits()).isEqualTo(1_000);
+        assertThat(Money.ofMinor(123_450, CurrencyType.NGN).toBigDecimal()).isEqualByComparingTo("1234.50");
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.001"), CurrencyType.USD))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void ratesRoundUpToTheNextMinorUnit() {
+        Money amount = Money.of(new BigDecimal("123.45"), CurrencyType.EUR);
+        assertThat(amount.applyRate(1_125)).isEqualTo(Money.of(new BigDecimal("13.89"), CurrencyType.EUR));
+        assertThat(Money.ofMajor(100, CurrencyType.EUR).applyRate(300)).isEqualTo(Money.ofMajor(3, CurrencyType.EUR));
+    }
+
+    @Test
+    void dailyInterestIsKeptInMillionthsOfAMinorUnit() {
+        // 1,000,000.00 at 4% a year: 40,000.00 / 365 = 109.589041 a day
+        assertThat(Money.ofMajor(1_000_000, CurrencyType.NGN).dailyInterestMicros(Money.basisPointsOf(BigDecimal.valueOf(4))))
+                .isEqualTo(10_958_904_109L);
+        assertThat(Money.ofMinor(1, CurrencyType.NGN).dailyInterestMicros(425)).isEqualTo(116);
+        assertThatThrownBy(() -> Money.basisPointsOf(new BigDecimal("4.125"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void arithmeticIsOverflowCheckedAndSingleCurrency() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, CurrencyType.NGN);
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1, CurrencyType.NGN))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.applyRate(2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofMajor(1, CurrencyType.NGN).plus(Money.ofMajor(1, CurrencyType.USD)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void serializesAsPlainDecimal() throws Exception {
+        assertThat(new ObjectMapper().writeValueAsString(Money.ofMinor(500_005, CurrencyType.NGN))).isEqualTo("5000.05");
+    }
+}
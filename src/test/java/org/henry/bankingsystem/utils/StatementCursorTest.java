@@ -0,0 +1,26 @@
+package org.henry.bankingsystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementCursorTest {
+
+    @Test
+    void roundTripsThroughAnUrlSafeString() {
+        StatementCursor cursor = new StatementCursor(LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_000), 9_876_543_210L);
+        String encoded = cursor.encode();
+
+        assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        assertThat(StatementCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsCursorsItDidNotIssue() {
+        assertThatThrownBy(() -> StatementCursor.decode("not a cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> StatementCursor.decode("MjAyNC0wMi0yOQ")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,118 @@
+package org.henry.bankingsystem.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionRefGeneratorTest {
+
+    @Test
+    void refsAreUniqueAndIncreasingAcrossThreads() throws Exception {
+        TransactionRefGenerator generator = new TransactionRefGenerator(7L);
+        int threads = 8;
+        int perThread = 100_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<String>>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                List<String> refs = new ArrayList<>(perThread);
+                for (int i = 0; i < perThread; i++) {
+                    refs.add(generator.nextRef());
+                }
+                return refs;
+            }));
+        }
+        start.countDown();
+
+        Set<String> all = new HashSet<>(threads * perThread);
+        for (Future<List<String>> future : futures) {
+            List<String> refs = future.get(30, TimeUnit.SECONDS);
+            for (int i = 1; i < refs.size(); i++) {
+                assertThat(refs.get(i)).isGreaterThan(refs.get(i - 1));
+            }
+            all.addAll(refs);
+        }
+        pool.shutdown();
+
+        assertThat(all).hasSize(threads * perThread);
+        assertThat(all).allSatisfy(ref -> assertThat(ref).hasSize(TransactionRefGenerator.REF_LENGTH));
+    }
+
+    @Test
+    void waitsForTheNextMillisecondOnceTheSequenceIsUsedUp() throws Exception {
+        AtomicLong now = new AtomicLong(TransactionRefGenerator.EPOCH_MILLIS + 1_000);
+        TransactionRefGenerator generator = new TransactionRefGenerator(1, now::get);
+
+        long previous = -1;
+        for (int i = 0; i < 4_096; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            previous = id;
+        }
+        Future<Long> next = waitingForClock(generator);
+        now.incrementAndGet();
+
+        assertThat(next.get(5, TimeUnit.SECONDS)).isGreaterThan(previous);
+        assertThat(timestampOf(next.get())).isEqualTo(1_001);
+    }
+
+    @Test
+    void waitsForTheClockToCatchUpAfterItStepsBack() throws Exception {
+        AtomicLong now = new AtomicLong(TransactionRefGenerator.EPOCH_MILLIS + 1_000);
+        TransactionRefGenerator generator = new TransactionRefGenerator(1, now::get);
+        long previous = generator.nextId();
+
+        now.addAndGet(-20);
+        Future<Long> next = waitingForClock(generator);
+        now.addAndGet(20);
+
+        assertThat(next.get(5, TimeUnit.SECONDS)).isGreaterThan(previous);
+        assertThat(timestampOf(next.get())).isEqualTo(1_000);
+    }
+
+    /* Asks for an id that cannot be issued at the current clock reading, and checks that it is held back */
+    private static Future<Long> waitingForClock(TransactionRefGenerator generator) throws InterruptedException {
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        Future<Long> next = caller.submit(generator::nextId);
+        caller.shutdown();
+        Thread.sleep(50);
+        assertThat(next).isNotDone();
+        return next;
+    }
+
+    private static long timestampOf(long id) {
+        return id >>> (TransactionRefGenerator.NODE_BITS + TransactionRefGenerator.SEQUENCE_BITS);
+    }
+
+    @Test
+    void nodesNeverShareIds() {
+        AtomicLong now = new AtomicLong(TransactionRefGenerator.EPOCH_MILLIS + 42);
+        TransactionRefGenerator first = new TransactionRefGenerator(1, now::get);
+        TransactionRefGenerator second = new TransactionRefGenerator(2, now::get);
+
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 5_000; i++) {
+            if (i % 1_000 == 999) {
+                now.incrementAndGet();
+            }
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        }
+        assertThat(ids).hasSize(10_000);
+    }
+
+    @Test
+    void aNodeWithoutANodeIdDoesNotStart() {
+        assertThatThrownBy(() -> new TransactionRefGenerator((Long) null))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("banking.node-id");
+        assertThatThrownBy(() -> new TransactionRefGenerator(1_024L)).isInstanceOf(IllegalArgumentException.class);
+    }
+}